@@ -2,6 +2,15 @@ plugins {
     alias(libs.plugins.android.application)
 }
 
+// 6tail的lunar库，应用运行时和构建时生成黄历数据包都用同一个版本
+val lunarLibrary = "cn.6tail:lunar:1.7.4"
+
+// 黄历数据包覆盖的公历年份，与AppConstants.ALMANAC_START_YEAR/ALMANAC_END_YEAR一致
+val almanacStartYear = 1900
+val almanacEndYear = 2100
+
+val almanacAssetsDir = layout.buildDirectory.dir("generated/almanac/assets")
+
 android {
     namespace = "com.trah.electronichuangli"
     compileSdk = 34
@@ -29,6 +38,58 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+
+    testOptions {
+        // 单元测试中Log等Android方法返回默认值，AppMetrics等记录日志时不抛异常
+        unitTests.isReturnDefaultValues = true
+    }
+
+    sourceSets {
+        getByName("main") {
+            // 构建时生成的黄历数据包
+            assets.srcDir(almanacAssetsDir)
+        }
+        getByName("test") {
+            // 日表编码器等生成工具只在构建时运行、不进APK，单元测试需要用它们生成测试数据
+            java.srcDir("src/generator/java")
+        }
+    }
+}
+
+// ==================== 黄历数据包 ====================
+// 构建时在JVM上运行lunar库生成日表、节气表、农历月首表，压缩后放进assets，设备上不再生成
+// 生成后会逐项与lunar库核对，任何不一致都会使构建失败
+
+val almanacGenerator: Configuration by configurations.creating
+
+val compileAlmanacGenerator by tasks.registering(JavaCompile::class) {
+    description = "编译黄历数据包生成工具"
+    // almanac包只依赖lunar库和JDK，直接与生成工具一起编译
+    source(fileTree("src/main/java") {
+        include("com/trah/electronichuangli/almanac/**")
+        include("com/trah/electronichuangli/constants/**")
+    })
+    source("src/generator/java")
+    classpath = almanacGenerator
+    destinationDirectory.set(layout.buildDirectory.dir("generated/almanac/classes"))
+    sourceCompatibility = "11"
+    targetCompatibility = "11"
+    options.encoding = "UTF-8"
+}
+
+val generateAlmanacPack by tasks.registering(JavaExec::class) {
+    description = "生成并核对黄历数据包"
+    group = "build"
+    val packFile = almanacAssetsDir.map { it.file("almanac.pack") }
+    classpath = files(compileAlmanacGenerator) + almanacGenerator
+    mainClass.set("com.trah.electronichuangli.almanac.AlmanacPackTool")
+    jvmArgs("-Dfile.encoding=UTF-8")
+    args(packFile.get().asFile.absolutePath, almanacStartYear, almanacEndYear)
+    outputs.file(packFile)
+}
+
+tasks.named("preBuild") {
+    dependsOn(generateAlmanacPack)
 }
 
 dependencies {
@@ -38,7 +99,8 @@ dependencies {
     implementation(libs.constraintlayout)
     
     // 添加6tail的lunar库用于农历和黄历计算
-    implementation("cn.6tail:lunar:1.7.4")
+    implementation(lunarLibrary)
+    almanacGenerator(lunarLibrary)
     implementation(libs.swiperefreshlayout)
 
     testImplementation(libs.junit)
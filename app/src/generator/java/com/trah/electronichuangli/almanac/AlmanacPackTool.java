@@ -0,0 +1,233 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.JieQi;
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.LunarMonth;
+import com.nlf.calendar.LunarYear;
+import com.nlf.calendar.Solar;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 构建时生成黄历数据包的命令行工具，由Gradle任务 {@code generateAlmanacPack} 调用
+ * 用lunar库生成日表、节气表和月首表并写出数据包，然后把写出的包重新安装一遍，
+ * 逐天、逐项与lunar库重新计算的结果核对；任何一项不一致都以非零状态退出，使构建失败
+ *
+ * 用法：AlmanacPackTool 输出文件 起始年 结束年
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class AlmanacPackTool {
+
+    /** 最多报告的不一致条数 */
+    private static final int MAX_ERRORS = 20;
+
+    private AlmanacPackTool() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: AlmanacPackTool <output> <startYear> <endYear>");
+            System.exit(2);
+        }
+        File output = new File(args[0]);
+        int startYear = Integer.parseInt(args[1]);
+        int endYear = Integer.parseInt(args[2]);
+
+        long start = System.currentTimeMillis();
+        byte[] days = AlmanacTableWriter.encode(startYear, endYear, RangeComputation.parallel());
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("无法创建目录: " + parent);
+        }
+        File temp = new File(output.getPath() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+            AlmanacPack.write(out, startYear, endYear, days);
+        }
+
+        List<String> errors = verify(temp, startYear, endYear);
+        if (!errors.isEmpty()) {
+            temp.delete();
+            for (String error : errors) {
+                System.err.println(error);
+            }
+            throw new IllegalStateException("黄历数据包与lunar库不一致，共报告" + errors.size() + "处");
+        }
+        Files.deleteIfExists(output.toPath());
+        if (!temp.renameTo(output)) {
+            throw new IOException("无法写入数据包: " + output);
+        }
+        System.out.println("黄历数据包 " + output.getName() + " " + startYear + "-" + endYear
+                + "，" + output.length() / 1024 + "KB，耗时" + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    // ==================== 核对 ====================
+
+    /**
+     * 把包安装到临时目录，逐项与lunar库核对
+     * @return 不一致的描述，全部一致时为空
+     */
+    private static List<String> verify(File packFile, int startYear, int endYear) throws IOException {
+        File dir = Files.createTempDirectory("almanac-pack").toFile();
+        try (InputStream in = new FileInputStream(packFile)) {
+            AlmanacPack pack = AlmanacPack.install(in, dir);
+            List<String> errors = new ArrayList<>();
+            if (pack.getStartYear() != startYear || pack.getEndYear() != endYear) {
+                errors.add("年份范围不符: " + pack.getStartYear() + "-" + pack.getEndYear());
+            }
+            verifyTerms(pack, errors);
+            verifyMonths(pack, errors);
+
+            AlmanacTable table = pack.getTable();
+            List<List<String>> chunks = RangeComputation.parallel().map(
+                    EpochDay.of(startYear, 1, 1), EpochDay.of(endYear, 12, 31),
+                    (fromDay, toDay) -> verifyDays(table, fromDay, toDay));
+            for (List<String> chunk : chunks) {
+                errors.addAll(chunk);
+            }
+            return errors.size() > MAX_ERRORS ? errors.subList(0, MAX_ERRORS) : errors;
+        } finally {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            dir.delete();
+        }
+    }
+
+    /**
+     * 包内节气表与lunar库各农历年的 {@link Lunar#getJieQiTable()} 逐项比较：
+     * 每个节气的交节时刻和名称都要在库中找到，且库中落在包内时间范围的节气一个不少
+     */
+    private static void verifyTerms(AlmanacPack pack, List<String> errors) {
+        Map<String, Integer> termIndex = new HashMap<>();
+        for (int i = 0; i < SolarTermTable.NAMES.length; i++) {
+            termIndex.put(SolarTermTable.NAMES[i], i);
+        }
+        // 相邻农历年的节气表首尾有重叠，以时刻为键去重；拼音键的项属于相邻年份，跳过
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        for (int year = SolarTermTable.START_YEAR - 1; year <= SolarTermTable.END_YEAR + 1; year++) {
+            for (Map.Entry<String, Solar> entry : Lunar.fromYmd(year, 1, 1).getJieQiTable().entrySet()) {
+                Integer term = termIndex.get(entry.getKey());
+                if (term != null) {
+                    Solar solar = entry.getValue();
+                    expected.put(SolarTermTable.instantOf(solar.getYear(), solar.getMonth(), solar.getDay(),
+                            solar.getHour(), solar.getMinute(), solar.getSecond()), term);
+                }
+            }
+        }
+
+        SolarTermTable.Data data = SolarTermTable.decode(pack.termSection());
+        if (data.instants.length == 0) {
+            errors.add("节气表为空");
+            return;
+        }
+        for (int i = 0; i < data.instants.length; i++) {
+            Integer term = expected.get(data.instants[i]);
+            if (term == null || term != data.terms[i]) {
+                errors.add("节气不符: 第" + i + "项 " + SolarTermTable.NAMES[data.terms[i]] + " "
+                        + describeInstant(data.instants[i]) + "，lunar库中该时刻为"
+                        + (term != null ? SolarTermTable.NAMES[term] : "无节气"));
+            }
+        }
+        int inRange = expected.subMap(data.instants[0], true, data.instants[data.instants.length - 1], true).size();
+        if (inRange != data.instants.length) {
+            errors.add("节气个数不符: lunar库在包内时间范围内有" + inRange + "个，数据包有" + data.instants.length + "个");
+        }
+    }
+
+    /**
+     * 包内月首表与lunar库 {@link LunarYear#getMonths()} 逐月比较：
+     * 每个农历月的初一和天数（{@link LunarMonth#getDayCount()}）都要与库一致，且不多不少
+     */
+    private static void verifyMonths(AlmanacPack pack, List<String> errors) {
+        // getMonths()含相邻年份的月份，以年月为键去重，只取表覆盖的农历年
+        Map<String, int[]> expected = new HashMap<>();
+        for (int year = LunarMonthTable.START_YEAR; year <= LunarMonthTable.END_YEAR; year++) {
+            for (LunarMonth month : LunarYear.fromYear(year).getMonths()) {
+                if (month.getYear() < LunarMonthTable.START_YEAR || month.getYear() > LunarMonthTable.END_YEAR) {
+                    continue;
+                }
+                Solar first = Solar.fromJulianDay(month.getFirstJulianDay());
+                expected.put(month.getYear() + "/" + month.getMonth(), new int[]{
+                    EpochDay.of(first.getYear(), first.getMonth(), first.getDay()), month.getDayCount()
+                });
+            }
+        }
+
+        LunarMonthTable.Data data = LunarMonthTable.decode(pack.monthSection());
+        if (data.years.length != expected.size()) {
+            errors.add("农历月个数不符: lunar库有" + expected.size() + "个，数据包有" + data.years.length + "个");
+        }
+        for (int i = 0; i < data.years.length; i++) {
+            String key = data.years[i] + "/" + data.months[i];
+            int[] month = expected.get(key);
+            int dayCount = data.startDays[i + 1] - data.startDays[i];
+            if (month == null) {
+                errors.add("农历月不符: 第" + i + "项 " + key + " 在lunar库中不存在");
+            } else if (month[0] != data.startDays[i] || month[1] != dayCount) {
+                errors.add("农历月不符: " + key + " lunar库初一为" + EpochDay.toYmd(month[0]) + "、共" + month[1]
+                        + "天，数据包为" + EpochDay.toYmd(data.startDays[i]) + "、共" + dayCount + "天");
+            }
+        }
+    }
+
+    private static String describeInstant(long instant) {
+        long seconds = Math.floorMod(instant, 86400L);
+        return EpochDay.toYmd(SolarTermTable.dayOf(instant)) + String.format(" %02d:%02d:%02d",
+                seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+    /** 日表中[fromDay, toDay]的每个字段与lunar库重新计算的结果比较 */
+    private static List<String> verifyDays(AlmanacTable table, int fromDay, int toDay) {
+        List<String> errors = new ArrayList<>();
+        for (int day = fromDay; day <= toDay && errors.size() < MAX_ERRORS; day++) {
+            int ymd = EpochDay.toYmd(day);
+            Solar solar = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100);
+            Lunar lunar = solar.getLunar();
+            check(errors, ymd, "农历年", lunar.getYear(), table.lunarYear(day));
+            check(errors, ymd, "农历月", lunar.getMonth(), table.lunarMonth(day));
+            check(errors, ymd, "农历日", lunar.getDay(), table.lunarDay(day));
+            check(errors, ymd, "农历文字", lunar.toString(), table.lunarText(day));
+            check(errors, ymd, "年干支", GanZhi.of(lunar.getYearGanIndex(), lunar.getYearZhiIndex()), table.yearGanZhi(day));
+            check(errors, ymd, "月干支", GanZhi.of(lunar.getMonthGanIndex(), lunar.getMonthZhiIndex()), table.monthGanZhi(day));
+            check(errors, ymd, "日干支", GanZhi.of(lunar.getDayGanIndex(), lunar.getDayZhiIndex()), table.dayGanZhi(day));
+            check(errors, ymd, "日冲", GanZhi.zhiIndexOf(lunar.getDayChong()), table.chongZhi(day));
+            check(errors, ymd, "星座", solar.getXingZuo(), table.star(day));
+            check(errors, ymd, "纳音", lunar.getYearNaYin(), table.naYin(day));
+            check(errors, ymd, "上一节", nameOf(lunar.getPrevJie()), table.prevJie(day));
+            check(errors, ymd, "下一节", nameOf(lunar.getNextJie()), table.nextJie(day));
+            check(errors, ymd, "吉日", DayAlmanac.jiRiOf(lunar), table.jiRi(day));
+            check(errors, ymd, "宜", lunar.getDayYi(), Arrays.asList(table.yi(day)));
+            check(errors, ymd, "忌", lunar.getDayJi(), Arrays.asList(table.ji(day)));
+        }
+        return errors;
+    }
+
+    private static void check(List<String> errors, int ymd, String field, Object expected, Object actual) {
+        if (!expected.equals(actual)) {
+            errors.add(ymd + " " + field + ": lunar库为" + expected + "，数据包为" + actual);
+        }
+    }
+
+    private static String nameOf(JieQi jieQi) {
+        return jieQi != null ? jieQi.getName() : "";
+    }
+}
@@ -0,0 +1,228 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 黄历日表生成器
+ * 逐日调用6tail/lunar-java计算黄历字段，编码为 {@link AlmanacTable} 可读取的二进制内容
+ * 只依赖lunar库和JDK，构建时由 {@code generateAlmanacPack} 任务在JVM上运行，结果打进数据包
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class AlmanacTableWriter {
+
+    private AlmanacTableWriter() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * 生成日表的完整字节内容，格式见 {@link AlmanacTable}
+     * 各块并行换算出每天的原始字段，再在调用线程上按日期顺序编入字符串池，
+     * 因此无论是否并行、如何分块，生成的内容都逐字节相同
+     *
+     * @param startYear 起始公历年（包含）
+     * @param endYear 结束公历年（包含）
+     * @param computation 分块计算方式
+     * @return 日表字节
+     * @throws IOException 编码失败
+     */
+    public static byte[] encode(int startYear, int endYear, RangeComputation computation) throws IOException {
+        int startDay = EpochDay.of(startYear, 1, 1);
+        int endDay = EpochDay.of(endYear, 12, 31);
+        int dayCount = endDay - startDay + 1;
+
+        List<DayRow[]> chunks = computation.map(startDay, endDay, AlmanacTableWriter::computeRows);
+
+        StringPool texts = new StringPool();
+        StringPool words = new StringPool();
+        texts.idOf("");
+        int[][] comboYi = new int[AlmanacTable.YI_JI_COMBOS][];
+        int[][] comboJi = new int[AlmanacTable.YI_JI_COMBOS][];
+        byte[] records = new byte[dayCount * AlmanacTable.RECORD_SIZE];
+
+        int i = 0;
+        for (DayRow[] rows : chunks) {
+            for (DayRow row : rows) {
+                int base = i * AlmanacTable.RECORD_SIZE;
+
+                putShort(records, base + AlmanacTable.OFF_LUNAR_YEAR, row.lunarYear);
+                records[base + AlmanacTable.OFF_LUNAR_MONTH] = (byte) row.lunarMonth;
+                records[base + AlmanacTable.OFF_LUNAR_DAY] = (byte) row.lunarDay;
+                records[base + AlmanacTable.OFF_YEAR_GZ] = (byte) row.yearGz;
+                records[base + AlmanacTable.OFF_MONTH_GZ] = (byte) row.monthGz;
+                records[base + AlmanacTable.OFF_DAY_GZ] = (byte) row.dayGz;
+                records[base + AlmanacTable.OFF_CHONG_ZHI] = (byte) row.chongZhi;
+
+                putShort(records, base + AlmanacTable.OFF_YEAR_TEXT, texts.idOf(row.yearText));
+                putShort(records, base + AlmanacTable.OFF_MONTH_TEXT, texts.idOf(row.monthText));
+                putShort(records, base + AlmanacTable.OFF_DAY_TEXT, texts.idOf(row.dayText));
+                putShort(records, base + AlmanacTable.OFF_STAR, texts.idOf(row.star));
+                putShort(records, base + AlmanacTable.OFF_NAYIN, texts.idOf(row.naYin));
+                putShort(records, base + AlmanacTable.OFF_PREV_JIE, texts.idOf(row.prevJie));
+                putShort(records, base + AlmanacTable.OFF_NEXT_JIE, texts.idOf(row.nextJie));
+                putShort(records, base + AlmanacTable.OFF_JIRI, texts.idOf(row.jiRi));
+
+                // 宜忌只由（月支，日干支）决定，同一组合出现不同结果说明假设不成立，直接失败
+                int combo = (row.monthGz % 12) * 60 + row.dayGz;
+                int[] yi = words.idsOf(row.yi);
+                int[] ji = words.idsOf(row.ji);
+                if (comboYi[combo] == null) {
+                    comboYi[combo] = yi;
+                    comboJi[combo] = ji;
+                } else if (!Arrays.equals(comboYi[combo], yi) || !Arrays.equals(comboJi[combo], ji)) {
+                    throw new IllegalStateException("宜忌与(月支,日干支)不一致: "
+                            + EpochDay.toYmd(startDay + i));
+                }
+                i++;
+            }
+        }
+
+        byte[] pools = encodePools(texts, words, comboYi, comboJi);
+        int recordsOffset = 6 * 4 + pools.length;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(recordsOffset + records.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(AlmanacTable.MAGIC);
+            out.writeInt(AlmanacTable.FORMAT_VERSION);
+            out.writeInt(startDay);
+            out.writeInt(dayCount);
+            out.writeInt(AlmanacTable.RECORD_SIZE);
+            out.writeInt(recordsOffset);
+            out.write(pools);
+            out.write(records);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** 换算一块日期的原始字段，在工作线程上运行 */
+    private static DayRow[] computeRows(int fromDay, int toDay) {
+        DayRow[] rows = new DayRow[toDay - fromDay + 1];
+        for (int day = fromDay; day <= toDay; day++) {
+            int ymd = EpochDay.toYmd(day);
+            Solar solar = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100);
+            rows[day - fromDay] = new DayRow(day, solar, solar.getLunar());
+        }
+        return rows;
+    }
+
+    private static void putShort(byte[] target, int index, int value) {
+        target[index] = (byte) (value >> 8);
+        target[index + 1] = (byte) value;
+    }
+
+    private static byte[] encodePools(StringPool texts, StringPool words,
+                                      int[][] comboYi, int[][] comboJi) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            texts.writeTo(out);
+            words.writeTo(out);
+            for (int combo = 0; combo < AlmanacTable.YI_JI_COMBOS; combo++) {
+                writeIds(out, comboYi[combo]);
+                writeIds(out, comboJi[combo]);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeIds(DataOutputStream out, int[] ids) throws IOException {
+        if (ids == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(ids.length);
+        for (int id : ids) {
+            out.writeShort(id);
+        }
+    }
+
+    /**
+     * 一天的原始字段，文字尚未编入字符串池
+     */
+    private static final class DayRow {
+        final int lunarYear;
+        final int lunarMonth;
+        final int lunarDay;
+        final int yearGz;
+        final int monthGz;
+        final int dayGz;
+        final int chongZhi;
+        final String yearText;
+        final String monthText;
+        final String dayText;
+        final String star;
+        final String naYin;
+        final String prevJie;
+        final String nextJie;
+        final String jiRi;
+        final List<String> yi;
+        final List<String> ji;
+
+        DayRow(int epochDay, Solar solar, Lunar lunar) {
+            lunarYear = lunar.getYear();
+            lunarMonth = lunar.getMonth();
+            lunarDay = lunar.getDay();
+            yearGz = GanZhi.of(lunar.getYearGanIndex(), lunar.getYearZhiIndex());
+            monthGz = GanZhi.of(lunar.getMonthGanIndex(), lunar.getMonthZhiIndex());
+            dayGz = GanZhiEngine.dayGanZhi(epochDay);
+            chongZhi = GanZhiEngine.chongZhi(epochDay);
+            yearText = lunar.getYearInChinese();
+            monthText = lunar.getMonthInChinese();
+            dayText = lunar.getDayInChinese();
+            star = solar.getXingZuo();
+            naYin = lunar.getYearNaYin();
+            prevJie = DayAlmanac.prevJieOf(epochDay, lunar);
+            nextJie = DayAlmanac.nextJieOf(epochDay, lunar);
+            jiRi = DayAlmanac.jiRiOf(lunar);
+            yi = lunar.getDayYi();
+            ji = lunar.getDayJi();
+        }
+    }
+
+    /**
+     * 字符串池：相同文字只存一次，记录中只保存短整型编号
+     */
+    private static final class StringPool {
+        private final Map<String, Integer> ids = new LinkedHashMap<>();
+
+        int idOf(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = ids.size();
+                if (id > 0xFFFF) {
+                    throw new IllegalStateException("string pool overflow");
+                }
+                ids.put(value, id);
+            }
+            return id;
+        }
+
+        int[] idsOf(List<String> values) {
+            int[] result = new int[values.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = idOf(values.get(i));
+            }
+            return result;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(ids.size());
+            List<String> values = new ArrayList<>(ids.keySet());
+            for (String value : values) {
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(encoded.length);
+                out.write(encoded);
+            }
+        }
+    }
+}
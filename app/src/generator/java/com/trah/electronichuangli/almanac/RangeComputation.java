@@ -0,0 +1,155 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.I18n;
+import com.nlf.calendar.LunarYear;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 日期区间分块计算
+ * 把一个纪元日区间切成固定长度的块，在 {@link ForkJoinPool} 上并行计算每一块，再按日期顺序合并结果
+ * 各块之间没有依赖，结果顺序与顺序执行完全一致；顺序模式在调用线程上逐块执行，便于测试和复现
+ *
+ * 并行前会先在调用线程上初始化lunar库的多语言表和农历年缓存（后者是普通HashMap，并发写入不安全），
+ * 之后各工作线程只读这些缓存
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class RangeComputation {
+
+    /** 默认每块天数，约一年，块内可以用 {@link DayCursor} 连续递推 */
+    public static final int DEFAULT_CHUNK_DAYS = 366;
+
+    /**
+     * 计算一块连续日期
+     * @param <R> 块结果类型
+     */
+    public interface ChunkFunction<R> {
+        /**
+         * @param fromDay 块起始纪元日（包含）
+         * @param toDay 块结束纪元日（包含）
+         */
+        R compute(int fromDay, int toDay);
+    }
+
+    private final ForkJoinPool pool;     // 为null时顺序执行
+    private final int chunkDays;
+
+    /**
+     * @param pool 执行并行计算的线程池，为null表示顺序执行
+     * @param chunkDays 每块天数
+     */
+    public RangeComputation(ForkJoinPool pool, int chunkDays) {
+        if (chunkDays <= 0) {
+            throw new IllegalArgumentException("chunkDays must be positive: " + chunkDays);
+        }
+        this.pool = pool;
+        this.chunkDays = chunkDays;
+    }
+
+    /**
+     * 使用公共ForkJoin线程池的并行计算
+     */
+    public static RangeComputation parallel() {
+        return new RangeComputation(ForkJoinPool.commonPool(), DEFAULT_CHUNK_DAYS);
+    }
+
+    /**
+     * 在调用线程上顺序执行的计算
+     */
+    public static RangeComputation sequential() {
+        return new RangeComputation(null, DEFAULT_CHUNK_DAYS);
+    }
+
+    public boolean isParallel() { return pool != null && pool.getParallelism() > 1; }
+    public int getChunkDays() { return chunkDays; }
+
+    /**
+     * 分块计算区间[fromDay, toDay]
+     * @param fromDay 起始纪元日（包含）
+     * @param toDay 结束纪元日（包含）
+     * @param function 每块的计算方法，可能在多个线程上同时调用
+     * @return 按日期顺序排列的各块结果，区间为空时返回空列表
+     */
+    public <R> List<R> map(int fromDay, int toDay, ChunkFunction<R> function) {
+        if (fromDay > toDay) {
+            return new ArrayList<>();
+        }
+        int chunkCount = (int) (((long) toDay - fromDay) / chunkDays) + 1;
+        Object[] results = new Object[chunkCount];
+
+        if (isParallel() && chunkCount > 1) {
+            prewarm(fromDay, toDay);
+            pool.invoke(new ChunkTask<>(fromDay, toDay, 0, chunkCount, function, results));
+        } else {
+            for (int i = 0; i < chunkCount; i++) {
+                results[i] = computeChunk(fromDay, toDay, i, function);
+            }
+        }
+
+        List<R> list = new ArrayList<>(chunkCount);
+        for (Object result : results) {
+            @SuppressWarnings("unchecked")
+            R chunkResult = (R) result;
+            list.add(chunkResult);
+        }
+        return list;
+    }
+
+    private <R> R computeChunk(int fromDay, int toDay, int chunk, ChunkFunction<R> function) {
+        int start = fromDay + chunk * chunkDays;
+        int end = (int) Math.min((long) start + chunkDays - 1, toDay);
+        return function.compute(start, end);
+    }
+
+    /**
+     * 在调用线程上填充lunar库的全局缓存，区间前后各多算一年以覆盖农历年跨公历年的部分
+     */
+    private static void prewarm(int fromDay, int toDay) {
+        I18n.init();
+        int firstYear = EpochDay.toYmd(fromDay) / 10000 - 1;
+        int lastYear = EpochDay.toYmd(toDay) / 10000 + 1;
+        for (int year = firstYear; year <= lastYear; year++) {
+            LunarYear.fromYear(year);
+        }
+    }
+
+    /**
+     * 对块编号区间二分递归，叶子上计算一块
+     */
+    private final class ChunkTask<R> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int fromDay;
+        private final int toDay;
+        private final int firstChunk;
+        private final int endChunk;
+        private final ChunkFunction<R> function;
+        private final Object[] results;
+
+        ChunkTask(int fromDay, int toDay, int firstChunk, int endChunk,
+                  ChunkFunction<R> function, Object[] results) {
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+            this.function = function;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - firstChunk == 1) {
+                results[firstChunk] = computeChunk(fromDay, toDay, firstChunk, function);
+                return;
+            }
+            int mid = (firstChunk + endChunk) >>> 1;
+            invokeAll(new ChunkTask<>(fromDay, toDay, firstChunk, mid, function, results),
+                      new ChunkTask<>(fromDay, toDay, mid, endChunk, function, results));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.trah.electronichuangli;
+
+import android.os.Process;
+import android.util.Log;
+
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+import com.nlf.calendar.util.HolidayUtil;
+import com.trah.electronichuangli.almanac.DayAlmanac;
+import com.trah.electronichuangli.almanac.DayCursor;
+import com.trah.electronichuangli.almanac.EpochDay;
+import com.trah.electronichuangli.almanac.EventMask;
+import com.trah.electronichuangli.constants.AppConstants;
+import com.trah.electronichuangli.utils.AppMetrics;
+
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 启动预热
+ * 在首页创建后由后台低优先级线程执行一遍有代表性的计算：lunar库的类加载和静态表初始化、
+ * 宜忌表和事件位图、按日递推和单日实时计算，使这些一次性开销和JIT编译在用户操作之前完成
+ *
+ * 首页首屏只读缓存、日表和时辰推算，不依赖这里的任何结果，也不会等待预热结束
+ * 预热先等数据包安装结束再开始，保证节气表、月首表取包内数据而不是被预热触发天文计算
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class AlmanacWarmup {
+
+    private static final String TAG = "AlmanacWarmup";
+
+    private static final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private AlmanacWarmup() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * 在后台线程上开始预热，应在 {@link LunarHelper#init} 之后调用
+     * 可重复调用，只有第一次生效
+     */
+    public static void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        Thread warmup = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            try {
+                run();
+            } catch (Exception e) {
+                // 预热失败不影响功能，之后的调用照常各自承担初始化开销
+                Log.w(TAG, "启动预热失败", e);
+            }
+        }, "almanac-warmup");
+        warmup.start();
+    }
+
+    private static void run() {
+        long waitStart = System.nanoTime();
+        if (!LunarHelper.awaitPackReady(AppConstants.WARMUP_PACK_TIMEOUT_MS)) {
+            Log.w(TAG, "等待黄历数据包超时，直接开始预热");
+        }
+        long start = System.nanoTime();
+        AppMetrics.recordNanos(AppMetrics.ALMANAC_WARMUP_WAIT, start - waitStart);
+
+        Calendar now = Calendar.getInstance();
+        int year = now.get(Calendar.YEAR);
+        int month = now.get(Calendar.MONTH) + 1;
+        int day = now.get(Calendar.DAY_OF_MONTH);
+        int today = EpochDay.of(year, month, day);
+
+        warmUpLibrary(year, month, day, now.get(Calendar.HOUR_OF_DAY));
+        long libraryEnd = System.nanoTime();
+        AppMetrics.recordNanos(AppMetrics.ALMANAC_WARMUP_LIBRARY, libraryEnd - start);
+
+        int matched = warmUpAlmanac(year, month, day, today);
+        long end = System.nanoTime();
+        AppMetrics.recordNanos(AppMetrics.ALMANAC_WARMUP, end - start);
+        Log.d(TAG, "启动预热完成，等待数据包" + (start - waitStart) / 1_000_000 + "ms，lunar库"
+                + (libraryEnd - start) / 1_000_000 + "ms，合计" + (end - start) / 1_000_000
+                + "ms，命中" + matched);
+    }
+
+    /**
+     * lunar库的类加载、静态表和国际化初始化，以及宜忌、节日、八字、节假日的第一次计算
+     */
+    private static void warmUpLibrary(int year, int month, int day, int hour) {
+        Solar solar = new Solar(year, month, day, hour, 0, 0);
+        Lunar lunar = solar.getLunar();
+        lunar.getDayYi();
+        lunar.getDayJi();
+        lunar.getFestivals();
+        lunar.getDayChongDesc();
+        lunar.getEightChar().getTime();
+        solar.getXingZuo();
+        HolidayUtil.getHoliday(year, month, day);
+    }
+
+    /**
+     * 本应用自己的路径：事件位图编译、按日递推宜忌组合、日表读取和单日实时计算
+     * @return 区间内命中事件的天次，防止计算被优化掉
+     */
+    private static int warmUpAlmanac(int year, int month, int day, int today) {
+        EventMask[] masks = new EventMask[AppConstants.EVENT_TYPES.length];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = LunarHelper.getEventMask(AppConstants.EVENT_TYPES[i]);
+        }
+
+        int matched = 0;
+        for (DayCursor cursor = new DayCursor(today, today + AppConstants.WARMUP_DAYS);
+             cursor.hasCurrent(); cursor.next()) {
+            int combo = cursor.getYiJiCombo();
+            for (EventMask mask : masks) {
+                if (mask.matches(combo)) {
+                    matched++;
+                }
+            }
+        }
+
+        // 今天经日表（或实时计算）进入缓存；实时计算路径另算一次，不进缓存
+        LunarHelper.getDayAlmanac(today);
+        DayAlmanac.compute(year, month, day);
+        return matched;
+    }
+}
@@ -1,31 +1,45 @@
 package com.trah.electronichuangli;
 
 // ==================== Android Framework 导入 ====================
+import android.content.Context;
+import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.LinearLayout;
+import android.widget.ScrollView;
 import androidx.fragment.app.Fragment;
 
 // ==================== Java 标准库导入 ====================
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-
-// ==================== JSON处理 ====================
-import org.json.JSONObject;
+import java.util.concurrent.atomic.AtomicReference;
 
 // ==================== 项目内部导入 ====================
+import com.trah.electronichuangli.almanac.ClashFilter;
+import com.trah.electronichuangli.almanac.DayAlmanac;
+import com.trah.electronichuangli.almanac.DayField;
+import com.trah.electronichuangli.almanac.DayScorer;
+import com.trah.electronichuangli.almanac.EpochDay;
+import com.trah.electronichuangli.almanac.GanZhi;
+import com.trah.electronichuangli.almanac.GanZhiEngine;
+import com.trah.electronichuangli.almanac.MultiEventSearch;
+import com.trah.electronichuangli.almanac.SuitableDayPager;
+import com.trah.electronichuangli.almanac.TopKDays;
 import com.trah.electronichuangli.constants.AppConstants;
+import com.trah.electronichuangli.search.ResultBatcher;
+import com.trah.electronichuangli.search.SearchSession;
+import com.trah.electronichuangli.utils.PersonalInfoUtils;
 import com.trah.electronichuangli.utils.UIUtils;
 
 /**
@@ -42,6 +56,10 @@ public class AuspiciousFragment extends Fragment {
     private Spinner eventTypeSpinner;
     private Spinner daysRangeSpinner;
     private Button searchButton;
+    private Button multiEventButton;
+    private Button listAllButton;
+    private ScrollView resultsScroll;
+    private CheckBox avoidClashCheckBox;
     private LinearLayout datesContainer;
     private TextView noDatesText;
     private TextView resultsTitle;
@@ -53,8 +71,14 @@ public class AuspiciousFragment extends Fragment {
     private static int lastSelectedDaysRange = AppConstants.DEFAULT_DAYS_RANGE;
     private static boolean hasSearchResults = false;
     
+    // 按日期列出全部吉日时的翻页位置，其他查找方式下为null
+    private static SuitableDayPager datePager;
+    private static String datePagerEventType;
+    
     // ==================== 后台线程 ====================
     private ExecutorService executor;
+    private SearchSession searchSession;
+    private boolean searching = false;
     
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -65,18 +89,32 @@ public class AuspiciousFragment extends Fragment {
     public void onViewCreated(View view, Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         executor = Executors.newSingleThreadExecutor();
+        searchSession = new SearchSession(executor);
         initializeViews(view);
         setupEventTypes();
         setupDaysRange();  // 新增设置天数范围
+        setupAvoidClash();
         setupSearchButton();
         
         // 恢复之前的搜索状态
         restorePreviousSearchState();
     }
     
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        // 从个人页切回来时生辰可能已变化
+        if (!hidden && eventTypeSpinner != null) {
+            updateAvoidClashLabel(eventTypeSpinner.getSelectedItem().toString());
+        }
+    }
+    
     @Override
     public void onDestroy() {
         super.onDestroy();
+        if (searchSession != null) {
+            searchSession.cancel();
+        }
         if (executor != null && !executor.isShutdown()) {
             executor.shutdown();
         }
@@ -89,6 +127,10 @@ public class AuspiciousFragment extends Fragment {
         eventTypeSpinner = view.findViewById(R.id.event_type_spinner);
         daysRangeSpinner = view.findViewById(R.id.days_range_spinner);
         searchButton = view.findViewById(R.id.search_dates_button);
+        multiEventButton = view.findViewById(R.id.multi_event_button);
+        listAllButton = view.findViewById(R.id.list_all_button);
+        resultsScroll = view.findViewById(R.id.results_scroll);
+        avoidClashCheckBox = view.findViewById(R.id.avoid_clash_checkbox);
         datesContainer = view.findViewById(R.id.dates_container);
         noDatesText = view.findViewById(R.id.no_dates_text);
         resultsTitle = view.findViewById(R.id.results_title);
@@ -107,6 +149,21 @@ public class AuspiciousFragment extends Fragment {
         );
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         eventTypeSpinner.setAdapter(adapter);
+        
+        // 查找过程中切换事件类型：取消旧查找，直接按新类型重新查找
+        eventTypeSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                updateAvoidClashLabel(AppConstants.EVENT_TYPES[position]);
+                if (searching && !AppConstants.EVENT_TYPES[position].equals(lastSelectedEventType)) {
+                    startSearchFromSelection();
+                }
+            }
+            
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
     }
     
     /**
@@ -127,17 +184,101 @@ public class AuspiciousFragment extends Fragment {
         daysRangeSpinner.setSelection(2);
     }
     
+    /**
+     * 设置避冲选项，勾选状态保存在个人信息中
+     */
+    private void setupAvoidClash() {
+        SharedPreferences prefs = getContext().getSharedPreferences(
+            AppConstants.PREFS_PERSONAL_INFO, Context.MODE_PRIVATE);
+        avoidClashCheckBox.setChecked(prefs.getBoolean(AppConstants.KEY_AVOID_CLASH, true));
+        avoidClashCheckBox.setOnCheckedChangeListener((button, checked) ->
+            prefs.edit().putBoolean(AppConstants.KEY_AVOID_CLASH, checked).apply());
+        updateAvoidClashLabel(eventTypeSpinner.getSelectedItem().toString());
+    }
+    
+    /**
+     * 按当前事件和已保存的生辰更新避冲选项的文字；未设置生辰时不可勾选
+     */
+    private void updateAvoidClashLabel(String eventType) {
+        if (avoidClashCheckBox == null || getContext() == null) {
+            return;
+        }
+        List<PersonalInfoUtils.BirthInfo> profiles = PersonalInfoUtils.loadClashProfiles(getContext(), eventType);
+        if (profiles.isEmpty()) {
+            avoidClashCheckBox.setEnabled(false);
+            avoidClashCheckBox.setText("设置生辰后可避开与您相冲的日子");
+            return;
+        }
+        ClashFilter clash = LunarHelper.getClashFilter(profiles);
+        StringBuilder zodiacs = new StringBuilder();
+        for (int zhi = 0; zhi < 12; zhi++) {
+            if ((clash.getZhiMask() & (1 << zhi)) != 0) {
+                zodiacs.append(zodiacs.length() > 0 ? "、属" : "属").append(GanZhi.shengXiao(zhi));
+            }
+        }
+        avoidClashCheckBox.setEnabled(true);
+        avoidClashCheckBox.setText((profiles.size() > 1 ? "避开与双方相冲的日子（" : "避开与您相冲的日子（")
+            + zodiacs + "）");
+    }
+    
     private void setupSearchButton() {
-        searchButton.setOnClickListener(v -> {
+        searchButton.setOnClickListener(v -> startSearchFromSelection());
+        multiEventButton.setOnClickListener(v -> showMultiEventDialog());
+        listAllButton.setOnClickListener(v -> {
             String selectedEvent = eventTypeSpinner.getSelectedItem().toString();
-            String selectedRange = daysRangeSpinner.getSelectedItem().toString();
-            int daysCount = Integer.parseInt(selectedRange.replace("天", ""));
-            
-            lastSelectedEventType = selectedEvent; // 保存当前选择的事件类型
-            lastSelectedDaysRange = daysCount; // 保存当前选择的天数范围
-            
-            searchAuspiciousDates(selectedEvent, daysCount);
+            int daysCount = AppConstants.DAYS_RANGE_VALUES[daysRangeSpinner.getSelectedItemPosition()];
+            lastSelectedEventType = selectedEvent;
+            lastSelectedDaysRange = daysCount;
+            listAllDates(selectedEvent, daysCount);
         });
+        
+        // 按日期列出时，滚动到离底部不足一屏就加载下一页
+        resultsScroll.setOnScrollChangeListener((v, scrollX, scrollY, oldScrollX, oldScrollY) ->
+                loadNextPageIfNearEnd());
+    }
+    
+    /**
+     * 选择多个事件一起查找，默认勾选当前事件
+     */
+    private void showMultiEventDialog() {
+        String[] eventTypes = AppConstants.EVENT_TYPES;
+        boolean[] checked = new boolean[eventTypes.length];
+        checked[eventTypeSpinner.getSelectedItemPosition()] = true;
+        
+        new android.app.AlertDialog.Builder(getContext())
+            .setTitle("选择要一起安排的事件")
+            .setMultiChoiceItems(eventTypes, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+            .setPositiveButton("查找", (dialog, which) -> {
+                List<String> selected = new ArrayList<>();
+                for (int i = 0; i < eventTypes.length; i++) {
+                    if (checked[i]) {
+                        selected.add(eventTypes[i]);
+                    }
+                }
+                int daysCount = AppConstants.DAYS_RANGE_VALUES[daysRangeSpinner.getSelectedItemPosition()];
+                lastSelectedDaysRange = daysCount;
+                if (selected.size() == 1) {
+                    lastSelectedEventType = selected.get(0);
+                    searchAuspiciousDates(selected.get(0), daysCount);
+                } else if (selected.size() > 1) {
+                    searchMultipleEvents(selected.toArray(new String[0]), daysCount);
+                }
+            })
+            .setNegativeButton("取消", null)
+            .show();
+    }
+    
+    /**
+     * 按当前选择的事件类型和天数范围开始查找
+     */
+    private void startSearchFromSelection() {
+        String selectedEvent = eventTypeSpinner.getSelectedItem().toString();
+        int daysCount = AppConstants.DAYS_RANGE_VALUES[daysRangeSpinner.getSelectedItemPosition()];
+        
+        lastSelectedEventType = selectedEvent; // 保存当前选择的事件类型
+        lastSelectedDaysRange = daysCount; // 保存当前选择的天数范围
+        
+        searchAuspiciousDates(selectedEvent, daysCount);
     }
     
     /**
@@ -171,110 +312,324 @@ public class AuspiciousFragment extends Fragment {
      * 搜索吉日
      */
     private void searchAuspiciousDates(String eventType, int daysRange) {
+        // 生辰可能刚在个人页修改过，这里重新读取
+        updateAvoidClashLabel(eventType);
+        ClashFilter filter = clashFilterFor(eventType);
+        runSearch((ticket, batcher) -> generateAuspiciousDatesFromAPI(eventType, daysRange, filter, ticket, batcher));
+    }
+    
+    /**
+     * 多个事件一起搜索：一次扫描，分别列出各事件的吉日，以及所有事件都适宜的同一天
+     */
+    private void searchMultipleEvents(String[] eventTypes, int daysRange) {
+        ClashFilter filter = clashFilterFor(eventTypes);
+        runSearch((ticket, batcher) -> generateMultiEventDates(eventTypes, daysRange, filter, ticket, batcher));
+    }
+    
+    /**
+     * 按日期列出范围内全部适宜的日子，先加载第一页，其余随滚动加载
+     */
+    private void listAllDates(String eventType, int daysRange) {
+        updateAvoidClashLabel(eventType);
+        int fromDay = EpochDay.today() + 1;
+        SuitableDayPager pager = LunarHelper.openSuitableDayPager(eventType, fromDay, fromDay + daysRange - 1,
+                clashFilterFor(eventType));
+        clearResults();
+        datePager = pager;
+        datePagerEventType = eventType;
+        submitDatePage(pager, eventType);
+    }
+    
+    /**
+     * 加载下一页；正在查找、已经翻完或不是按日期列出时什么也不做
+     */
+    private void loadNextPage() {
+        SuitableDayPager pager = datePager;
+        if (searching || pager == null || !pager.hasMore()) {
+            return;
+        }
+        searching = true;
+        submitDatePage(pager, datePagerEventType);
+    }
+    
+    /**
+     * 离底部不足一屏时加载下一页；列表还没填满一屏时同样成立
+     */
+    private void loadNextPageIfNearEnd() {
+        int remaining = datesContainer.getHeight() - (resultsScroll.getScrollY() + resultsScroll.getHeight());
+        if (remaining < resultsScroll.getHeight()) {
+            loadNextPage();
+        }
+    }
+    
+    /**
+     * 在后台取一页，整页到齐后才显示并提交翻页位置
+     * 中途被取消的一页既不显示也不提交，下次从同一天重新加载，显示的列表和翻页位置始终一致
+     */
+    private void submitDatePage(SuitableDayPager pager, String eventType) {
+        AtomicReference<SuitableDayPager.Page> loaded = new AtomicReference<>();
+        List<AuspiciousDate> pageDates = new ArrayList<>();
+        ResultBatcher.Listener<AuspiciousDate> listener = new ResultBatcher.Listener<AuspiciousDate>() {
+            @Override
+            public void onBatch(List<AuspiciousDate> batch) {
+                pageDates.addAll(batch);
+            }
+            
+            @Override
+            public void onComplete() {
+                SuitableDayPager.Page page = loaded.get();
+                if (page != null && pager.commit(page)) {
+                    appendResults(pageDates);
+                } else if (datePager == pager) {
+                    // 取页出错，停止翻页，以免填满一屏的检查反复重试
+                    datePager = null;
+                }
+                onSearchComplete();
+            }
+        };
+        searchSession.submit(ticket -> generateDatePage(pager, eventType, loaded, ticket,
+                new ResultBatcher<>(ticket, listener)));
+    }
+    
+    /**
+     * 勾选避冲时排除冲本人（嫁娶时含配偶）生肖的日子；多个事件时取各事件需要避冲的人的并集
+     */
+    private ClashFilter clashFilterFor(String... eventTypes) {
+        if (!avoidClashCheckBox.isChecked()) {
+            return ClashFilter.NONE;
+        }
+        List<PersonalInfoUtils.BirthInfo> profiles = new ArrayList<>();
+        for (String eventType : eventTypes) {
+            profiles.addAll(PersonalInfoUtils.loadClashProfiles(getContext(), eventType));
+        }
+        return LunarHelper.getClashFilter(profiles);
+    }
+    
+    /**
+     * 在后台执行的一次搜索，结果交给batcher
+     */
+    private interface SearchTask {
+        void run(SearchSession.Ticket ticket, ResultBatcher<AuspiciousDate> batcher);
+    }
+    
+    /**
+     * 清空旧结果并在后台执行搜索，提交新搜索会取消上一次；过时搜索的结果在投递前被丢弃
+     */
+    private void runSearch(SearchTask task) {
+        clearResults();
+        ResultBatcher.Listener<AuspiciousDate> listener = createResultListener();
+        searchSession.submit(ticket -> task.run(ticket, new ResultBatcher<>(ticket, listener)));
+    }
+    
+    /**
+     * 清空旧结果并显示加载状态
+     */
+    private void clearResults() {
         // 清空现有数据
         persistentAuspiciousDates.clear();
+        hasSearchResults = false;
+        datePager = null;
+        datesContainer.removeAllViews();
         
         // 显示加载状态
+        searching = true;
         searchButton.setEnabled(false);
         searchButton.setText("正在查找...");
-        
-        // 异步获取黄历数据
-        executor.execute(() -> generateAuspiciousDatesFromAPI(eventType, daysRange));
     }
     
     /**
-     * 从本地黄历数据生成吉日列表
+     * 主线程接收结果的回调：追加结果，结束时恢复按钮
      */
-    private void generateAuspiciousDatesFromAPI(String eventType, int daysRange) {
-        List<AuspiciousDate> results = new ArrayList<>();
-        Calendar calendar = Calendar.getInstance();
-        Random random = new Random(eventType.hashCode());
-        
+    private ResultBatcher.Listener<AuspiciousDate> createResultListener() {
+        return new ResultBatcher.Listener<AuspiciousDate>() {
+            @Override
+            public void onBatch(List<AuspiciousDate> batch) {
+                appendResults(batch);
+            }
+            
+            @Override
+            public void onComplete() {
+                onSearchComplete();
+            }
+        };
+    }
+    
+    /**
+     * 从本地黄历数据生成吉日列表：先在整个区间内排除冲日、按分数选出最好的几天，再按名次逐个提交给batcher
+     */
+    private void generateAuspiciousDatesFromAPI(String eventType, int daysRange, ClashFilter clash,
+                                                SearchSession.Ticket ticket,
+                                                ResultBatcher<AuspiciousDate> batcher) {
         try {
-            // 根据用户选择的天数范围获取黄历数据
-            for (int i = 1; i <= daysRange; i++) {
-                calendar.add(Calendar.DAY_OF_MONTH, 1);
-                
-                int year = calendar.get(Calendar.YEAR);
-                int month = calendar.get(Calendar.MONTH) + 1;
-                int day = calendar.get(Calendar.DAY_OF_MONTH);
-                
-                // 使用LunarHelper本地计算
-                if (LunarHelper.isEventSuitable(year, month, day, eventType)) {
-                    JSONObject result = LunarHelper.getHuangLiData(year, month, day);
-                    
-                    if (result != null) {
-                        AuspiciousDate date = createAuspiciousDate(result, year, month, day, eventType, random);
-                        results.add(date);
-                        
-                        // 找到足够多的合适日期就停止
-                        if (results.size() >= AppConstants.MAX_RESULTS) {
-                            break;
-                        }
-                    }
+            // 从明天开始，在用户选择的天数范围内查找适宜日期
+            int fromDay = EpochDay.today() + 1;
+            int toDay = fromDay + daysRange - 1;
+            TopKDays best = LunarHelper.rankSuitableDays(eventType, fromDay, toDay,
+                    AppConstants.MAX_RESULTS, clash, ticket::isCancelled);
+            for (int i = 0; i < best.size() && !ticket.isCancelled(); i++) {
+                DayAlmanac result = LunarHelper.getDayAlmanac(best.dayAt(i), DayField.LUNAR | DayField.YI_JI);
+                if (result != null) {
+                    batcher.add(createAuspiciousDate(result, eventType, best.scoreAt(i)));
                 }
-                
-                // 短暂延迟避免UI阻塞
-                Thread.sleep(AppConstants.DATA_LOADING_DELAY);
             }
             
             android.util.Log.d("AuspiciousFragment", 
-                String.format("在%d天内找到 %d 个适合 %s 的日期", 
-                    daysRange, results.size(), eventType));
+                String.format("在%d天内选出 %d 个适合 %s 的日期", 
+                    daysRange, best.size(), eventType));
                     
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            batcher.finish();
+        }
+    }
+    
+    /**
+     * 多事件吉日列表：先列所有事件同日皆宜的日子，再按事件分组列出
+     */
+    private void generateMultiEventDates(String[] eventTypes, int daysRange, ClashFilter clash,
+                                         SearchSession.Ticket ticket,
+                                         ResultBatcher<AuspiciousDate> batcher) {
+        try {
+            int fromDay = EpochDay.today() + 1;
+            int toDay = fromDay + daysRange - 1;
+            MultiEventSearch.Result result = LunarHelper.searchEvents(eventTypes, fromDay, toDay,
+                    AppConstants.MAX_RESULTS, clash, ticket::isCancelled);
+            
+            String allEvents = String.join("、", eventTypes);
+            addRanked(result.getDaysForAll(), allEvents, allEvents + " 同日皆宜", ticket, batcher);
+            for (int i = 0; i < result.getEventCount(); i++) {
+                addRanked(result.getDays(i), result.getEventType(i), result.getEventType(i), ticket, batcher);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            batcher.finish();
+        }
+    }
+    
+    /**
+     * 按日期列出的一页：从已提交的位置接着找，按月分组；取出的页记入loaded，等显示后再提交
+     */
+    private void generateDatePage(SuitableDayPager pager, String eventType,
+                                  AtomicReference<SuitableDayPager.Page> loaded,
+                                  SearchSession.Ticket ticket, ResultBatcher<AuspiciousDate> batcher) {
+        try {
+            SuitableDayPager.Page page = pager.next(AppConstants.RESULTS_PAGE_SIZE, ticket::isCancelled);
+            loaded.set(page);
+            for (int i = 0; page != null && i < page.size() && !ticket.isCancelled(); i++) {
+                DayAlmanac almanac = LunarHelper.getDayAlmanac(page.dayAt(i), DayField.LUNAR | DayField.YI_JI);
+                if (almanac != null) {
+                    AuspiciousDate date = createAuspiciousDate(almanac, eventType, page.scoreAt(i));
+                    date.section = almanac.getYear() + "年" + almanac.getMonth() + "月";
+                    batcher.add(date);
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            batcher.finish();
         }
-        
-        // 更新UI
-        updateUIWithResults(results);
     }
     
     /**
-     * 创建吉日数据对象
+     * 按名次把一组日子提交给batcher，并标上分组
      */
-    private AuspiciousDate createAuspiciousDate(JSONObject result, int year, int month, int day, 
-                                              String eventType, Random random) throws Exception {
+    private void addRanked(TopKDays days, String eventType, String section,
+                           SearchSession.Ticket ticket, ResultBatcher<AuspiciousDate> batcher) {
+        for (int i = 0; i < days.size() && !ticket.isCancelled(); i++) {
+            DayAlmanac almanac = LunarHelper.getDayAlmanac(days.dayAt(i), DayField.LUNAR | DayField.YI_JI);
+            if (almanac != null) {
+                AuspiciousDate date = createAuspiciousDate(almanac, eventType, days.scoreAt(i));
+                date.section = section;
+                batcher.add(date);
+            }
+        }
+    }
+    
+    /**
+     * 创建吉日数据对象，吉利等级由评分决定
+     */
+    private AuspiciousDate createAuspiciousDate(DayAlmanac result, String eventType, int score) {
+        int monthGanZhi = result.getMonthGanZhi();
+        int dayGanZhi = result.getDayGanZhi();
+        int tianShen = GanZhiEngine.tianShen(monthGanZhi, dayGanZhi);
+        
         AuspiciousDate date = new AuspiciousDate();
-        date.date = String.format("%d年%d月%d日", year, month, day);
-        date.lunarDate = result.optString("nongli", "");
-        date.quality = getRandomQuality(random);
+        date.date = result.getSolarText();
+        date.lunarDate = result.getLunarText();
+        date.score = score;
+        date.quality = DayScorer.qualityOf(score);
         date.reason = getReasonForEvent(eventType, date.quality);
-        
-        String yi = result.getString("yi")
-                .replace("[", "")
-                .replace("]", "")
-                .replace("\"", "");
-        date.tips = "宜：" + yi.replace(",", " ");
+        date.tips = GanZhiEngine.zhiXingText(monthGanZhi, dayGanZhi) + "日  "
+                + GanZhiEngine.TIAN_SHEN[tianShen] + (GanZhiEngine.isHuangDao(tianShen) ? "黄道" : "黑道")
+                + "  评分" + score + "\n宜：" + result.joinYi("  ");
         
         return date;
     }
     
     /**
-     * 在UI线程中更新结果
+     * 主线程：追加一批结果，只为新结果创建视图
      */
-    private void updateUIWithResults(List<AuspiciousDate> results) {
-        if (getActivity() != null) {
-            getActivity().runOnUiThread(() -> {
-                persistentAuspiciousDates.clear();
-                persistentAuspiciousDates.addAll(results);
-                hasSearchResults = true;
-                updateUI();
-                
-                searchButton.setEnabled(true);
-                searchButton.setText("查找良辰吉日");
-            });
+    private void appendResults(List<AuspiciousDate> batch) {
+        persistentAuspiciousDates.addAll(batch);
+        if (getView() == null) {
+            return;
+        }
+        
+        noDatesText.setVisibility(View.GONE);
+        resultsTitle.setVisibility(View.VISIBLE);
+        datesContainer.setVisibility(View.VISIBLE);
+        int index = persistentAuspiciousDates.size() - batch.size();
+        for (AuspiciousDate date : batch) {
+            addDateView(date, index > 0 ? persistentAuspiciousDates.get(index - 1) : null);
+            index++;
         }
     }
-
+    
     /**
-     * 获取随机吉利等级
+     * 添加一个吉日视图，分组变化时先加分组标题
+     * @param previous 列表中的上一项，没有时为null
      */
-    private String getRandomQuality(Random random) {
-        String[] qualities = {"大吉", "中吉", "小吉"};
-        return qualities[random.nextInt(qualities.length)];
+    private void addDateView(AuspiciousDate date, AuspiciousDate previous) {
+        if (date.section != null && (previous == null || !date.section.equals(previous.section))) {
+            TextView header = new TextView(getContext());
+            header.setText(date.section);
+            header.setTextSize(16);
+            header.setTextColor(android.graphics.Color.parseColor("#7B68EE"));
+            header.setTypeface(null, android.graphics.Typeface.BOLD);
+            header.setPadding(0, previous == null ? 0 : 20, 0, 12);
+            datesContainer.addView(header);
+        }
+        datesContainer.addView(createDateItemView(date));
     }
     
+    /**
+     * 主线程：搜索结束
+     */
+    private void onSearchComplete() {
+        searching = false;
+        hasSearchResults = true;
+        if (getView() == null) {
+            return;
+        }
+        
+        if (persistentAuspiciousDates.isEmpty()) {
+            showNoResultsState();
+        }
+        searchButton.setEnabled(true);
+        searchButton.setText("查找良辰吉日");
+        
+        // 按日期列出时，一页不够填满一屏就不会触发滚动，布局完成后接着加载直到填满或翻完
+        if (datePager != null && datePager.hasMore()) {
+            resultsScroll.post(() -> {
+                if (getView() != null) {
+                    loadNextPageIfNearEnd();
+                }
+            });
+        }
+    }
+
     /**
      * 更新UI显示结果
      */
@@ -308,9 +663,10 @@ public class AuspiciousFragment extends Fragment {
         datesContainer.removeAllViews();
         
         // 为每个日期创建视图项
+        AuspiciousDate previous = null;
         for (AuspiciousDate date : persistentAuspiciousDates) {
-            LinearLayout dateItem = createDateItemView(date);
-            datesContainer.addView(dateItem);
+            addDateView(date, previous);
+            previous = date;
         }
     }
     
@@ -470,11 +826,15 @@ public class AuspiciousFragment extends Fragment {
      * 存储单个吉日的相关信息
      */
     public static class AuspiciousDate {
+        /** 分组标题（多事件查找时为事件名），单事件查找时为null */
+        public String section;
         /** 阳历日期 */
         public String date;
         /** 农历日期 */
         public String lunarDate;
-        /** 吉利等级（大吉/中吉/小吉） */
+        /** 择日评分，见 {@link DayScorer} */
+        public int score;
+        /** 吉利等级（大吉/中吉/小吉），由评分决定 */
         public String quality;
         /** 吉利原因描述 */
         public String reason;
@@ -4,9 +4,51 @@ package com.trah.electronichuangli;
 import com.nlf.calendar.Lunar;
 import com.nlf.calendar.Solar;
 import com.nlf.calendar.EightChar;
-import org.json.JSONObject;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Process;
+import android.util.Log;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import com.trah.electronichuangli.almanac.AlmanacPack;
+import com.trah.electronichuangli.almanac.AlmanacTable;
+import com.trah.electronichuangli.almanac.ClashFilter;
+import com.trah.electronichuangli.almanac.CycleQueries;
+import com.trah.electronichuangli.almanac.DayAlmanac;
+import com.trah.electronichuangli.almanac.DayAttributeMatrix;
+import com.trah.electronichuangli.almanac.DayCache;
+import com.trah.electronichuangli.almanac.DayCacheSnapshot;
+import com.trah.electronichuangli.almanac.DayCursor;
+import com.trah.electronichuangli.almanac.DayField;
+import com.trah.electronichuangli.almanac.DayPrefetcher;
+import com.trah.electronichuangli.almanac.DayQuery;
+import com.trah.electronichuangli.almanac.DayScorer;
+import com.trah.electronichuangli.almanac.EpochDay;
+import com.trah.electronichuangli.almanac.EventDayIndex;
+import com.trah.electronichuangli.almanac.EventMask;
+import com.trah.electronichuangli.almanac.GanZhi;
+import com.trah.electronichuangli.almanac.LunarMonthTable;
+import com.trah.electronichuangli.almanac.LunarRecurrence;
+import com.trah.electronichuangli.almanac.MultiEventSearch;
+import com.trah.electronichuangli.almanac.SearchResultCache;
+import com.trah.electronichuangli.almanac.SuitableDayPager;
+import com.trah.electronichuangli.almanac.TopKDays;
+import com.trah.electronichuangli.constants.AppConstants;
+import com.trah.electronichuangli.utils.AppMetrics;
 import com.trah.electronichuangli.utils.FortuneData;
 import com.trah.electronichuangli.utils.FortuneCalculator;
 import com.trah.electronichuangli.utils.PersonalInfoUtils;
@@ -18,206 +60,465 @@ import com.trah.electronichuangli.utils.PersonalInfoUtils;
  */
 public class LunarHelper {
     
+    private static final String TAG = "LunarHelper";
+    
+    /** 预计算日表，加载完成前为null，此时走实时计算 */
+    private static volatile AlmanacTable almanacTable;
+    private static final AtomicBoolean tableLoadStarted = new AtomicBoolean(false);
+    
+    /** 数据包处理结束（无论成功与否）时打开，预热在此之后进行，节气表、月首表才会取包内数据 */
+    private static final CountDownLatch packReady = new CountDownLatch(1);
+    
+    /** 最近查询过的日期，翻看日期、刷新页面时直接命中 */
+    private static final DayCache dayCache = new DayCache(AppConstants.DAY_CACHE_CAPACITY);
+    
+    /** 首页选中日期附近的预取，单个低优先级线程执行，直接写入缓存 */
+    private static final DayPrefetcher prefetcher = new DayPrefetcher(
+            Executors.newSingleThreadExecutor(task -> new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                task.run();
+            }, "day-prefetch")),
+            dayCache, AppConstants.PREFETCH_RADIUS_DAYS, LunarHelper::loadDayAlmanac);
+    
+    /** 事件类型 → 关键词位图 */
+    private static final Map<String, EventMask> eventMasks = new ConcurrentHashMap<>();
+    
+    /** 事件类型 → 择日评分表 */
+    private static final Map<String, DayScorer> dayScorers = new ConcurrentHashMap<>();
+    
+    /** 事件类型 → 适宜日索引，加载线程构建完成前没有对应项，此时择日逐日递推 */
+    private static final Map<String, EventDayIndex> eventIndexes = new ConcurrentHashMap<>();
+    
+    /** 最近的择日结果，切换页面后再查、跨日后再查都不必整段重算 */
+    private static final SearchResultCache searchCache = new SearchResultCache(
+            AppConstants.SEARCH_CACHE_SIZE, LunarHelper::recordSearchCacheLookup);
+    
+    /** 缓存快照文件及其版本，init之前为null，此时不读写快照 */
+    private static volatile File snapshotFile;
+    private static long appVersion;
+    private static long dataVersion;
+    
     /**
-     * 获取指定日期的黄历信息
-     * 返回格式与原API保持一致，便于现有代码使用
+     * 先在调用线程读入上次保存的缓存快照，再在后台安装构建时生成的黄历数据包：
+     * 首次启动解压到应用私有目录，之后直接内存映射
+     * 数据包缺失或损坏时日表保持为null，继续走实时计算
+     * 可重复调用，只有第一次生效
+     * @param context 上下文
      */
-    public static JSONObject getHuangLiData(int year, int month, int day) {
-        try {
-            // 创建阳历日期对象
-            Solar solar = new Solar(year, month, day);
-            // 转换为农历
-            Lunar lunar = solar.getLunar();
-            
-            JSONObject result = new JSONObject();
-            
-            // 基本日期信息
-            result.put("yangli", String.format("%d年%d月%d日", year, month, day));
-            result.put("nongli", lunar.toString());
-            result.put("shengxiao", lunar.getYearShengXiao());
-            result.put("star", solar.getXingZuo());
-            
-            // 干支信息
-            result.put("ganzhi", lunar.getYearInGanZhi() + "年 " + 
-                              lunar.getMonthInGanZhi() + "月 " + 
-                              lunar.getDayInGanZhi() + "日");
-            
-            // 冲煞信息（白话文解释，修正生肖对应）
-            String chong = lunar.getDayChong();
-            String chongDesc = "";
-            if (!chong.isEmpty()) {
-                String chongShengxiao = convertDizhiToShengxiao(chong);
-                chongDesc = "今日冲" + chong + "，属" + chongShengxiao + "的人今天不宜办重要事情";
-            }
-            result.put("chong", chongDesc);
-            result.put("sha", "");  // 暂时留空，避免API错误
-            
-            String chongShengXiao = lunar.getDayChongShengXiao();
-            String suishaDesc = "";
-            if (!chongShengXiao.isEmpty()) {
-                suishaDesc = "岁煞方位不利，属" + chongShengXiao + "的人避免朝冲煞方向做事";
+    public static void init(Context context) {
+        if (!tableLoadStarted.compareAndSet(false, true)) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        restoreSnapshot(appContext);
+        Thread loader = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            AlmanacPack pack = loadPack(appContext);
+            try {
+                if (pack != null) {
+                    // 节气表、月首表尚未被使用时改用包内数据，省去lunar库的天文计算
+                    pack.installTables();
+                    almanacTable = pack.getTable();
+                }
+            } finally {
+                packReady.countDown();
             }
-            result.put("suisha", suishaDesc);
-            
-            // 宜忌信息
-            List<String> yi = lunar.getDayYi();
-            List<String> ji = lunar.getDayJi();
-            
-            result.put("yi", yi.toString());
-            result.put("ji", ji.toString());
-            
-            // 方位信息 - 使用模拟数据，避免API错误
-            String ganZhi = lunar.getDayInGanZhi();
-            result.put("caishen", calculateCaiShenDirection(ganZhi));
-            result.put("xishen", calculateXiShenDirection(ganZhi)); 
-            result.put("fushen", calculateFuShenDirection(ganZhi));
-            
-            // 五行信息
-            result.put("wuxing", lunar.getDayInGanZhi().substring(1, 2)); // 取地支作为五行
-            result.put("nayin", lunar.getYearNaYin());
-            
-            // 节气信息
-            String jieqi = lunar.getPrevJie() != null ? lunar.getPrevJie().getName() : "";
-            String nextJieqi = lunar.getNextJie() != null ? lunar.getNextJie().getName() : "";
-            if (!jieqi.isEmpty() && !nextJieqi.isEmpty()) {
-                result.put("jieqi", "上节气：" + jieqi + " | 下节气：" + nextJieqi);
-            } else if (!jieqi.isEmpty()) {
-                result.put("jieqi", "节气：" + jieqi);
-            } else if (!nextJieqi.isEmpty()) {
-                result.put("jieqi", "下节气：" + nextJieqi);
-            } else {
-                result.put("jieqi", "");
+            buildEventIndexes();
+        }, "almanac-table");
+        loader.start();
+    }
+    
+    /**
+     * 等待数据包安装结束（成功或失败都算结束）
+     * 只供后台线程使用，首页首屏路径不应调用
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return 是否在超时前结束
+     */
+    public static boolean awaitPackReady(long timeoutMillis) {
+        try {
+            return packReady.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * 为全部事件类型构建适宜日索引，在加载线程上运行，节气表、月首表此时已取用包内数据
+     */
+    private static void buildEventIndexes() {
+        long start = System.currentTimeMillis();
+        try {
+            DayAttributeMatrix matrix = getDayAttributeMatrix();
+            for (String eventType : AppConstants.EVENT_TYPES) {
+                eventIndexes.put(eventType, EventDayIndex.build(getDayScorer(eventType), matrix));
             }
-            
-            // 吉日信息
-            String jiri = getJiRiInfo(lunar);
-            result.put("jiri", jiri);
-            
-            return result;
-            
+            Log.d(TAG, "择日索引构建完成，耗时" + (System.currentTimeMillis() - start) + "ms");
         } catch (Exception e) {
-            e.printStackTrace();
+            Log.e(TAG, "择日索引构建失败，继续逐日递推", e);
+        }
+    }
+    
+    private static AlmanacPack loadPack(Context context) {
+        long start = System.currentTimeMillis();
+        try (InputStream in = context.getAssets().open(AppConstants.ALMANAC_PACK_ASSET)) {
+            AlmanacPack pack = AlmanacPack.install(in, context.getFilesDir());
+            Log.d(TAG, "黄历数据包加载完成，耗时" + (System.currentTimeMillis() - start) + "ms");
+            return pack;
+        } catch (IOException e) {
+            Log.e(TAG, "黄历数据包无效，继续使用实时计算", e);
             return null;
         }
     }
     
+    // ==================== 缓存快照 ====================
+    
     /**
-     * 根据干支计算财神方位（简化实现）
+     * 读入缓存快照放进内存缓存；快照文件只有几十KB，直接在调用线程读取，
+     * 首页第一次查询今天时即可命中，不必等lunar库加载
      */
-    private static String calculateCaiShenDirection(String ganZhi) {
-        String gan = ganZhi.substring(0, 1);
-        switch (gan) {
-            case "甲": case "乙": return "东北";
-            case "丙": case "丁": return "正西";
-            case "戊": case "己": return "正北";
-            case "庚": case "辛": return "正东";
-            case "壬": case "癸": return "正南";
-            default: return "东北";
+    private static void restoreSnapshot(Context context) {
+        long start = System.currentTimeMillis();
+        appVersion = appVersionOf(context);
+        dataVersion = packChecksumOf(context);
+        File file = new File(context.getCacheDir(), AppConstants.DAY_CACHE_SNAPSHOT_FILE);
+        snapshotFile = file;
+        
+        List<DayAlmanac> days = DayCacheSnapshot.read(file, appVersion, dataVersion);
+        // 快照按最近使用在前保存，倒序放入使其在缓存中保持原来的先后
+        for (int i = days.size() - 1; i >= 0; i--) {
+            dayCache.put(days.get(i).getEpochDay(), days.get(i));
         }
+        Log.d(TAG, "缓存快照恢复" + days.size() + "天，耗时" + (System.currentTimeMillis() - start) + "ms");
     }
     
     /**
-     * 根据干支计算喜神方位（简化实现）
+     * 在后台保存缓存快照，包含当前缓存的内容和今天前后几周的黄历
+     * 日表尚未加载时只保存缓存中已有的数据，不为补齐前后几周去实时计算
      */
-    private static String calculateXiShenDirection(String ganZhi) {
-        String gan = ganZhi.substring(0, 1);
-        switch (gan) {
-            case "甲": case "己": return "东北";
-            case "乙": case "庚": return "西北";
-            case "丙": case "辛": return "西南";
-            case "丁": case "壬": return "正南";
-            case "戊": case "癸": return "东南";
-            default: return "东北";
+    public static void saveSnapshot() {
+        File file = snapshotFile;
+        if (file == null) {
+            return;
+        }
+        new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            List<DayAlmanac> days = new ArrayList<>();
+            Set<Integer> included = new HashSet<>();
+            AlmanacTable table = almanacTable;
+            int today = EpochDay.today();
+            for (int epochDay = today - AppConstants.SNAPSHOT_DAYS_BEFORE;
+                 epochDay <= today + AppConstants.SNAPSHOT_DAYS_AFTER; epochDay++) {
+                DayAlmanac almanac = dayCache.peek(epochDay);
+                if (almanac == null && table != null && table.covers(epochDay)) {
+                    almanac = table.decode(epochDay);
+                }
+                if (almanac != null && included.add(epochDay)) {
+                    days.add(almanac);
+                }
+            }
+            for (DayAlmanac almanac : dayCache.snapshot()) {
+                if (days.size() >= AppConstants.DAY_CACHE_CAPACITY) {
+                    break;
+                }
+                if (included.add(almanac.getEpochDay())) {
+                    days.add(almanac);
+                }
+            }
+            try {
+                DayCacheSnapshot.write(file, appVersion, dataVersion, days);
+            } catch (IOException e) {
+                Log.w(TAG, "缓存快照保存失败", e);
+            }
+        }, "day-cache-snapshot").start();
+    }
+    
+    private static long appVersionOf(Context context) {
+        try {
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).getLongVersionCode();
+        } catch (PackageManager.NameNotFoundException e) {
+            return 0;
+        }
+    }
+    
+    /** 数据包校验和，数据包缺失时为0（此时快照中的数据都是实时计算的） */
+    private static long packChecksumOf(Context context) {
+        try (InputStream in = context.getAssets().open(AppConstants.ALMANAC_PACK_ASSET)) {
+            return AlmanacPack.readChecksum(in);
+        } catch (IOException e) {
+            return 0;
         }
     }
     
     /**
-     * 根据干支计算福神方位（简化实现）
+     * 获取指定日期的黄历
+     * 先查内存缓存；未命中时，日期在预计算日表范围内则直接解码记录，否则实时计算
+     * @return 黄历数据，计算失败时返回null
      */
-    private static String calculateFuShenDirection(String ganZhi) {
-        String gan = ganZhi.substring(0, 1);
-        switch (gan) {
-            case "甲": case "乙": return "正南";
-            case "丙": case "丁": return "东南";
-            case "戊": case "己": return "正东";
-            case "庚": case "辛": return "西南";
-            case "壬": case "癸": return "西北";
-            default: return "正南";
+    public static DayAlmanac getDayAlmanac(int year, int month, int day) {
+        int epochDay = EpochDay.of(year, month, day);
+        DayAlmanac cached = dayCache.get(epochDay);
+        if (cached != null) {
+            return cached;
         }
+        
+        DayAlmanac almanac = loadDayAlmanac(epochDay, year, month, day);
+        if (almanac != null) {
+            dayCache.put(epochDay, almanac);
+        }
+        return almanac;
     }
     
     /**
-     * 获取吉日信息
+     * 按纪元日获取黄历
+     * @return 黄历数据，计算失败时返回null
      */
-    private static String getJiRiInfo(Lunar lunar) {
-        List<String> festivals = lunar.getFestivals();
-        List<String> otherFestivals = lunar.getOtherFestivals();
-        
-        StringBuilder jiri = new StringBuilder();
-        
-        if (!festivals.isEmpty()) {
-            jiri.append(String.join(" ", festivals));
+    public static DayAlmanac getDayAlmanac(int epochDay) {
+        int ymd = EpochDay.toYmd(epochDay);
+        return getDayAlmanac(ymd / 10000, ymd / 100 % 100, ymd % 100);
+    }
+    
+    /**
+     * 获取指定日期黄历中的部分字段
+     * 缓存中已有的完整数据或预计算日表可用时直接返回完整数据；否则只计算所需字段，结果不放入缓存
+     * @param epochDay 纪元日
+     * @param fields 需要的字段，{@link DayField} 各位的组合
+     * @return 黄历数据，计算失败时返回null
+     */
+    public static DayAlmanac getDayAlmanac(int epochDay, int fields) {
+        DayAlmanac cached = dayCache.get(epochDay);
+        if (cached != null && cached.hasFields(fields)) {
+            return cached;
         }
-        
-        if (!otherFestivals.isEmpty()) {
-            if (jiri.length() > 0) jiri.append(" ");
-            jiri.append(String.join(" ", otherFestivals));
+        AlmanacTable table = almanacTable;
+        if (fields == DayField.ALL || (table != null && table.covers(epochDay))) {
+            return getDayAlmanac(epochDay);
         }
         
-        // 如果没有特殊节日，检查是否是吉日
-        if (jiri.length() == 0) {
-            List<String> yi = lunar.getDayYi();
-            if (yi.size() >= 6) { // 宜事较多的日子认为是吉日
-                jiri.append("诸事皆宜");
-            } else if (yi.contains("嫁娶") || yi.contains("开市") || yi.contains("出行")) {
-                jiri.append("黄道吉日");
+        try {
+            int ymd = EpochDay.toYmd(epochDay);
+            return DayAlmanac.compute(ymd / 10000, ymd / 100 % 100, ymd % 100, fields);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    /**
+     * 打开一个日期区间游标，逐日递推干支、农历等字段，完整单日数据经由缓存和预计算日表加载
+     * @param fromDay 起始纪元日（包含）
+     * @param toDay 结束纪元日（包含）
+     */
+    public static DayCursor openCursor(int fromDay, int toDay) {
+        return new DayCursor(fromDay, toDay, LunarHelper::getDayAlmanac);
+    }
+    
+    private static DayAlmanac loadDayAlmanac(int epochDay) {
+        int ymd = EpochDay.toYmd(epochDay);
+        return loadDayAlmanac(epochDay, ymd / 10000, ymd / 100 % 100, ymd % 100);
+    }
+    
+    private static DayAlmanac loadDayAlmanac(int epochDay, int year, int month, int day) {
+        AlmanacTable table = almanacTable;
+        if (table != null && table.covers(epochDay)) {
+            try {
+                return table.decode(epochDay);
+            } catch (Exception e) {
+                Log.w(TAG, "日表解码失败，改为实时计算", e);
             }
         }
         
-        return jiri.toString();
+        try {
+            return DayAlmanac.compute(year, month, day);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    /**
+     * 指定日期是否已在缓存中，不影响缓存的使用顺序和命中统计
+     * 用于首页判断是否需要显示加载状态
+     */
+    public static boolean isDayCached(int epochDay) {
+        return dayCache.peek(epochDay) != null;
+    }
+    
+    /**
+     * 在后台预取选中日期前后的黄历，之前尚未完成的预取自动取消
+     * @param epochDay 选中日期的纪元日
+     */
+    public static void prefetchAround(int epochDay) {
+        prefetcher.prefetch(epochDay);
+    }
+    
+    /**
+     * 取消正在进行的预取
+     */
+    public static void cancelPrefetch() {
+        prefetcher.cancel();
+    }
+    
+    /**
+     * 单日黄历缓存，用于查看命中率等统计
+     */
+    public static DayCache getDayCache() {
+        return dayCache;
     }
     
     /**
      * 检查某个事件是否适宜在指定日期进行
+     * 当日宜事中有相关关键词且忌事中没有冲突时认为合适
      */
     public static boolean isEventSuitable(int year, int month, int day, String eventType) {
-        try {
-            Solar solar = new Solar(year, month, day);
-            Lunar lunar = solar.getLunar();
-            List<String> yi = lunar.getDayYi();
-            List<String> ji = lunar.getDayJi();
-            
-            // 事件类型映射
-            String[] keywords = getEventKeywords(eventType);
-            
-            if (keywords != null) {
-                // 精准匹配：只有宜事中包含相关关键词才认为合适
-                for (String keyword : keywords) {
-                    for (String yiItem : yi) {
-                        if (yiItem.contains(keyword)) {
-                            // 再检查是否在忌事中冲突
-                            boolean hasConflict = false;
-                            for (String jiItem : ji) {
-                                if (jiItem.contains(keyword)) {
-                                    hasConflict = true;
-                                    break;
-                                }
-                            }
-                            // 如果没有冲突，则认为合适
-                            if (!hasConflict) {
-                                return true;
-                            }
-                        }
-                    }
-                }
+        DayAlmanac almanac = getDayAlmanac(year, month, day);
+        return almanac != null && getEventMask(eventType).matches(almanac);
+    }
+    
+    /**
+     * 在区间内挑出最适宜某事件的日子
+     * 逐日递推宜忌组合并查表打分，只保留分数最高的limit天
+     * @param eventType 事件类型
+     * @param fromDay 起始纪元日（包含）
+     * @param toDay 结束纪元日（包含）
+     * @param limit 最多返回的天数
+     * @param cancelled 每处理一天检查一次，返回true时立即停止，返回已看过的日子中最好的
+     * @return 已排序的结果，最好的在前
+     */
+    public static TopKDays rankSuitableDays(String eventType, int fromDay, int toDay, int limit,
+                                            BooleanSupplier cancelled) {
+        return rankSuitableDays(eventType, fromDay, toDay, limit, ClashFilter.NONE, cancelled);
+    }
+    
+    /**
+     * 在区间内挑出最适宜某事件、且不冲指定生肖的日子
+     * 冲日在打分之前按日干支掩码排除，过滤本身不增加可见的开销
+     * 同一查询的结果会被缓存，跨日后只补算区间末尾新增的日子；适宜日索引构建完成后从索引取候选
+     * @param clash 需要避开的生肖，见 {@link #getClashFilter}
+     */
+    public static TopKDays rankSuitableDays(String eventType, int fromDay, int toDay, int limit,
+                                            ClashFilter clash, BooleanSupplier cancelled) {
+        long start = System.nanoTime();
+        TopKDays best = searchCache.rank(eventType, getDayScorer(eventType), getEventDayIndex(eventType),
+                fromDay, toDay, clash, limit, cancelled);
+        Log.d(TAG, "择日排序 " + eventType + "（" + clash + "）：" + (toDay - fromDay + 1) + "天，取前"
+                + best.size() + "天，耗时" + (System.nanoTime() - start) / 1000 + "µs，缓存命中率"
+                + Math.round(searchCache.getHitRatio() * 100) + "%");
+        return best;
+    }
+    
+    private static void recordSearchCacheLookup(SearchResultCache.Outcome outcome) {
+        switch (outcome) {
+            case HIT:
+                AppMetrics.increment(AppMetrics.SEARCH_CACHE_HIT);
+                break;
+            case SHIFTED:
+                AppMetrics.increment(AppMetrics.SEARCH_CACHE_SHIFT);
+                break;
+            default:
+                AppMetrics.increment(AppMetrics.SEARCH_CACHE_MISS);
+                break;
+        }
+    }
+    
+    /**
+     * 按日期分页列出区间内适宜某事件、且不冲指定生肖的日子
+     * 不限总数，每页从上一页停下的地方接着找；适宜日索引构建完成后每页只需二分定位再截取
+     * @param eventType 事件类型
+     * @param fromDay 起始纪元日（包含）
+     * @param toDay 结束纪元日（包含）
+     * @param clash 需要避开的生肖
+     */
+    public static SuitableDayPager openSuitableDayPager(String eventType, int fromDay, int toDay, ClashFilter clash) {
+        return new SuitableDayPager(getDayScorer(eventType), getEventDayIndex(eventType), clash, fromDay, toDay);
+    }
+    
+    /**
+     * 一次扫描区间，同时为多种事件择日，并给出各事件都适宜的同一天
+     * 每天的递推、避冲判断只做一次，不随事件数增加
+     * @param eventTypes 事件类型，最多 {@link MultiEventSearch#MAX_EVENTS} 种
+     * @param fromDay 起始纪元日（包含）
+     * @param toDay 结束纪元日（包含）
+     * @param limit 每个列表最多返回的天数
+     * @param clash 需要避开的生肖
+     * @param cancelled 每处理一天检查一次，返回true时立即停止
+     * @return 各事件及同日皆宜的结果，均已排序
+     */
+    public static MultiEventSearch.Result searchEvents(String[] eventTypes, int fromDay, int toDay, int limit,
+                                                       ClashFilter clash, BooleanSupplier cancelled) {
+        DayScorer[] scorers = new DayScorer[eventTypes.length];
+        for (int i = 0; i < scorers.length; i++) {
+            scorers[i] = getDayScorer(eventTypes[i]);
+        }
+        MultiEventSearch.Result result = new MultiEventSearch(eventTypes, scorers)
+                .run(fromDay, toDay, limit, clash, cancelled);
+        Log.d(TAG, "多事件择日 " + String.join("、", eventTypes) + "：扫描" + result.getScannedDays()
+                + "天，同日皆宜" + result.getDaysForAll().size() + "天，耗时" + result.getElapsedNanos() / 1000 + "µs");
+        return result;
+    }
+    
+    /**
+     * 由生辰信息得到避冲过滤，排除冲其中任何一人生肖的日子
+     * @param profiles 生辰信息，null项忽略
+     */
+    public static ClashFilter getClashFilter(List<PersonalInfoUtils.BirthInfo> profiles) {
+        int[] zhi = new int[profiles.size()];
+        int count = 0;
+        for (PersonalInfoUtils.BirthInfo profile : profiles) {
+            if (profile != null) {
+                zhi[count++] = getShengXiaoZhi(profile.getBirthYear(), profile.getBirthMonth(), profile.getBirthDay());
             }
-            
-            return false;
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
         }
+        return ClashFilter.of(Arrays.copyOf(zhi, count));
+    }
+    
+    /**
+     * 出生日期对应的生肖地支索引，按农历年（正月初一）换年，与lunar库 getYearShengXiao 一致
+     * 月首表已加载时查表；未加载时直接用lunar库换算这一天，界面线程上调用也不会触发整表生成
+     */
+    public static int getShengXiaoZhi(int year, int month, int day) {
+        int epochDay = EpochDay.of(year, month, day);
+        if (LunarMonthTable.isLoaded() && LunarMonthTable.covers(epochDay)) {
+            int lunarYear = LunarMonthTable.yearAt(LunarMonthTable.monthIndexOf(epochDay));
+            return Math.floorMod(lunarYear - 4, 12);
+        }
+        return new Solar(year, month, day).getLunar().getYearZhiIndex();
+    }
+    
+    /**
+     * 获取事件类型的择日评分表，每种事件只构建一次
+     */
+    public static DayScorer getDayScorer(String eventType) {
+        String key = eventType != null ? eventType : "";
+        DayScorer scorer = dayScorers.get(key);
+        if (scorer == null) {
+            scorer = new DayScorer(getEventMask(eventType));
+            dayScorers.put(key, scorer);
+        }
+        return scorer;
+    }
+    
+    /**
+     * 获取事件类型的适宜日索引，覆盖整个日表年份范围
+     * @return 索引，尚未构建完成或不是预设事件类型时为null
+     */
+    public static EventDayIndex getEventDayIndex(String eventType) {
+        return eventType != null ? eventIndexes.get(eventType) : null;
+    }
+    
+    /**
+     * 获取事件类型编译后的关键词位图，每种事件只编译一次
+     */
+    public static EventMask getEventMask(String eventType) {
+        if (eventType == null) {
+            return EventMask.NONE;
+        }
+        EventMask mask = eventMasks.get(eventType);
+        if (mask == null) {
+            mask = EventMask.compile(getEventKeywords(eventType));
+            eventMasks.put(eventType, mask);
+        }
+        return mask;
     }
     
     /**
@@ -248,6 +549,101 @@ public class LunarHelper {
         }
     }
     
+    // ==================== 组合择日 ====================
+    
+    /**
+     * 执行组合择日条件，如"宜嫁娶且宜纳采、不忌安葬、不冲本人生肖、只要周末、排除节假日"
+     * 属性矩阵在第一次查询时构建，之后各条件共享
+     * @param query 条件
+     * @param fromDay 起始纪元日（包含）
+     * @param toDay 结束纪元日（包含）
+     * @param limit 最多返回的天数
+     * @return 查询结果，包含实际计算的天数
+     */
+    public static DayQuery.Result queryDays(DayQuery query, int fromDay, int toDay, int limit) {
+        DayQuery.Result result = query.run(getDayAttributeMatrix(), fromDay, toDay, limit);
+        Log.d(TAG, "组合择日 " + query + " 计算" + result.getEvaluatedDays() + "天，找到"
+                + result.getDays().length + "天，耗时" + result.getElapsedNanos() / 1000 + "us");
+        return result;
+    }
+    
+    /**
+     * 日期属性矩阵，覆盖整个日表年份范围
+     */
+    public static DayAttributeMatrix getDayAttributeMatrix() {
+        return MatrixHolder.MATRIX;
+    }
+    
+    private static final class MatrixHolder {
+        static final DayAttributeMatrix MATRIX = DayAttributeMatrix.build(
+                EpochDay.of(AppConstants.ALMANAC_START_YEAR, 1, 1),
+                EpochDay.of(AppConstants.ALMANAC_END_YEAR, 12, 31));
+    }
+    
+    // ==================== 干支周期查询 ====================
+    
+    /**
+     * 从某天起（包含当天）下一个指定干支的日子，如"甲子"
+     * @return 纪元日，干支文字无效时返回 {@link CycleQueries#NOT_FOUND}
+     */
+    public static int findNextGanZhiDay(int fromDay, String ganZhi) {
+        for (int i = 0; i < 60; i++) {
+            if (GanZhi.text(i).equals(ganZhi)) {
+                return CycleQueries.next(fromDay, CycleQueries.ganZhiMask(i));
+            }
+        }
+        return CycleQueries.NOT_FOUND;
+    }
+    
+    /**
+     * 从某天起（包含当天）下一个不冲指定生肖的日子
+     * @param shengXiao 生肖，如"鼠"
+     * @return 纪元日，生肖无效时返回 {@link CycleQueries#NOT_FOUND}
+     */
+    public static int findNextDayNotClashing(int fromDay, String shengXiao) {
+        for (int zhi = 0; zhi < 12; zhi++) {
+            if (GanZhi.shengXiao(zhi).equals(shengXiao)) {
+                return CycleQueries.nextNotChong(fromDay, zhi);
+            }
+        }
+        return CycleQueries.NOT_FOUND;
+    }
+    
+    // ==================== 农历→公历 ====================
+    
+    /**
+     * 农历日期转公历纪元日
+     * @param lunarYear 农历年
+     * @param lunarMonth 农历月，闰月为负数
+     * @param lunarDay 农历日
+     * @return 纪元日，日期不存在时返回 {@link LunarMonthTable#NOT_FOUND}
+     */
+    public static int lunarToEpochDay(int lunarYear, int lunarMonth, int lunarDay) {
+        if (lunarYear >= LunarMonthTable.START_YEAR && lunarYear <= LunarMonthTable.END_YEAR) {
+            return LunarMonthTable.toEpochDay(lunarYear, lunarMonth, lunarDay);
+        }
+        try {
+            Solar solar = Lunar.fromYmd(lunarYear, lunarMonth, lunarDay).getSolar();
+            return EpochDay.of(solar.getYear(), solar.getMonth(), solar.getDay());
+        } catch (Exception e) {
+            Log.w(TAG, "农历日期不存在: " + lunarYear + "/" + lunarMonth + "/" + lunarDay);
+            return LunarMonthTable.NOT_FOUND;
+        }
+    }
+    
+    /**
+     * 每年重复的农历日期（如农历生日）接下来几次对应的公历日期
+     * 闰月日期在没有该闰月的年份按正常月份计算，三十日在小月按廿九计算
+     * @param lunarMonth 农历月，闰月为负数
+     * @param lunarDay 农历日
+     * @param fromDay 起始纪元日（包含）
+     * @param count 次数
+     * @return 升序的纪元日数组
+     */
+    public static int[] findLunarOccurrences(int lunarMonth, int lunarDay, int fromDay, int count) {
+        return new LunarRecurrence(lunarMonth, lunarDay).next(fromDay, count);
+    }
+    
     /**
      * 获取生肖配对信息
      */
@@ -310,18 +706,14 @@ public class LunarHelper {
         Calendar now = Calendar.getInstance();
         int hour = now.get(Calendar.HOUR_OF_DAY);
         
-        // 获取当前时辰
-        Solar solar = new Solar(now.get(Calendar.YEAR), 
-                              now.get(Calendar.MONTH) + 1, 
-                              now.get(Calendar.DAY_OF_MONTH), 
-                              hour, now.get(Calendar.MINUTE), 0);
-        Lunar lunar = solar.getLunar();
+        // 时支只由小时决定，直接推算，首屏不必等lunar库加载
+        String zhi = GanZhi.ZHI[(hour + 1) / 2 % 12];
         
-        String shichen = lunar.getTimeZhi() + "时";
+        String shichen = zhi + "时";
         String timeRange = getTimeRange(hour);
         String jixiong = getShiChenJiXiong(hour);
-        String wuxing = getShiChenWuXing(lunar.getTimeZhi());
-        String description = getShiChenDescription(lunar.getTimeZhi());
+        String wuxing = getShiChenWuXing(zhi);
+        String description = getShiChenDescription(zhi);
         
         return String.format("当前%s(%s) - %s\n五行属%s，%s", 
                            shichen, timeRange, jixiong, wuxing, description);
@@ -370,27 +762,6 @@ public class LunarHelper {
         }
     }
     
-    /**
-     * 将地支转换为对应的生肖
-     */
-    private static String convertDizhiToShengxiao(String dizhi) {
-        switch (dizhi) {
-            case "子": return "鼠";
-            case "丑": return "牛"; 
-            case "寅": return "虎";
-            case "卯": return "兔";
-            case "辰": return "龙";
-            case "巳": return "蛇";
-            case "午": return "马";
-            case "未": return "羊";
-            case "申": return "猴";
-            case "酉": return "鸡";
-            case "戌": return "狗";
-            case "亥": return "猪";
-            default: return dizhi; // 如果不匹配就返回原值
-        }
-    }
-    
     // ==================== 八字和个人运势相关功能 ====================
     
     /**
@@ -529,27 +900,27 @@ public class LunarHelper {
         try {
             // 获取今日黄历信息
             Calendar today = Calendar.getInstance();
-            JSONObject huangliData = getHuangLiData(
+            DayAlmanac almanac = getDayAlmanac(
                 today.get(Calendar.YEAR),
                 today.get(Calendar.MONTH) + 1,
                 today.get(Calendar.DAY_OF_MONTH)
             );
             
-            if (huangliData == null) {
+            if (almanac == null) {
                 return "黄历数据获取失败";
             }
             
             // 获取基础宜忌
-            String basicYi = huangliData.optString("yi", "");
-            String basicJi = huangliData.optString("ji", "");
+            String basicYi = almanac.joinYi(", ");
+            String basicJi = almanac.joinJi(", ");
             
             // 根据个人八字调整建议
             String personalAdvice = getPersonalizedAdvice(birthInfo);
             
             StringBuilder result = new StringBuilder();
             result.append("【今日宜忌】\n");
-            result.append("宜：").append(basicYi.replace("[", "").replace("]", "")).append("\n");
-            result.append("忌：").append(basicJi.replace("[", "").replace("]", "")).append("\n\n");
+            result.append("宜：").append(basicYi).append("\n");
+            result.append("忌：").append(basicJi).append("\n\n");
             result.append("【个人建议】\n").append(personalAdvice);
             
             return result.toString();
@@ -565,12 +936,9 @@ public class LunarHelper {
      */
     private static String getPersonalizedAdvice(PersonalInfoUtils.BirthInfo birthInfo) {
         try {
-            // 获取生肖
-            Solar birthSolar = new Solar(birthInfo.getBirthYear(), 
-                                       birthInfo.getBirthMonth(), 
-                                       birthInfo.getBirthDay());
-            Lunar birthLunar = birthSolar.getLunar();
-            String shengxiao = birthLunar.getYearShengXiao();
+            // 获取生肖（按农历年）
+            String shengxiao = GanZhi.shengXiao(getShengXiaoZhi(
+                    birthInfo.getBirthYear(), birthInfo.getBirthMonth(), birthInfo.getBirthDay()));
             
             // 根据生肖给出建议
             switch (shengxiao) {
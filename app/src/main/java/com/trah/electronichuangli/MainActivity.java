@@ -50,10 +50,9 @@ import java.text.SimpleDateFormat;
 import java.util.Locale;
 import java.util.Calendar;
 
-// ==================== JSON 和工具类导入 ====================
-import org.json.JSONObject;
-
 // ==================== 项目内部导入 ====================
+import com.trah.electronichuangli.almanac.DayAlmanac;
+import com.trah.electronichuangli.almanac.EpochDay;
 import com.trah.electronichuangli.constants.AppConstants;
 import com.trah.electronichuangli.utils.CompassUtils;
 import com.trah.electronichuangli.utils.PersonalInfoUtils;
@@ -113,6 +112,11 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main_new);
         configureStatusBar();
+        
+        // 后台加载预计算黄历日表
+        LunarHelper.init(getApplicationContext());
+        // 后台预热lunar库和常用计算路径，首屏不等待
+        AlmanacWarmup.schedule();
 
         // 初始化底部导航
         setupBottomNavigation();
@@ -351,38 +355,35 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
     }
     
     private void fetchAndSetData() {
-        // 显示加载状态
-        runOnUiThread(() -> {
-            if (loadingProgress != null) {
-                loadingProgress.setVisibility(View.VISIBLE);
-            }
-        });
+        int year = selectedDate.get(Calendar.YEAR);
+        int month = selectedDate.get(Calendar.MONTH) + 1;
+        int day = selectedDate.get(Calendar.DAY_OF_MONTH);
+        int epochDay = EpochDay.of(year, month, day);
+        
+        // 已预取到缓存时直接显示，不闪加载状态
+        if (!LunarHelper.isDayCached(epochDay)) {
+            runOnUiThread(() -> {
+                if (loadingProgress != null) {
+                    loadingProgress.setVisibility(View.VISIBLE);
+                }
+            });
+        }
         
         try {
-            int year = selectedDate.get(Calendar.YEAR);
-            int month = selectedDate.get(Calendar.MONTH) + 1;
-            int day = selectedDate.get(Calendar.DAY_OF_MONTH);
-
             // 使用LunarHelper本地计算，无需网络请求
-            JSONObject result = LunarHelper.getHuangLiData(year, month, day);
+            DayAlmanac result = LunarHelper.getDayAlmanac(year, month, day);
+            // 预取前后几天，翻看相邻日期时直接命中缓存
+            LunarHelper.prefetchAround(epochDay);
             
             if (result != null) {
                 // 获取方位信息
-                caishenDegrees = getDirectionInDegrees(result.getString("caishen"));
-                xishenDegrees = getDirectionInDegrees(result.getString("xishen"));
-                fushenDegrees = getDirectionInDegrees(result.getString("fushen"));
+                caishenDegrees = result.getCaiShen().getDegrees();
+                xishenDegrees = result.getXiShen().getDegrees();
+                fushenDegrees = result.getFuShen().getDegrees();
 
-                final String yi = result.getString("yi")
-                        .replace("[", "")
-                        .replace("]", "")
-                        .replace("\"", "")
-                        .replace(",", "  ");
-                final String ji = result.getString("ji")
-                        .replace("[", "")
-                        .replace("]", "")
-                        .replace("\"", "")
-                        .replace(",", "  ");
-                String dateFromApi = result.getString("yangli");
+                final String yi = result.joinYi("   ");
+                final String ji = result.joinJi("   ");
+                String dateFromApi = result.getSolarText();
                 
                 // 如果不是今天，显示日期提示
                 Calendar today = Calendar.getInstance();
@@ -398,18 +399,18 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
                     displayDate = dateFromApi;
                 }
                 
-                final String cf = result.getString("caishen");
-                final String xf = result.getString("xishen");
-                final String ff = result.getString("fushen");
+                final String cf = result.getCaiShen().getLabel();
+                final String xf = result.getXiShen().getLabel();
+                final String ff = result.getFuShen().getLabel();
                 
                 // 获取更多信息
-                final String lunar = result.optString("nongli", "");
-                final String shengxiao = result.optString("shengxiao", "");
-                final String star = result.optString("star", "");
-                final String jieqiInfo = result.optString("jieqi", "");
-                final String chongsha = result.optString("chong", "") + " " + result.optString("sha", "");
-                final String suisha = result.optString("suisha", "");
-                final String jiri = result.optString("jiri", "");
+                final String lunar = result.getLunarText();
+                final String shengxiao = result.getShengXiao();
+                final String star = result.getStar();
+                final String jieqiInfo = result.getJieQiText();
+                final String chongsha = result.getChongDesc();
+                final String suisha = result.getSuiShaDesc();
+                final String jiri = result.getJiRi();
                 
                 // 获取五行、时辰信息
                 final String wuxing = getWuxingInfoFromLunar(result);
@@ -561,6 +562,14 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
         }
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // 退到后台时停止预取，并保存缓存快照，下次冷启动直接显示
+        LunarHelper.cancelPrefetch();
+        LunarHelper.saveSnapshot();
+    }
+
     @Override
     public void onSensorChanged(SensorEvent event) {
         if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
@@ -643,20 +652,6 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
         animatePointer(fushenPointer, fushenDegrees);
     }
 
-    private float getDirectionInDegrees(String direction) {
-        switch (direction) {
-            case "东北": return 45f;
-            case "正东": return 90f;
-            case "东南": return 135f;
-            case "正南": return 180f;
-            case "西南": return 225f;
-            case "正西": return 270f;
-            case "西北": return 315f;
-            case "正北": return 0f;
-            default: return 0f;
-        }
-    }
-
     private String getCompassDirection(float azimuth) {
         if (azimuth >= 337.5 || azimuth < 22.5) return "北";
         if (azimuth >= 22.5 && azimuth < 67.5) return "东北";
@@ -699,10 +694,10 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
     }
 
     // 获取五行信息（使用lunar-java库）
-    private String getWuxingInfoFromLunar(JSONObject result) {
+    private String getWuxingInfoFromLunar(DayAlmanac result) {
         try {
-            String nayin = result.optString("nayin", "");
-            String wuxing = result.optString("wuxing", "");
+            String nayin = result.getNaYin();
+            String wuxing = result.getWuXing();
             
             StringBuilder wuxingInfo = new StringBuilder();
             
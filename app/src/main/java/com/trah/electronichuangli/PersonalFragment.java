@@ -252,6 +252,39 @@ public class PersonalFragment extends Fragment {
         }
         layout.addView(timeSpinner);
         
+        // 配偶生日（可选），嫁娶择日时一并避开与对方相冲的日子
+        TextView partnerLabel = new TextView(getContext());
+        partnerLabel.setText("配偶生日（可选，嫁娶择日时一并避冲）");
+        partnerLabel.setPadding(0, 20, 0, 0);
+        layout.addView(partnerLabel);
+        
+        PersonalInfoUtils.BirthInfo savedPartner = PersonalInfoUtils.loadPartnerBirthInfo(getContext());
+        Calendar[] partnerDate = {savedPartner != null ? savedPartner.birthDate : null};
+        Button partnerButton = new Button(getContext());
+        partnerButton.setText(partnerDate[0] != null ? formatDate(partnerDate[0]) : "未设置，点击选择");
+        partnerButton.setOnClickListener(v -> {
+            Calendar initial = partnerDate[0] != null ? partnerDate[0] : (Calendar) selectedBirthDate.clone();
+            DatePickerDialog datePickerDialog = new DatePickerDialog(
+                getContext(),
+                (view, year, month, dayOfMonth) -> {
+                    Calendar date = Calendar.getInstance();
+                    date.set(year, month, dayOfMonth);
+                    partnerDate[0] = date;
+                    partnerButton.setText(formatDate(date));
+                },
+                initial.get(Calendar.YEAR),
+                initial.get(Calendar.MONTH),
+                initial.get(Calendar.DAY_OF_MONTH)
+            );
+            datePickerDialog.setButton(DatePickerDialog.BUTTON_NEUTRAL, "清除", (d, w) -> {
+                partnerDate[0] = null;
+                partnerButton.setText("未设置，点击选择");
+            });
+            datePickerDialog.getDatePicker().setMaxDate(Calendar.getInstance().getTimeInMillis());
+            datePickerDialog.show();
+        });
+        layout.addView(partnerButton);
+        
         builder.setView(layout);
         
         builder.setPositiveButton("保存", (dialog, which) -> {
@@ -259,6 +292,7 @@ public class PersonalFragment extends Fragment {
             
             // 使用PersonalInfoUtils保存生辰信息
             PersonalInfoUtils.saveBirthInfo(getContext(), selectedBirthDate, birthTimeStr);
+            PersonalInfoUtils.savePartnerBirthInfo(getContext(), partnerDate[0]);
             
             loadPersonalInfo();
         });
@@ -267,6 +301,11 @@ public class PersonalFragment extends Fragment {
         builder.show();
     }
     
+    private static String formatDate(Calendar date) {
+        return String.format("%d年%d月%d日", date.get(Calendar.YEAR),
+            date.get(Calendar.MONTH) + 1, date.get(Calendar.DAY_OF_MONTH));
+    }
+    
     /**
      * 生成个性化运势分析
      * @param birthInfo 生辰信息
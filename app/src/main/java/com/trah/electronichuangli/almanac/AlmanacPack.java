@@ -0,0 +1,318 @@
+package com.trah.electronichuangli.almanac;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 黄历数据包
+ * 构建时由 {@code generateAlmanacPack} 任务在JVM上调用lunar库生成，逐项与lunar库核对后放进assets随应用发布，
+ * 包含三段数据：日表（{@link AlmanacTable}）、节气表（{@link SolarTermTable}）、农历月首表（{@link LunarMonthTable}）
+ *
+ * 包文件布局（大端序）：
+ * 魔数 → 包版本 → 起止公历年 → 数据长度 → 数据的CRC32 → Deflate压缩的数据
+ * 数据部分为：段数，然后每段依次是 段标记(int) → 长度(int) → 内容
+ *
+ * 运行时第一次启动把数据解压到应用私有目录，文件名带上校验和，之后核对CRC后直接以内存映射方式打开；
+ * 已解压的文件损坏（截断、补齐或磁盘上被改动）时删除并重新解压；
+ * 应用升级带来新的数据包时校验和不同，会重新解压并删除旧文件
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class AlmanacPack {
+
+    // ==================== 文件格式常量 ====================
+
+    /** 包魔数 "HLPK" */
+    static final int MAGIC = 0x484C504B;
+
+    /** 包格式版本，段的组织方式变化时递增；各段内容自带版本 */
+    static final int PACK_VERSION = 1;
+
+    /** 日表段 "DAYS" */
+    static final int SECTION_DAYS = 0x44415953;
+
+    /** 节气表段 "TERM" */
+    static final int SECTION_TERMS = 0x5445524D;
+
+    /** 农历月首表段 "MOON" */
+    static final int SECTION_MONTHS = 0x4D4F4F4E;
+
+    /** 解压后数据文件的前缀，同目录下以此开头的其他文件视为旧版本 */
+    private static final String FILE_PREFIX = "almanac_";
+
+    private static final String FILE_SUFFIX = ".dat";
+
+    // ==================== 数据 ====================
+
+    private final int startYear;
+    private final int endYear;
+    private final long checksum;
+    private final AlmanacTable table;
+    private final ByteBuffer terms;
+    private final ByteBuffer months;
+
+    private AlmanacPack(int startYear, int endYear, long checksum,
+                        AlmanacTable table, ByteBuffer terms, ByteBuffer months) {
+        this.startYear = startYear;
+        this.endYear = endYear;
+        this.checksum = checksum;
+        this.table = table;
+        this.terms = terms;
+        this.months = months;
+    }
+
+    // ==================== 生成 ====================
+
+    /**
+     * 写出数据包，节气表和月首表取当前进程中的表（构建时即由lunar库生成）
+     * @param out 输出流，写完后不关闭
+     * @param startYear 日表起始公历年
+     * @param endYear 日表结束公历年
+     * @param days 日表字节，由生成工具的 AlmanacTableWriter.encode 编码
+     * @throws IOException 写入失败
+     */
+    static void write(OutputStream out, int startYear, int endYear, byte[] days) throws IOException {
+        ByteArrayOutputStream termBytes = new ByteArrayOutputStream();
+        try (DataOutputStream termOut = new DataOutputStream(termBytes)) {
+            SolarTermTable.encode(termOut);
+        }
+        ByteArrayOutputStream monthBytes = new ByteArrayOutputStream();
+        try (DataOutputStream monthOut = new DataOutputStream(monthBytes)) {
+            LunarMonthTable.encode(monthOut);
+        }
+
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(days.length + termBytes.size() + monthBytes.size() + 32);
+        try (DataOutputStream payload = new DataOutputStream(payloadBytes)) {
+            payload.writeInt(3);
+            writeSection(payload, SECTION_DAYS, days);
+            writeSection(payload, SECTION_TERMS, termBytes.toByteArray());
+            writeSection(payload, SECTION_MONTHS, monthBytes.toByteArray());
+        }
+        byte[] raw = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(raw, 0, raw.length);
+
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeInt(PACK_VERSION);
+        header.writeInt(startYear);
+        header.writeInt(endYear);
+        header.writeInt(raw.length);
+        header.writeLong(crc.getValue());
+        header.flush();
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            DeflaterOutputStream compressed = new DeflaterOutputStream(out, deflater);
+            compressed.write(raw);
+            compressed.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeSection(DataOutputStream out, int tag, byte[] content) throws IOException {
+        out.writeInt(tag);
+        out.writeInt(content.length);
+        out.write(content);
+    }
+
+    // ==================== 安装 ====================
+
+    /**
+     * 从数据包安装并打开数据
+     * 目录中已有同一校验和的数据文件、且重新计算的CRC一致时直接打开，否则解压、校验后写入，
+     * 并删除旧版本的数据文件；核对已有文件只是顺序读一遍，比重新解压便宜得多
+     *
+     * @param pack 数据包输入流（如assets中的文件），调用方负责关闭
+     * @param dir 存放解压数据的目录
+     * @return 打开的数据包
+     * @throws IOException 数据包损坏、版本不符或写入失败
+     */
+    public static AlmanacPack install(InputStream pack, File dir) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(pack));
+        readVersion(in);
+        int startYear = in.readInt();
+        int endYear = in.readInt();
+        int rawLength = in.readInt();
+        long checksum = in.readLong();
+
+        File file = new File(dir, FILE_PREFIX + Long.toHexString(checksum) + FILE_SUFFIX);
+        deleteStale(dir, file);
+        if (file.exists()) {
+            if (file.length() == rawLength && checksumOf(file) == checksum) {
+                try {
+                    return open(file, startYear, endYear, checksum);
+                } catch (IOException e) {
+                    // CRC一致但无法解析，按损坏处理，下面重新解压
+                }
+            }
+            file.delete();
+        }
+        unpack(in, file, rawLength, checksum);
+        return open(file, startYear, endYear, checksum);
+    }
+
+    /**
+     * 只读取数据包头部中的校验和，不解压，用于判断其他缓存数据是否与当前数据包对应
+     * @param pack 数据包输入流，调用方负责关闭
+     * @return 解压后数据的CRC32
+     * @throws IOException 不是数据包或版本不符
+     */
+    public static long readChecksum(InputStream pack) throws IOException {
+        DataInputStream in = new DataInputStream(pack);
+        readVersion(in);
+        in.readInt();
+        in.readInt();
+        in.readInt();
+        return in.readLong();
+    }
+
+    /** 核对魔数和包版本 */
+    private static void readVersion(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not an almanac pack");
+        }
+        int version = in.readInt();
+        if (version != PACK_VERSION) {
+            throw new IOException("unsupported almanac pack version " + version);
+        }
+    }
+
+    /** 解压到临时文件，长度和校验和都正确后再重命名 */
+    private static void unpack(InputStream in, File target, int rawLength, long checksum) throws IOException {
+        File temp = new File(target.getPath() + ".tmp");
+        CRC32 crc = new CRC32();
+        long total = 0;
+        try (InflaterInputStream inflater = new InflaterInputStream(in);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = inflater.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+                out.write(buffer, 0, n);
+                total += n;
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        if (total != rawLength || crc.getValue() != checksum) {
+            temp.delete();
+            throw new IOException("almanac pack checksum mismatch");
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("无法写入黄历数据: " + target);
+        }
+    }
+
+    /** 已解压文件内容的CRC32，读取失败时返回-1（不会与任何CRC32相等） */
+    private static long checksumOf(File file) {
+        CRC32 crc = new CRC32();
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+            }
+            return crc.getValue();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static void deleteStale(File dir, File current) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().startsWith(FILE_PREFIX) && !file.equals(current)) {
+                file.delete();
+            }
+        }
+    }
+
+    /** 以只读内存映射方式打开解压后的数据 */
+    private static AlmanacPack open(File file, int startYear, int endYear, long checksum) throws IOException {
+        ByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            ByteBuffer days = null;
+            ByteBuffer terms = null;
+            ByteBuffer months = null;
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int tag = buffer.getInt();
+                int length = buffer.getInt();
+                ByteBuffer section = buffer.slice();
+                section.limit(length);
+                buffer.position(buffer.position() + length);
+                if (tag == SECTION_DAYS) {
+                    days = section;
+                } else if (tag == SECTION_TERMS) {
+                    terms = section;
+                } else if (tag == SECTION_MONTHS) {
+                    months = section;
+                }
+            }
+            if (days == null || terms == null || months == null) {
+                throw new IOException("almanac pack section missing");
+            }
+            return new AlmanacPack(startYear, endYear, checksum, AlmanacTable.parse(days), terms, months);
+        } catch (RuntimeException e) {
+            throw new IOException("corrupted almanac pack", e);
+        }
+    }
+
+    // ==================== 访问 ====================
+
+    /**
+     * 用包内的节气表、月首表代替lunar库计算，应在第一次查询日期之前调用
+     * @return 两张表是否都已采用包内数据；某张表已经加载过时返回false，该表继续使用已有数据
+     */
+    public boolean installTables() {
+        boolean termsInstalled = SolarTermTable.preload(SolarTermTable.decode(termSection()));
+        boolean monthsInstalled = LunarMonthTable.preload(LunarMonthTable.decode(monthSection()));
+        return termsInstalled && monthsInstalled;
+    }
+
+    /** 日表 */
+    public AlmanacTable getTable() { return table; }
+
+    /** 节气表段的只读视图，供构建时核对 */
+    ByteBuffer termSection() { return terms.duplicate(); }
+
+    /** 月首表段的只读视图，供构建时核对 */
+    ByteBuffer monthSection() { return months.duplicate(); }
+
+    /** 日表起始公历年 */
+    public int getStartYear() { return startYear; }
+
+    /** 日表结束公历年 */
+    public int getEndYear() { return endYear; }
+
+    /** 解压后数据的CRC32 */
+    public long getChecksum() { return checksum; }
+}
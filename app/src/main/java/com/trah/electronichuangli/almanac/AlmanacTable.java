@@ -0,0 +1,258 @@
+package com.trah.electronichuangli.almanac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 预计算黄历日表（只读）
+ * 每天一条定长记录，作为 {@link AlmanacPack} 的一段随数据包内存映射，按纪元日直接定位，解码为O(1)
+ *
+ * 日表段布局（大端序）：
+ * 头部 → 文本池 → 宜忌词池 → 宜忌组合字典 → 按天排列的定长记录
+ * 宜忌只由（月支，日干支）决定，共12×60种组合，因此记录里不重复存储宜忌，
+ * 而是在解码时用月干支和日干支查组合字典
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class AlmanacTable {
+
+    // ==================== 文件格式常量 ====================
+
+    /** 文件魔数 "HLAT" */
+    static final int MAGIC = 0x484C4154;
+
+    /** 文件格式版本，记录布局变化时递增 */
+    static final int FORMAT_VERSION = 1;
+
+    /** 宜忌组合数量：12个月支 × 60个日干支 */
+    static final int YI_JI_COMBOS = 12 * 60;
+
+    // 记录内各字段偏移
+    static final int OFF_LUNAR_YEAR = 0;    // short 农历年
+    static final int OFF_LUNAR_MONTH = 2;   // byte  农历月，闰月为负
+    static final int OFF_LUNAR_DAY = 3;     // byte  农历日
+    static final int OFF_YEAR_GZ = 4;       // byte  年干支
+    static final int OFF_MONTH_GZ = 5;      // byte  月干支
+    static final int OFF_DAY_GZ = 6;        // byte  日干支
+    static final int OFF_CHONG_ZHI = 7;     // byte  日冲地支
+    static final int OFF_YEAR_TEXT = 8;     // short 农历年文字
+    static final int OFF_MONTH_TEXT = 10;   // short 农历月文字
+    static final int OFF_DAY_TEXT = 12;     // short 农历日文字
+    static final int OFF_STAR = 14;         // short 星座
+    static final int OFF_NAYIN = 16;        // short 纳音
+    static final int OFF_PREV_JIE = 18;     // short 上一节
+    static final int OFF_NEXT_JIE = 20;     // short 下一节
+    static final int OFF_JIRI = 22;         // short 吉日/节日文字
+
+    /** 单条记录字节数 */
+    static final int RECORD_SIZE = 24;
+
+    // ==================== 数据 ====================
+
+    private final ByteBuffer records;
+    private final int startDay;
+    private final int dayCount;
+    private final String[] texts;
+    private final String[][] dayYi;
+    private final String[][] dayJi;
+
+    private AlmanacTable(ByteBuffer records, int startDay, int dayCount,
+                         String[] texts, String[][] dayYi, String[][] dayJi) {
+        this.records = records;
+        this.startDay = startDay;
+        this.dayCount = dayCount;
+        this.texts = texts;
+        this.dayYi = dayYi;
+        this.dayJi = dayJi;
+    }
+
+    static AlmanacTable parse(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not an almanac table");
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("unsupported almanac table version " + version);
+            }
+            int startDay = buffer.getInt();
+            int dayCount = buffer.getInt();
+            int recordSize = buffer.getInt();
+            int recordsOffset = buffer.getInt();
+            if (recordSize != RECORD_SIZE) {
+                throw new IOException("unexpected record size " + recordSize);
+            }
+
+            String[] texts = readStrings(buffer);
+            String[] words = readStrings(buffer);
+
+            String[][] dayYi = new String[YI_JI_COMBOS][];
+            String[][] dayJi = new String[YI_JI_COMBOS][];
+            for (int combo = 0; combo < YI_JI_COMBOS; combo++) {
+                dayYi[combo] = readWordList(buffer, words);
+                dayJi[combo] = readWordList(buffer, words);
+            }
+
+            if ((long) recordsOffset + (long) dayCount * RECORD_SIZE > buffer.capacity()) {
+                throw new IOException("truncated almanac table");
+            }
+            buffer.position(recordsOffset);
+            ByteBuffer records = buffer.slice();
+            return new AlmanacTable(records, startDay, dayCount, texts, dayYi, dayJi);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException等说明文件被截断
+            throw new IOException("corrupted almanac table", e);
+        }
+    }
+
+    private static String[] readStrings(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        String[] result = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getShort() & 0xFFFF;
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            result[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    private static String[] readWordList(ByteBuffer buffer, String[] words) {
+        int count = buffer.get() & 0xFF;
+        String[] list = new String[count];
+        for (int i = 0; i < count; i++) {
+            list[i] = words[buffer.getShort() & 0xFFFF];
+        }
+        return list;
+    }
+
+    // ==================== 范围 ====================
+
+    /**
+     * 日表是否覆盖指定纪元日
+     */
+    public boolean covers(int epochDay) {
+        return epochDay >= startDay && epochDay - startDay < dayCount;
+    }
+
+    /** 第一天的纪元日 */
+    public int getStartDay() {
+        return startDay;
+    }
+
+    /** 最后一天的纪元日（包含） */
+    public int getEndDay() {
+        return startDay + dayCount - 1;
+    }
+
+    // ==================== 字段解码 ====================
+
+    private int offset(int epochDay) {
+        return (epochDay - startDay) * RECORD_SIZE;
+    }
+
+    private String text(int epochDay, int field) {
+        return texts[records.getShort(offset(epochDay) + field) & 0xFFFF];
+    }
+
+    /** 农历年 */
+    public int lunarYear(int epochDay) {
+        return records.getShort(offset(epochDay) + OFF_LUNAR_YEAR);
+    }
+
+    /** 农历月，闰月为负数 */
+    public int lunarMonth(int epochDay) {
+        return records.get(offset(epochDay) + OFF_LUNAR_MONTH);
+    }
+
+    /** 农历日 */
+    public int lunarDay(int epochDay) {
+        return records.get(offset(epochDay) + OFF_LUNAR_DAY);
+    }
+
+    /** 年干支索引（以春节为界） */
+    public int yearGanZhi(int epochDay) {
+        return records.get(offset(epochDay) + OFF_YEAR_GZ);
+    }
+
+    /** 月干支索引（以节为界） */
+    public int monthGanZhi(int epochDay) {
+        return records.get(offset(epochDay) + OFF_MONTH_GZ);
+    }
+
+    /** 日干支索引 */
+    public int dayGanZhi(int epochDay) {
+        return records.get(offset(epochDay) + OFF_DAY_GZ);
+    }
+
+    /** 日冲地支索引 */
+    public int chongZhi(int epochDay) {
+        return records.get(offset(epochDay) + OFF_CHONG_ZHI);
+    }
+
+    /** 农历日期文字，与Lunar.toString()一致，如"二〇二四年正月初一" */
+    public String lunarText(int epochDay) {
+        return text(epochDay, OFF_YEAR_TEXT) + "年"
+                + text(epochDay, OFF_MONTH_TEXT) + "月"
+                + text(epochDay, OFF_DAY_TEXT);
+    }
+
+    /** 星座 */
+    public String star(int epochDay) {
+        return text(epochDay, OFF_STAR);
+    }
+
+    /** 年纳音 */
+    public String naYin(int epochDay) {
+        return text(epochDay, OFF_NAYIN);
+    }
+
+    /** 上一节名称，可能为空字符串 */
+    public String prevJie(int epochDay) {
+        return text(epochDay, OFF_PREV_JIE);
+    }
+
+    /** 下一节名称，可能为空字符串 */
+    public String nextJie(int epochDay) {
+        return text(epochDay, OFF_NEXT_JIE);
+    }
+
+    /** 吉日/节日文字，可能为空字符串 */
+    public String jiRi(int epochDay) {
+        return text(epochDay, OFF_JIRI);
+    }
+
+    /** 当日宜（共享数组，调用方不得修改） */
+    public String[] yi(int epochDay) {
+        return dayYi[yiJiCombo(epochDay)];
+    }
+
+    /** 当日忌（共享数组，调用方不得修改） */
+    public String[] ji(int epochDay) {
+        return dayJi[yiJiCombo(epochDay)];
+    }
+
+    /**
+     * 解码一整天的黄历，宜忌数组与同组合的其他日期共享
+     * @param epochDay 纪元日，必须在日表范围内
+     */
+    public DayAlmanac decode(int epochDay) {
+        int ymd = EpochDay.toYmd(epochDay);
+        int combo = yiJiCombo(epochDay);
+        return new DayAlmanac(
+                epochDay, ymd / 10000, ymd / 100 % 100, ymd % 100,
+                lunarYear(epochDay), lunarMonth(epochDay), lunarDay(epochDay), lunarText(epochDay),
+                yearGanZhi(epochDay), monthGanZhi(epochDay), dayGanZhi(epochDay), chongZhi(epochDay),
+                star(epochDay), naYin(epochDay), prevJie(epochDay), nextJie(epochDay), jiRi(epochDay),
+                dayYi[combo], dayJi[combo]);
+    }
+
+    /** 宜忌组合编号，见 {@link YiJiTable#combo} */
+    public int yiJiCombo(int epochDay) {
+        int base = offset(epochDay);
+        int monthZhi = records.get(base + OFF_MONTH_GZ) % 12;
+        return monthZhi * 60 + records.get(base + OFF_DAY_GZ);
+    }
+}
@@ -0,0 +1,91 @@
+package com.trah.electronichuangli.almanac;
+
+/**
+ * 避冲过滤
+ * 由一个或多个人的生肖地支得到12位的被冲地支掩码，再展开为按日干支索引的60位掩码，
+ * 判断某天是否冲其中任何一人只需一次移位和与运算，不涉及任何字符串
+ *
+ * 对象不可变，可在多线程下共享
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class ClashFilter {
+
+    /** 不过滤任何日子 */
+    public static final ClashFilter NONE = new ClashFilter(0);
+
+    /** 第i位表示冲地支i（即冲属该地支生肖的人）的日子需要排除 */
+    private final int zhiMask;
+
+    /** 第i位表示日干支为i的日子需要排除 */
+    private final long dayMask;
+
+    private ClashFilter(int zhiMask) {
+        this.zhiMask = zhiMask;
+        long days = 0;
+        for (int dayGanZhi = 0; dayGanZhi < 60; dayGanZhi++) {
+            if ((zhiMask & (1 << GanZhiEngine.chongZhiOf(dayGanZhi))) != 0) {
+                days |= 1L << dayGanZhi;
+            }
+        }
+        this.dayMask = days;
+    }
+
+    /**
+     * 排除冲这些生肖的日子
+     * @param shengXiaoZhi 各人生肖的地支索引（0-11），重复的只算一次
+     */
+    public static ClashFilter of(int... shengXiaoZhi) {
+        int mask = 0;
+        for (int zhi : shengXiaoZhi) {
+            if (zhi < 0 || zhi >= 12) {
+                throw new IllegalArgumentException("invalid zhi: " + zhi);
+            }
+            mask |= 1 << zhi;
+        }
+        return mask == 0 ? NONE : new ClashFilter(mask);
+    }
+
+    /**
+     * 日干支为dayGanZhi的日子是否冲其中任何一人
+     */
+    public boolean clashes(int dayGanZhi) {
+        return (dayMask >>> dayGanZhi & 1L) != 0;
+    }
+
+    /** 是否不过滤任何日子 */
+    public boolean isEmpty() {
+        return zhiMask == 0;
+    }
+
+    /** 被冲地支掩码 */
+    public int getZhiMask() { return zhiMask; }
+
+    /**
+     * 对应的组合择日条件，可与其他 {@link DayQuery} 条件组合
+     */
+    public DayQuery toQuery() {
+        DayQuery query = DayQuery.all();
+        for (int zhi = 0; zhi < 12; zhi++) {
+            if ((zhiMask & (1 << zhi)) != 0) {
+                query = query.and(DayQuery.chong(zhi).not());
+            }
+        }
+        return query;
+    }
+
+    @Override
+    public String toString() {
+        if (zhiMask == 0) {
+            return "不避冲";
+        }
+        StringBuilder text = new StringBuilder("避冲");
+        for (int zhi = 0; zhi < 12; zhi++) {
+            if ((zhiMask & (1 << zhi)) != 0) {
+                text.append(text.length() > 2 ? "、属" : "属").append(GanZhi.shengXiao(zhi));
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,186 @@
+package com.trah.electronichuangli.almanac;
+
+/**
+ * 六十甲子周期上的"下一个符合条件的日子"查询工具类
+ * 日干、日支、日干支、日冲都以60天为周期，把"哪些日干支符合条件"表示成一个60位的位图，
+ * 把位图旋转到以起始日的干支为第0位，最低位的1就是距下一个符合日子的天数，一次位运算即得答案，与相隔多远无关
+ *
+ * 建除十二值还取决于月支（按节换月），按节令把时间切成段，每段内月支固定，
+ * 先把建除条件换成该段的日支位图再查；每段约30天，一般在当前段或下一段内即可找到
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class CycleQueries {
+
+    /** 查不到时的返回值（纪元日可以是负数，不能用-1） */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    /** 全部60个日干支 */
+    public static final long ALL_DAYS = (1L << 60) - 1;
+
+    /** 全部12个建除值 */
+    public static final int ALL_ZHI_XING = (1 << 12) - 1;
+
+    /** 每个地支对应的60位日干支位图 */
+    private static final long[] ZHI_MASKS = new long[12];
+
+    /** 每个天干对应的60位日干支位图 */
+    private static final long[] GAN_MASKS = new long[10];
+
+    static {
+        for (int i = 0; i < 60; i++) {
+            ZHI_MASKS[i % 12] |= 1L << i;
+            GAN_MASKS[i % 10] |= 1L << i;
+        }
+    }
+
+    private CycleQueries() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    // ==================== 日干支位图 ====================
+
+    /**
+     * 日干为指定天干的日子
+     * @param gan 天干索引（0-9）
+     */
+    public static long ganMask(int gan) {
+        return GAN_MASKS[gan];
+    }
+
+    /**
+     * 日支为指定地支的日子
+     * @param zhi 地支索引（0-11）
+     */
+    public static long zhiMask(int zhi) {
+        return ZHI_MASKS[zhi];
+    }
+
+    /**
+     * 日干支为指定值的日子
+     * @param ganZhi 六十甲子索引（0-59）
+     */
+    public static long ganZhiMask(int ganZhi) {
+        return 1L << ganZhi;
+    }
+
+    /**
+     * 冲指定地支（生肖）的日子
+     * @param zhi 被冲的地支索引（0-11）
+     */
+    public static long chongMask(int zhi) {
+        return ZHI_MASKS[(zhi + 6) % 12];
+    }
+
+    /**
+     * 不冲指定地支（生肖）的日子
+     * @param zhi 地支索引（0-11）
+     */
+    public static long notChongMask(int zhi) {
+        return ALL_DAYS & ~chongMask(zhi);
+    }
+
+    /**
+     * 建除十二值位图
+     * @param zhiXing 建除值索引，见 {@link GanZhiEngine#ZHI_XING}
+     */
+    public static int zhiXingMask(int... zhiXing) {
+        int mask = 0;
+        for (int value : zhiXing) {
+            mask |= 1 << value;
+        }
+        return mask;
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 从某天起（包含当天）第一个日干支落在位图中的日子
+     * @param fromDay 起始纪元日
+     * @param ganZhiMask 60位日干支位图
+     * @return 纪元日，位图为空时返回 {@link #NOT_FOUND}
+     */
+    public static int next(int fromDay, long ganZhiMask) {
+        int offset = offsetToNext(GanZhiEngine.dayGanZhi(fromDay), ganZhiMask & ALL_DAYS);
+        return offset < 0 ? NOT_FOUND : fromDay + offset;
+    }
+
+    /**
+     * 从某天起（包含当天）第一个同时满足日干支位图和建除位图的日子
+     * @param fromDay 起始纪元日
+     * @param ganZhiMask 60位日干支位图
+     * @param zhiXingMask 12位建除位图
+     * @return 纪元日，条件无法满足或超出节气表范围时返回 {@link #NOT_FOUND}
+     */
+    public static int next(int fromDay, long ganZhiMask, int zhiXingMask) {
+        ganZhiMask &= ALL_DAYS;
+        zhiXingMask &= ALL_ZHI_XING;
+        if (ganZhiMask == 0 || zhiXingMask == 0) {
+            return NOT_FOUND;
+        }
+        if (zhiXingMask == ALL_ZHI_XING) {
+            return next(fromDay, ganZhiMask);
+        }
+
+        int day = fromDay;
+        while (SolarTermTable.covers(day)) {
+            int monthZhi = GanZhi.zhi(SolarTermTable.monthGanZhiOf(day));
+            int segmentEnd = nextMonthStart(day);
+
+            // 本段内建除值为k的日子，日支为 (月支 + k) % 12
+            long allowed = 0;
+            for (int k = 0; k < 12; k++) {
+                if ((zhiXingMask & (1 << k)) != 0) {
+                    allowed |= ZHI_MASKS[(monthZhi + k) % 12];
+                }
+            }
+            int offset = offsetToNext(GanZhiEngine.dayGanZhi(day), ganZhiMask & allowed);
+            if (offset >= 0 && day + offset < segmentEnd) {
+                return day + offset;
+            }
+            day = segmentEnd;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * 从某天起（包含当天）第一个建除值为指定值的日子
+     * @param zhiXing 建除值索引，见 {@link GanZhiEngine#ZHI_XING}
+     */
+    public static int nextWithZhiXing(int fromDay, int zhiXing) {
+        return next(fromDay, ALL_DAYS, 1 << zhiXing);
+    }
+
+    /**
+     * 从某天起（包含当天）第一个不冲指定地支的日子
+     * @param zhi 地支索引（0-11），如生肖对应的地支
+     */
+    public static int nextNotChong(int fromDay, int zhi) {
+        return next(fromDay, notChongMask(zhi));
+    }
+
+    /**
+     * 把位图旋转到以current为第0位后，最低的1所在的位置
+     * @return 0-59，位图为空时返回-1
+     */
+    private static int offsetToNext(int current, long mask) {
+        if (mask == 0) {
+            return -1;
+        }
+        long rotated = current == 0 ? mask : ((mask >>> current) | (mask << (60 - current))) & ALL_DAYS;
+        return Long.numberOfTrailingZeros(rotated);
+    }
+
+    /**
+     * 某天之后第一个换月（节）的日子；节当天已换月，下一次换月是再下一个节
+     */
+    private static int nextMonthStart(int day) {
+        int jieDay = SolarTermTable.dayAt(SolarTermTable.nextJie(day));
+        if (jieDay > day) {
+            return jieDay;
+        }
+        int pos = SolarTermTable.nextJie(day + 1);
+        return pos >= 0 ? SolarTermTable.dayAt(pos) : Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,366 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.I18n;
+import com.nlf.calendar.JieQi;
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+import com.nlf.calendar.util.LunarUtil;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 单日黄历数据模型（不可变）
+ * 干支、冲煞用0-59/0-11的整数保存，方位用枚举表示，宜忌为字符串数组
+ * 由预计算日表解码的对象共享同一组宜忌数组，不会为每天重新分配
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class DayAlmanac {
+
+    private static final String[] EMPTY = new String[0];
+
+    // ==================== 公历 ====================
+    private final int epochDay;
+    private final int year;
+    private final int month;
+    private final int day;
+
+    // ==================== 农历 ====================
+    private final int lunarYear;
+    private final int lunarMonth;      // 闰月为负数
+    private final int lunarDay;
+    private final String lunarText;    // 如"二〇二四年正月初一"
+
+    // ==================== 干支 ====================
+    private final int yearGanZhi;      // 以春节为界
+    private final int monthGanZhi;     // 以节为界
+    private final int dayGanZhi;
+    private final int chongZhi;        // 日冲地支
+
+    // ==================== 其他文字 ====================
+    private final String star;         // 星座
+    private final String naYin;        // 年纳音
+    private final String prevJie;      // 上一节，可能为空字符串
+    private final String nextJie;      // 下一节，可能为空字符串
+    private final String jiRi;         // 吉日/节日，可能为空字符串
+
+    // ==================== 宜忌 ====================
+    private final String[] yi;
+    private final String[] ji;
+
+    /** 已填充的字段，见 {@link DayField}；未填充的文字字段为空字符串、数值字段为0 */
+    private final int fields;
+
+    DayAlmanac(int epochDay, int year, int month, int day,
+               int lunarYear, int lunarMonth, int lunarDay, String lunarText,
+               int yearGanZhi, int monthGanZhi, int dayGanZhi, int chongZhi,
+               String star, String naYin, String prevJie, String nextJie, String jiRi,
+               String[] yi, String[] ji) {
+        this(epochDay, year, month, day, lunarYear, lunarMonth, lunarDay, lunarText,
+             yearGanZhi, monthGanZhi, dayGanZhi, chongZhi,
+             star, naYin, prevJie, nextJie, jiRi, yi, ji, DayField.ALL);
+    }
+
+    DayAlmanac(int epochDay, int year, int month, int day,
+               int lunarYear, int lunarMonth, int lunarDay, String lunarText,
+               int yearGanZhi, int monthGanZhi, int dayGanZhi, int chongZhi,
+               String star, String naYin, String prevJie, String nextJie, String jiRi,
+               String[] yi, String[] ji, int fields) {
+        this.epochDay = epochDay;
+        this.year = year;
+        this.month = month;
+        this.day = day;
+        this.lunarYear = lunarYear;
+        this.lunarMonth = lunarMonth;
+        this.lunarDay = lunarDay;
+        this.lunarText = lunarText;
+        this.yearGanZhi = yearGanZhi;
+        this.monthGanZhi = monthGanZhi;
+        this.dayGanZhi = dayGanZhi;
+        this.chongZhi = chongZhi;
+        this.star = star;
+        this.naYin = naYin;
+        this.prevJie = prevJie;
+        this.nextJie = nextJie;
+        this.jiRi = jiRi;
+        this.yi = yi != null ? yi : EMPTY;
+        this.ji = ji != null ? ji : EMPTY;
+        this.fields = fields;
+    }
+
+    /**
+     * 使用6tail/lunar-java实时计算某一天的黄历
+     * @param year 公历年
+     * @param month 公历月（1-12）
+     * @param day 公历日
+     * @return 黄历数据
+     */
+    public static DayAlmanac compute(int year, int month, int day) {
+        Solar solar = new Solar(year, month, day);
+        Lunar lunar = solar.getLunar();
+        int epochDay = EpochDay.of(year, month, day);
+        int monthGanZhi = GanZhi.of(lunar.getMonthGanIndex(), lunar.getMonthZhiIndex());
+        int dayGanZhi = GanZhiEngine.dayGanZhi(epochDay);
+        // 宜忌取同一组合共享的数组，与日表和字段投影路径一致
+        int combo = YiJiTable.combo(monthGanZhi, dayGanZhi);
+        return new DayAlmanac(
+                epochDay, year, month, day,
+                lunar.getYear(), lunar.getMonth(), lunar.getDay(), lunar.toString(),
+                GanZhi.of(lunar.getYearGanIndex(), lunar.getYearZhiIndex()),
+                monthGanZhi, dayGanZhi,
+                GanZhiEngine.chongZhi(epochDay),
+                solar.getXingZuo(), lunar.getYearNaYin(),
+                prevJieOf(epochDay, lunar), nextJieOf(epochDay, lunar),
+                jiRiOf(lunar),
+                YiJiTable.yiWords(combo), YiJiTable.jiWords(combo));
+    }
+
+    /**
+     * 只计算指定字段的黄历
+     * 月首表、节气表范围内且不需要 {@link DayField#JI_RI} 时完全查表，不调用lunar库的农历换算；
+     * 否则退回 {@link #compute(int, int, int)} 计算全部字段
+     *
+     * @param fields 需要的字段，{@link DayField} 各位的组合
+     * @return 黄历数据，{@link #getFields()} 至少包含fields
+     */
+    public static DayAlmanac compute(int year, int month, int day, int fields) {
+        int epochDay = EpochDay.of(year, month, day);
+        int pos = LunarMonthTable.monthIndexOf(epochDay);
+        if ((fields & DayField.JI_RI) != 0 || pos < 0 || !SolarTermTable.covers(epochDay)) {
+            return compute(year, month, day);
+        }
+
+        int lunarYear = LunarMonthTable.yearAt(pos);
+        int yearGanZhi = Math.floorMod(lunarYear - 4, 60);
+        int monthGanZhi = SolarTermTable.monthGanZhiOf(epochDay);
+        int dayGanZhi = GanZhiEngine.dayGanZhi(epochDay);
+
+        int lunarMonth = 0;
+        int lunarDay = 0;
+        String lunarText = "";
+        if ((fields & DayField.LUNAR) != 0) {
+            lunarMonth = LunarMonthTable.monthAt(pos);
+            lunarDay = LunarMonthTable.lunarDayOf(epochDay, pos);
+            lunarText = LunarMonthTable.text(lunarYear, lunarMonth, lunarDay);
+        } else {
+            lunarYear = 0;
+        }
+
+        String star = (fields & DayField.STAR) != 0 ? new Solar(year, month, day).getXingZuo() : "";
+        String naYin = (fields & DayField.NA_YIN) != 0 ? naYinOf(yearGanZhi) : "";
+
+        String prevJie = "";
+        String nextJie = "";
+        if ((fields & DayField.JIE_QI) != 0) {
+            prevJie = SolarTermTable.nameAt(SolarTermTable.prevJie(epochDay));
+            nextJie = SolarTermTable.nameAt(SolarTermTable.nextJie(epochDay));
+        }
+
+        String[] yi = null;
+        String[] ji = null;
+        if ((fields & DayField.YI_JI) != 0) {
+            int combo = YiJiTable.combo(monthGanZhi, dayGanZhi);
+            yi = YiJiTable.yiWords(combo);
+            ji = YiJiTable.jiWords(combo);
+        }
+
+        return new DayAlmanac(epochDay, year, month, day,
+                lunarYear, lunarMonth, lunarDay, lunarText,
+                yearGanZhi, monthGanZhi, dayGanZhi, GanZhiEngine.chongZhiOf(dayGanZhi),
+                star, naYin, prevJie, nextJie, "", yi, ji, fields);
+    }
+
+    /** 年纳音，与lunar库 getYearNaYin() 一致 */
+    private static String naYinOf(int yearGanZhi) {
+        I18n.init();
+        return LunarUtil.NAYIN.get(GanZhi.text(yearGanZhi));
+    }
+
+    /** 上一节，节气表已加载且在范围内时直接查表，否则用已有的lunar对象，不为一天触发整表生成 */
+    static String prevJieOf(int epochDay, Lunar lunar) {
+        if (SolarTermTable.isLoaded() && SolarTermTable.covers(epochDay)) {
+            return SolarTermTable.nameAt(SolarTermTable.prevJie(epochDay));
+        }
+        return nameOf(lunar.getPrevJie());
+    }
+
+    /** 下一节，同 {@link #prevJieOf} */
+    static String nextJieOf(int epochDay, Lunar lunar) {
+        if (SolarTermTable.isLoaded() && SolarTermTable.covers(epochDay)) {
+            return SolarTermTable.nameAt(SolarTermTable.nextJie(epochDay));
+        }
+        return nameOf(lunar.getNextJie());
+    }
+
+    private static String nameOf(JieQi jieQi) {
+        return jieQi != null ? jieQi.getName() : "";
+    }
+
+    /**
+     * 吉日/节日文字：优先显示节日，没有节日时按宜事多少给出吉日提示
+     * @param lunar 农历对象
+     * @return 吉日文字，可能为空字符串
+     */
+    static String jiRiOf(Lunar lunar) {
+        List<String> festivals = lunar.getFestivals();
+        List<String> otherFestivals = lunar.getOtherFestivals();
+
+        StringBuilder jiri = new StringBuilder();
+
+        if (!festivals.isEmpty()) {
+            jiri.append(String.join(" ", festivals));
+        }
+
+        if (!otherFestivals.isEmpty()) {
+            if (jiri.length() > 0) jiri.append(" ");
+            jiri.append(String.join(" ", otherFestivals));
+        }
+
+        // 如果没有特殊节日，检查是否是吉日
+        if (jiri.length() == 0) {
+            List<String> yi = lunar.getDayYi();
+            if (yi.size() >= 6) { // 宜事较多的日子认为是吉日
+                jiri.append("诸事皆宜");
+            } else if (yi.contains("嫁娶") || yi.contains("开市") || yi.contains("出行")) {
+                jiri.append("黄道吉日");
+            }
+        }
+
+        return jiri.toString();
+    }
+
+    // ==================== Getter 方法 ====================
+
+    public int getFields() { return fields; }
+    public boolean hasFields(int required) { return DayField.containsAll(fields, required); }
+
+    public int getEpochDay() { return epochDay; }
+    public int getYear() { return year; }
+    public int getMonth() { return month; }
+    public int getDay() { return day; }
+
+    public int getLunarYear() { return lunarYear; }
+    public int getLunarMonth() { return lunarMonth; }
+    public int getLunarDay() { return lunarDay; }
+    public String getLunarText() { return lunarText; }
+
+    public int getYearGanZhi() { return yearGanZhi; }
+    public int getMonthGanZhi() { return monthGanZhi; }
+    public int getDayGanZhi() { return dayGanZhi; }
+    public int getChongZhi() { return chongZhi; }
+
+    public String getStar() { return star; }
+    public String getNaYin() { return naYin; }
+    public String getPrevJie() { return prevJie; }
+    public String getNextJie() { return nextJie; }
+    public String getJiRi() { return jiRi; }
+
+    /** 宜忌组合编号，用于 {@link YiJiTable} 位图查询 */
+    public int getYiJiCombo() { return YiJiTable.combo(monthGanZhi, dayGanZhi); }
+
+    /** 宜（只读视图） */
+    public List<String> getYi() { return Collections.unmodifiableList(Arrays.asList(yi)); }
+
+    /** 忌（只读视图） */
+    public List<String> getJi() { return Collections.unmodifiableList(Arrays.asList(ji)); }
+
+    // ==================== 派生信息 ====================
+
+    /** 公历日期文字，如"2024年2月10日" */
+    public String getSolarText() {
+        return year + "年" + month + "月" + day + "日";
+    }
+
+    /** 年生肖（以春节为界） */
+    public String getShengXiao() {
+        return GanZhi.shengXiao(GanZhi.zhi(yearGanZhi));
+    }
+
+    /** 日冲生肖 */
+    public String getChongShengXiao() {
+        return GanZhi.shengXiao(chongZhi);
+    }
+
+    /** 年月日干支文字，如"甲辰年 丙寅月 甲辰日" */
+    public String getGanZhiText() {
+        return GanZhi.text(yearGanZhi) + "年 "
+                + GanZhi.text(monthGanZhi) + "月 "
+                + GanZhi.text(dayGanZhi) + "日";
+    }
+
+    /** 今日五行（取日支） */
+    public String getWuXing() {
+        return GanZhi.ZHI[GanZhi.zhi(dayGanZhi)];
+    }
+
+    /** 财神方位 */
+    public Direction getCaiShen() {
+        return Direction.caiShenOf(GanZhi.gan(dayGanZhi));
+    }
+
+    /** 喜神方位 */
+    public Direction getXiShen() {
+        return Direction.xiShenOf(GanZhi.gan(dayGanZhi));
+    }
+
+    /** 福神方位 */
+    public Direction getFuShen() {
+        return Direction.fuShenOf(GanZhi.gan(dayGanZhi));
+    }
+
+    /** 日煞方位 */
+    public Direction getSha() {
+        return GanZhiEngine.sha(epochDay);
+    }
+
+    /** 建除十二值，如"建" */
+    public String getZhiXing() {
+        return GanZhiEngine.zhiXingText(monthGanZhi, dayGanZhi);
+    }
+
+    /** 冲煞说明（白话文） */
+    public String getChongDesc() {
+        return "今日冲" + GanZhi.ZHI[chongZhi] + "，属" + getChongShengXiao() + "的人今天不宜办重要事情";
+    }
+
+    /** 岁煞说明（白话文） */
+    public String getSuiShaDesc() {
+        return "岁煞方位不利，属" + getChongShengXiao() + "的人避免朝冲煞方向做事";
+    }
+
+    /** 节气说明，如"上节气：立春 | 下节气：惊蛰"，没有节气时为空字符串 */
+    public String getJieQiText() {
+        if (!prevJie.isEmpty() && !nextJie.isEmpty()) {
+            return "上节气：" + prevJie + " | 下节气：" + nextJie;
+        } else if (!prevJie.isEmpty()) {
+            return "节气：" + prevJie;
+        } else if (!nextJie.isEmpty()) {
+            return "下节气：" + nextJie;
+        }
+        return "";
+    }
+
+    /**
+     * 用分隔符连接宜事
+     * @param separator 分隔符
+     */
+    public String joinYi(String separator) {
+        return String.join(separator, yi);
+    }
+
+    /**
+     * 用分隔符连接忌事
+     * @param separator 分隔符
+     */
+    public String joinJi(String separator) {
+        return String.join(separator, ji);
+    }
+
+    @Override
+    public String toString() {
+        return getSolarText() + " " + lunarText;
+    }
+}
@@ -0,0 +1,170 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.Holiday;
+import com.nlf.calendar.util.HolidayUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 日期属性矩阵
+ * 对[startDay, endDay]内的每一天，每种属性占一列位图，第i位表示 startDay + i 这一天是否具有该属性，
+ * {@link DayQuery} 的条件按64天一个long做与、或、非运算
+ *
+ * 构建时只保存每天的宜忌组合编号，并直接生成周末、法定节假日和12个日冲地支列；
+ * "宜X""忌X"列在第一次被查询时按组合编号生成并缓存，之后直接复用
+ *
+ * 构建完成后只读（关键词列缓存是线程安全的），可在多线程下使用
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class DayAttributeMatrix {
+
+    private final int startDay;
+    private final int dayCount;
+    private final int wordCount;
+
+    /** 每天的宜忌组合编号 */
+    private final short[] combos;
+
+    private final long[] weekend;
+    private final long[] holiday;
+
+    /** 按被冲地支索引的日冲列 */
+    private final long[][] chong;
+
+    /** "yi:关键词"/"ji:关键词" → 位图列 */
+    private final Map<String, long[]> keywordColumns = new ConcurrentHashMap<>();
+
+    private DayAttributeMatrix(int startDay, int dayCount, short[] combos,
+                               long[] weekend, long[] holiday, long[][] chong) {
+        this.startDay = startDay;
+        this.dayCount = dayCount;
+        this.wordCount = (dayCount + 63) >>> 6;
+        this.combos = combos;
+        this.weekend = weekend;
+        this.holiday = holiday;
+        this.chong = chong;
+    }
+
+    /**
+     * 构建[startDay, endDay]的属性矩阵
+     * @param startDay 起始纪元日（包含）
+     * @param endDay 结束纪元日（包含），整个区间必须在节气表范围内
+     */
+    public static DayAttributeMatrix build(int startDay, int endDay) {
+        if (endDay < startDay || !SolarTermTable.covers(startDay) || !SolarTermTable.covers(endDay)) {
+            throw new IllegalArgumentException("range not covered: " + startDay + ".." + endDay);
+        }
+        int dayCount = endDay - startDay + 1;
+        int words = (dayCount + 63) >>> 6;
+        short[] combos = new short[dayCount];
+        long[] weekend = new long[words];
+        long[][] chong = new long[12][words];
+
+        for (int i = 0; i < dayCount; i++) {
+            int day = startDay + i;
+            int dayGanZhi = GanZhiEngine.dayGanZhi(day);
+            combos[i] = (short) YiJiTable.combo(SolarTermTable.monthGanZhiOf(day), dayGanZhi);
+            long bit = 1L << i;
+            // 1970-01-01是星期四，(day + 3) % 7 为0-6对应周一到周日
+            if (Math.floorMod(day + 3, 7) >= 5) {
+                weekend[i >>> 6] |= bit;
+            }
+            chong[GanZhiEngine.chongZhiOf(dayGanZhi)][i >>> 6] |= bit;
+        }
+
+        long[] holiday = new long[words];
+        for (int year = EpochDay.year(startDay); year <= EpochDay.year(endDay); year++) {
+            for (Holiday item : HolidayUtil.getHolidays(year)) {
+                if (item.isWork()) {
+                    continue;
+                }
+                // 日期格式为 yyyy-MM-dd
+                String text = item.getDay();
+                int day = EpochDay.of(Integer.parseInt(text.substring(0, 4)),
+                        Integer.parseInt(text.substring(5, 7)), Integer.parseInt(text.substring(8, 10)));
+                if (day >= startDay && day <= endDay) {
+                    holiday[(day - startDay) >>> 6] |= 1L << (day - startDay);
+                }
+            }
+        }
+        return new DayAttributeMatrix(startDay, dayCount, combos, weekend, holiday, chong);
+    }
+
+    // ==================== 范围 ====================
+
+    /** 第一天的纪元日 */
+    public int getStartDay() { return startDay; }
+
+    /** 最后一天的纪元日（包含） */
+    public int getEndDay() { return startDay + dayCount - 1; }
+
+    /** 每列位图的long个数 */
+    public int getWordCount() { return wordCount; }
+
+    /**
+     * 矩阵是否覆盖指定纪元日
+     */
+    public boolean covers(int epochDay) {
+        return epochDay >= startDay && epochDay - startDay < dayCount;
+    }
+
+    /**
+     * 某天的宜忌组合编号
+     * @param epochDay 纪元日，必须在矩阵范围内
+     */
+    int comboAt(int epochDay) {
+        return combos[epochDay - startDay];
+    }
+
+    // ==================== 属性列（共享数组，调用方不得修改） ====================
+
+    /** 周六、周日 */
+    long[] weekendColumn() {
+        return weekend;
+    }
+
+    /** 法定节假日（不含调休上班日） */
+    long[] holidayColumn() {
+        return holiday;
+    }
+
+    /**
+     * 冲指定地支的日子
+     * @param zhi 被冲的地支索引（0-11）
+     */
+    long[] chongColumn(int zhi) {
+        return chong[zhi];
+    }
+
+    /**
+     * 宜事中有包含关键词的日子
+     */
+    long[] yiColumn(String keyword) {
+        return keywordColumns.computeIfAbsent("yi:" + keyword, key -> buildColumn(keyword, true));
+    }
+
+    /**
+     * 忌事中有包含关键词的日子
+     */
+    long[] jiColumn(String keyword) {
+        return keywordColumns.computeIfAbsent("ji:" + keyword, key -> buildColumn(keyword, false));
+    }
+
+    private long[] buildColumn(String keyword, boolean yi) {
+        long[] mask = YiJiTable.maskContaining(keyword);
+        boolean[] hit = new boolean[YiJiTable.COMBOS];
+        for (int combo = 0; combo < YiJiTable.COMBOS; combo++) {
+            hit[combo] = yi ? YiJiTable.yiIntersects(combo, mask) : YiJiTable.jiIntersects(combo, mask);
+        }
+        long[] column = new long[wordCount];
+        for (int i = 0; i < dayCount; i++) {
+            if (hit[combos[i]]) {
+                column[i >>> 6] |= 1L << i;
+            }
+        }
+        return column;
+    }
+}
@@ -0,0 +1,227 @@
+package com.trah.electronichuangli.almanac;
+
+import java.util.Arrays;
+
+/**
+ * 有界LRU单日黄历缓存
+ * 以纪元日int为键，开放寻址哈希表定位，双向链表（用int数组实现）维护最近使用顺序，
+ * 查找和插入都不创建装箱对象；容量满时淘汰最久未使用的一天
+ * 所有方法都是同步的，可以在多个线程间共享
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class DayCache {
+
+    private static final int NONE = -1;
+
+    private final int capacity;
+
+    // 条目存储，下标即条目编号
+    private final int[] keys;
+    private final DayAlmanac[] values;
+    private final int[] prev;
+    private final int[] next;
+    private int head = NONE;    // 最近使用
+    private int tail = NONE;    // 最久未使用
+    private int size;
+
+    // 哈希槽，保存条目编号+1，0表示空槽
+    private final int[] slots;
+    private final int mask;
+
+    // 统计
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param capacity 最多缓存的天数，必须大于0
+     */
+    public DayCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.keys = new int[capacity];
+        this.values = new DayAlmanac[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+
+        // 槽数取不小于2倍容量的2的幂，负载因子不超过0.5
+        int slotCount = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.slots = new int[slotCount];
+        this.mask = slotCount - 1;
+    }
+
+    // ==================== 读写 ====================
+
+    /**
+     * 查找缓存，命中时把该天标记为最近使用
+     * @param epochDay 纪元日
+     * @return 缓存的黄历，未命中返回null
+     */
+    public synchronized DayAlmanac get(int epochDay) {
+        int slot = find(epochDay);
+        if (slot < 0) {
+            misses++;
+            return null;
+        }
+        hits++;
+        int entry = slots[slot] - 1;
+        moveToHead(entry);
+        return values[entry];
+    }
+
+    /**
+     * 查找缓存但不改变最近使用顺序，也不计入命中统计，用于保存快照等后台读取
+     * @param epochDay 纪元日
+     * @return 缓存的黄历，未命中返回null
+     */
+    public synchronized DayAlmanac peek(int epochDay) {
+        int slot = find(epochDay);
+        return slot < 0 ? null : values[slots[slot] - 1];
+    }
+
+    /**
+     * 写入缓存，已存在时覆盖；缓存已满时淘汰最久未使用的一天
+     * @param epochDay 纪元日
+     * @param almanac 黄历数据，不能为null
+     */
+    public synchronized void put(int epochDay, DayAlmanac almanac) {
+        int slot = find(epochDay);
+        if (slot >= 0) {
+            int entry = slots[slot] - 1;
+            values[entry] = almanac;
+            moveToHead(entry);
+            return;
+        }
+
+        int entry;
+        if (size < capacity) {
+            entry = size++;
+        } else {
+            entry = tail;
+            unlink(entry);
+            removeSlot(find(keys[entry]));
+            evictions++;
+        }
+        keys[entry] = epochDay;
+        values[entry] = almanac;
+        linkHead(entry);
+        slots[emptySlotFor(epochDay)] = entry + 1;
+    }
+
+    /**
+     * 当前缓存的全部黄历，按最近使用在前的顺序，用于保存快照
+     */
+    public synchronized DayAlmanac[] snapshot() {
+        DayAlmanac[] result = new DayAlmanac[size];
+        int i = 0;
+        for (int entry = head; entry != NONE; entry = next[entry]) {
+            result[i++] = values[entry];
+        }
+        return result;
+    }
+
+    /**
+     * 清空缓存，统计数据保留
+     */
+    public synchronized void clear() {
+        Arrays.fill(slots, 0);
+        Arrays.fill(values, null);
+        head = NONE;
+        tail = NONE;
+        size = 0;
+    }
+
+    // ==================== 统计 ====================
+
+    public synchronized int size() { return size; }
+    public int getCapacity() { return capacity; }
+    public synchronized long getHitCount() { return hits; }
+    public synchronized long getMissCount() { return misses; }
+    public synchronized long getEvictionCount() { return evictions; }
+
+    /** 命中率（0-1），还没有查询时为0 */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DayCache{size=" + size + "/" + capacity
+                + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+    }
+
+    // ==================== 哈希表 ====================
+
+    private int home(int key) {
+        return (key * 0x9E3779B9) >>> 7 & mask;
+    }
+
+    /** 查找键所在的槽，不存在返回-1 */
+    private int find(int key) {
+        for (int slot = home(key); ; slot = (slot + 1) & mask) {
+            int stored = slots[slot];
+            if (stored == 0) {
+                return -1;
+            }
+            if (keys[stored - 1] == key) {
+                return slot;
+            }
+        }
+    }
+
+    private int emptySlotFor(int key) {
+        int slot = home(key);
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /** 线性探测的删除：把后面同一探测链上的条目向前移，不留墓碑 */
+    private void removeSlot(int slot) {
+        int hole = slot;
+        for (int cur = (slot + 1) & mask; slots[cur] != 0; cur = (cur + 1) & mask) {
+            int want = home(keys[slots[cur] - 1]);
+            // want不在(hole, cur]这段环形区间内时，cur可以移到hole
+            boolean movable = hole <= cur ? (want <= hole || want > cur) : (want <= hole && want > cur);
+            if (movable) {
+                slots[hole] = slots[cur];
+                hole = cur;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    // ==================== LRU链表 ====================
+
+    private void linkHead(int entry) {
+        prev[entry] = NONE;
+        next[entry] = head;
+        if (head != NONE) {
+            prev[head] = entry;
+        }
+        head = entry;
+        if (tail == NONE) {
+            tail = entry;
+        }
+    }
+
+    private void unlink(int entry) {
+        int p = prev[entry];
+        int n = next[entry];
+        if (p != NONE) next[p] = n; else head = n;
+        if (n != NONE) prev[n] = p; else tail = p;
+    }
+
+    private void moveToHead(int entry) {
+        if (entry != head) {
+            unlink(entry);
+            linkHead(entry);
+        }
+    }
+}
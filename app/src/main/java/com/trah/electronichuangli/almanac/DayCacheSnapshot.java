@@ -0,0 +1,252 @@
+package com.trah.electronichuangli.almanac;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 单日黄历缓存的磁盘快照
+ * 把 {@link DayCache} 中的完整黄历写成一个小的二进制文件，下次启动时用NIO一次读入，
+ * 今天和前后几周的数据在lunar库加载之前就可以直接显示
+ *
+ * 文件布局（大端序）：
+ * 魔数 → 格式版本 → 应用版本 → 数据版本 → 文本池 → 条目 → 前面所有字节的CRC32
+ * 应用版本或数据版本（数据包校验和）与当前不一致时快照作废，读取时返回空列表
+ * 写入时先写临时文件再重命名，读取方不会看到写了一半的文件
+ *
+ * 只依赖JDK，不会触发lunar库的类加载
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class DayCacheSnapshot {
+
+    /** 文件魔数 "HLDC" */
+    static final int MAGIC = 0x484C4443;
+
+    /** 文件格式版本，条目布局变化时递增 */
+    static final int FORMAT_VERSION = 1;
+
+    /** 快照文件大小上限，超过视为损坏 */
+    private static final long MAX_FILE_SIZE = 1 << 20;
+
+    private DayCacheSnapshot() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 写出快照，只保存字段完整的黄历
+     * @param file 快照文件
+     * @param appVersion 应用版本号
+     * @param dataVersion 数据版本（数据包校验和）
+     * @param days 要保存的黄历，按读回后希望的使用顺序排列（最近使用在前）
+     * @throws IOException 写入失败
+     */
+    public static void write(File file, long appVersion, long dataVersion,
+                             List<DayAlmanac> days) throws IOException {
+        Map<String, Integer> pool = new LinkedHashMap<>();
+        ByteArrayOutputStream entryBytes = new ByteArrayOutputStream(days.size() * 64);
+        int count = 0;
+        try (DataOutputStream out = new DataOutputStream(entryBytes)) {
+            for (DayAlmanac day : days) {
+                if (day == null || day.getFields() != DayField.ALL) {
+                    continue;
+                }
+                writeEntry(out, day, pool);
+                count++;
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(entryBytes.size() + 4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(appVersion);
+            out.writeLong(dataVersion);
+            out.writeInt(pool.size());
+            for (String text : pool.keySet()) {
+                byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(encoded.length);
+                out.write(encoded);
+            }
+            out.writeInt(count);
+            entryBytes.writeTo(out);
+        }
+        byte[] content = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(content);
+            out.write(ByteBuffer.allocate(8).putLong(crc.getValue()).array());
+            out.getFD().sync();
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("无法写入缓存快照: " + file);
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, DayAlmanac day,
+                                   Map<String, Integer> pool) throws IOException {
+        out.writeInt(day.getEpochDay());
+        out.writeShort(day.getLunarYear());
+        out.writeByte(day.getLunarMonth());
+        out.writeByte(day.getLunarDay());
+        out.writeByte(day.getYearGanZhi());
+        out.writeByte(day.getMonthGanZhi());
+        out.writeByte(day.getDayGanZhi());
+        out.writeByte(day.getChongZhi());
+        out.writeShort(idOf(pool, day.getLunarText()));
+        out.writeShort(idOf(pool, day.getStar()));
+        out.writeShort(idOf(pool, day.getNaYin()));
+        out.writeShort(idOf(pool, day.getPrevJie()));
+        out.writeShort(idOf(pool, day.getNextJie()));
+        out.writeShort(idOf(pool, day.getJiRi()));
+        writeWords(out, day.getYi(), pool);
+        writeWords(out, day.getJi(), pool);
+    }
+
+    private static void writeWords(DataOutputStream out, List<String> words,
+                                   Map<String, Integer> pool) throws IOException {
+        out.writeByte(words.size());
+        for (String word : words) {
+            out.writeShort(idOf(pool, word));
+        }
+    }
+
+    private static int idOf(Map<String, Integer> pool, String text) {
+        Integer id = pool.get(text);
+        if (id == null) {
+            id = pool.size();
+            if (id > 0xFFFF) {
+                throw new IllegalStateException("string pool overflow");
+            }
+            pool.put(text, id);
+        }
+        return id;
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 读取快照
+     * 文件不存在时返回空列表；版本不符或文件损坏时删除文件并返回空列表
+     * @param file 快照文件
+     * @param appVersion 当前应用版本号
+     * @param dataVersion 当前数据版本
+     * @return 快照中的黄历，顺序与写入时相同
+     */
+    public static List<DayAlmanac> read(File file, long appVersion, long dataVersion) {
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+        try {
+            ByteBuffer buffer = load(file);
+            List<DayAlmanac> days = parse(buffer, appVersion, dataVersion);
+            if (days == null) {
+                file.delete();
+                return new ArrayList<>();
+            }
+            return days;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            file.delete();
+            return new ArrayList<>();
+        }
+    }
+
+    /** 整个文件读入堆内缓冲区，并核对末尾的CRC32 */
+    private static ByteBuffer load(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file);
+             FileChannel channel = in.getChannel()) {
+            long size = channel.size();
+            if (size < 8 || size > MAX_FILE_SIZE) {
+                throw new IOException("unexpected snapshot size " + size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 读满为止
+            }
+            buffer.flip();
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, (int) size - 8);
+            if (buffer.getLong((int) size - 8) != crc.getValue()) {
+                throw new IOException("snapshot checksum mismatch");
+            }
+            buffer.limit((int) size - 8);
+            return buffer;
+        }
+    }
+
+    /** 解析快照，版本不符时返回null */
+    private static List<DayAlmanac> parse(ByteBuffer buffer, long appVersion, long dataVersion) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("not a day cache snapshot");
+        }
+        if (buffer.getInt() != FORMAT_VERSION || buffer.getLong() != appVersion
+                || buffer.getLong() != dataVersion) {
+            return null;
+        }
+
+        String[] pool = new String[buffer.getInt()];
+        for (int i = 0; i < pool.length; i++) {
+            byte[] encoded = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(encoded);
+            pool[i] = new String(encoded, StandardCharsets.UTF_8);
+        }
+
+        int count = buffer.getInt();
+        List<DayAlmanac> days = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int epochDay = buffer.getInt();
+            int lunarYear = buffer.getShort();
+            int lunarMonth = buffer.get();
+            int lunarDay = buffer.get();
+            int yearGanZhi = buffer.get();
+            int monthGanZhi = buffer.get();
+            int dayGanZhi = buffer.get();
+            int chongZhi = buffer.get();
+            String lunarText = pool[buffer.getShort() & 0xFFFF];
+            String star = pool[buffer.getShort() & 0xFFFF];
+            String naYin = pool[buffer.getShort() & 0xFFFF];
+            String prevJie = pool[buffer.getShort() & 0xFFFF];
+            String nextJie = pool[buffer.getShort() & 0xFFFF];
+            String jiRi = pool[buffer.getShort() & 0xFFFF];
+            String[] yi = readWords(buffer, pool);
+            String[] ji = readWords(buffer, pool);
+
+            int ymd = EpochDay.toYmd(epochDay);
+            days.add(new DayAlmanac(epochDay, ymd / 10000, ymd / 100 % 100, ymd % 100,
+                    lunarYear, lunarMonth, lunarDay, lunarText,
+                    yearGanZhi, monthGanZhi, dayGanZhi, chongZhi,
+                    star, naYin, prevJie, nextJie, jiRi, yi, ji));
+        }
+        return days;
+    }
+
+    private static String[] readWords(ByteBuffer buffer, String[] pool) {
+        String[] words = new String[buffer.get() & 0xFF];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = pool[buffer.getShort() & 0xFFFF];
+        }
+        return words;
+    }
+}
@@ -0,0 +1,257 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.JieQi;
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.LunarMonth;
+import com.nlf.calendar.Solar;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * 按天递进的日期区间游标
+ * 日干支、日冲、农历日在相邻两天之间只是简单加一，游标直接递推这些整数；
+ * 只有遇到农历月末（含春节换年）或节令交接（节当天及其次日）时，才完整换算一次
+ * 完整换算在 {@link LunarMonthTable} 和 {@link SolarTermTable} 范围内只是查表，超出范围时才调用lunar库
+ * 因此扫描一整年只需要几十次查表，逐日递推本身不创建任何对象
+ *
+ * 用法：
+ * <pre>
+ * for (DayCursor c = new DayCursor(from, to); c.hasCurrent(); c.next()) {
+ *     int combo = c.getYiJiCombo();
+ * }
+ * </pre>
+ * 同时实现 {@link Spliterator}，可按区间对半拆分后并行处理，完整的单日数据由 {@link #current()} 按需加载
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class DayCursor implements Spliterator<DayAlmanac> {
+
+    private final int endDay;
+    private final IntFunction<DayAlmanac> loader;
+
+    // ==================== 当前日期状态 ====================
+    private int epochDay;
+    private int lunarYear;
+    private int lunarMonth;         // 闰月为负数
+    private int lunarDay;
+    private int yearGanZhi;
+    private int monthGanZhi;
+    private int dayGanZhi;
+    private String prevJie;
+    private String nextJie;
+
+    /** 下一次需要完整换算的纪元日（农历月首或节令交接） */
+    private int reseedDay;
+
+    /** 完整换算次数，用于统计 */
+    private int reseedCount;
+
+    /**
+     * 使用实时计算加载单日数据的游标
+     * @param fromDay 起始纪元日（包含）
+     * @param toDay 结束纪元日（包含）
+     */
+    public DayCursor(int fromDay, int toDay) {
+        this(fromDay, toDay, DayCursor::computeDay);
+    }
+
+    /**
+     * @param fromDay 起始纪元日（包含）
+     * @param toDay 结束纪元日（包含）
+     * @param loader 加载完整单日数据的方法，如从预计算日表或缓存读取
+     */
+    public DayCursor(int fromDay, int toDay, IntFunction<DayAlmanac> loader) {
+        this.endDay = toDay;
+        this.loader = loader;
+        this.epochDay = fromDay;
+        if (fromDay <= toDay) {
+            seed(fromDay);
+        }
+    }
+
+    /** 复制另一个游标的当前状态，区间截止到toDay */
+    private DayCursor(DayCursor source, int toDay) {
+        this.endDay = toDay;
+        this.loader = source.loader;
+        this.epochDay = source.epochDay;
+        this.lunarYear = source.lunarYear;
+        this.lunarMonth = source.lunarMonth;
+        this.lunarDay = source.lunarDay;
+        this.yearGanZhi = source.yearGanZhi;
+        this.monthGanZhi = source.monthGanZhi;
+        this.dayGanZhi = source.dayGanZhi;
+        this.prevJie = source.prevJie;
+        this.nextJie = source.nextJie;
+        this.reseedDay = source.reseedDay;
+    }
+
+    private static DayAlmanac computeDay(int epochDay) {
+        int ymd = EpochDay.toYmd(epochDay);
+        return DayAlmanac.compute(ymd / 10000, ymd / 100 % 100, ymd % 100);
+    }
+
+    // ==================== 游标移动 ====================
+
+    /**
+     * 当前位置是否仍在区间内
+     */
+    public boolean hasCurrent() {
+        return epochDay <= endDay;
+    }
+
+    /**
+     * 前进一天
+     */
+    public void next() {
+        int day = epochDay + 1;
+        if (day > endDay) {
+            epochDay = day;
+            return;
+        }
+        if (day >= reseedDay) {
+            seed(day);
+            return;
+        }
+        epochDay = day;
+        lunarDay++;
+        dayGanZhi = dayGanZhi == 59 ? 0 : dayGanZhi + 1;
+    }
+
+    /** 完整换算一天，并算出下一次需要换算的日期；月首表和节气表范围内不调用lunar库 */
+    private void seed(int day) {
+        epochDay = day;
+        int monthDays;
+        int pos = LunarMonthTable.monthIndexOf(day);
+        if (pos >= 0 && SolarTermTable.covers(day)) {
+            lunarYear = LunarMonthTable.yearAt(pos);
+            lunarMonth = LunarMonthTable.monthAt(pos);
+            lunarDay = LunarMonthTable.lunarDayOf(day, pos);
+            yearGanZhi = Math.floorMod(lunarYear - 4, 60);
+            monthGanZhi = SolarTermTable.monthGanZhiOf(day);
+            prevJie = SolarTermTable.nameAt(SolarTermTable.prevJie(day));
+            nextJie = SolarTermTable.nameAt(SolarTermTable.nextJie(day));
+            monthDays = LunarMonthTable.dayCountAt(pos);
+        } else {
+            int ymd = EpochDay.toYmd(day);
+            Lunar lunar = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100).getLunar();
+            lunarYear = lunar.getYear();
+            lunarMonth = lunar.getMonth();
+            lunarDay = lunar.getDay();
+            yearGanZhi = GanZhi.of(lunar.getYearGanIndex(), lunar.getYearZhiIndex());
+            monthGanZhi = GanZhi.of(lunar.getMonthGanIndex(), lunar.getMonthZhiIndex());
+            prevJie = DayAlmanac.prevJieOf(day, lunar);
+            nextJie = DayAlmanac.nextJieOf(day, lunar);
+            monthDays = LunarMonth.fromYm(lunarYear, lunarMonth).getDayCount();
+        }
+        dayGanZhi = GanZhiEngine.dayGanZhi(day);
+
+        // 农历月末的次日要换月（可能还要换年）
+        int nextMonthDay = day + (monthDays - lunarDay) + 1;
+
+        // 节当天下一节就是今天，次日上一节/下一节都会变；否则到下一个节当天月干支和节令才变
+        int nextJieDay = nextJieDay(day);
+        int jieBoundary = nextJieDay == day ? day + 1 : nextJieDay;
+
+        reseedDay = Math.min(nextMonthDay, jieBoundary);
+        reseedCount++;
+    }
+
+    private static int nextJieDay(int day) {
+        if (SolarTermTable.covers(day)) {
+            return SolarTermTable.dayAt(SolarTermTable.nextJie(day));
+        }
+        int ymd = EpochDay.toYmd(day);
+        JieQi next = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100).getLunar().getNextJie();
+        if (next == null) {
+            return Integer.MAX_VALUE;
+        }
+        Solar solar = next.getSolar();
+        return EpochDay.of(solar.getYear(), solar.getMonth(), solar.getDay());
+    }
+
+    // ==================== 当前日期字段 ====================
+
+    public int getEpochDay() { return epochDay; }
+    public int getLunarYear() { return lunarYear; }
+    public int getLunarMonth() { return lunarMonth; }
+    public int getLunarDay() { return lunarDay; }
+    public int getYearGanZhi() { return yearGanZhi; }
+    public int getMonthGanZhi() { return monthGanZhi; }
+    public int getDayGanZhi() { return dayGanZhi; }
+    public String getPrevJie() { return prevJie; }
+    public String getNextJie() { return nextJie; }
+
+    /** 日冲地支 */
+    public int getChongZhi() {
+        return GanZhiEngine.chongZhiOf(dayGanZhi);
+    }
+
+    /** 建除十二值索引，见 {@link GanZhiEngine#ZHI_XING} */
+    public int getZhiXing() {
+        return GanZhiEngine.zhiXing(monthGanZhi, dayGanZhi);
+    }
+
+    /** 宜忌组合编号，见 {@link YiJiTable#combo} */
+    public int getYiJiCombo() {
+        return YiJiTable.combo(monthGanZhi, dayGanZhi);
+    }
+
+    /** 到目前为止调用lunar库完整换算的次数 */
+    public int getReseedCount() {
+        return reseedCount;
+    }
+
+    /**
+     * 加载当前日期的完整黄历
+     */
+    public DayAlmanac current() {
+        return loader.apply(epochDay);
+    }
+
+    // ==================== Spliterator ====================
+
+    @Override
+    public boolean tryAdvance(Consumer<? super DayAlmanac> action) {
+        if (!hasCurrent()) {
+            return false;
+        }
+        action.accept(current());
+        next();
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super DayAlmanac> action) {
+        for (; hasCurrent(); next()) {
+            action.accept(current());
+        }
+    }
+
+    /**
+     * 对半拆分：前半段交给新游标（复制当前状态，不需要重新换算），当前游标跳到后半段起点
+     */
+    @Override
+    public Spliterator<DayAlmanac> trySplit() {
+        int remaining = endDay - epochDay + 1;
+        if (remaining < 2) {
+            return null;
+        }
+        int mid = epochDay + remaining / 2;
+        DayCursor prefix = new DayCursor(this, mid - 1);
+        seed(mid);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Math.max(0, endDay - epochDay + 1);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+    }
+}
@@ -0,0 +1,68 @@
+package com.trah.electronichuangli.almanac;
+
+/**
+ * 黄历字段投影位
+ * 调用方用这些位的组合声明自己要读取哪些字段，{@link DayAlmanac#compute(int, int, int, int)} 只计算这些字段
+ * 公历日期、干支、日冲和由日干推出的方位几乎没有计算量，总是会填充，不单独设位
+ *
+ * 各字段的代价（月首表、节气表范围内）：
+ * LUNAR、JIE_QI 为一次二分查找，YI_JI 为按组合编号取数组，STAR、NA_YIN 为查表；
+ * 只有 JI_RI（节日）需要完整的lunar库农历换算
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class DayField {
+
+    /** 农历年月日和农历日期文字 */
+    public static final int LUNAR = 1;
+
+    /** 星座 */
+    public static final int STAR = 1 << 1;
+
+    /** 年纳音 */
+    public static final int NA_YIN = 1 << 2;
+
+    /** 上一节、下一节 */
+    public static final int JIE_QI = 1 << 3;
+
+    /** 吉日/节日文字 */
+    public static final int JI_RI = 1 << 4;
+
+    /** 宜忌词 */
+    public static final int YI_JI = 1 << 5;
+
+    /** 全部字段 */
+    public static final int ALL = LUNAR | STAR | NA_YIN | JIE_QI | JI_RI | YI_JI;
+
+    private DayField() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * fields是否包含required中的全部字段
+     */
+    public static boolean containsAll(int fields, int required) {
+        return (fields & required) == required;
+    }
+
+    /**
+     * 字段组合的文字描述，用于日志，如"LUNAR|YI_JI"
+     */
+    public static String toString(int fields) {
+        if (fields == ALL) {
+            return "ALL";
+        }
+        String[] names = {"LUNAR", "STAR", "NA_YIN", "JIE_QI", "JI_RI", "YI_JI"};
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if ((fields & (1 << i)) != 0) {
+                if (sb.length() > 0) {
+                    sb.append('|');
+                }
+                sb.append(names[i]);
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : "NONE";
+    }
+}
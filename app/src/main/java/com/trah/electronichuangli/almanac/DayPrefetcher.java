@@ -0,0 +1,111 @@
+package com.trah.electronichuangli.almanac;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * 选中日期附近的预取器
+ * 用户选中某天后，在后台按 0、+1、-1、+2、-2…… 的顺序把前后 radius 天加载进 {@link DayCache}，
+ * 之后翻到相邻日期时直接命中缓存
+ *
+ * 每次 {@link #prefetch} 都会使之前的预取失效：旧任务每加载一天前检查一次代号，发现过时立即退出，
+ * 还在队列里没开始的旧任务直接跳过；新窗口中已在缓存里的日期不会重复加载
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class DayPrefetcher {
+
+    private final Executor executor;
+    private final DayCache cache;
+    private final int radius;
+    private final IntFunction<DayAlmanac> loader;
+
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // 统计
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    /**
+     * @param executor 执行预取的线程池，通常是低优先级的单线程
+     * @param cache 预取结果写入的缓存
+     * @param radius 选中日期前后各预取的天数
+     * @param loader 按纪元日加载完整黄历，失败时返回null；不应自己写缓存
+     */
+    public DayPrefetcher(Executor executor, DayCache cache, int radius, IntFunction<DayAlmanac> loader) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("radius must not be negative: " + radius);
+        }
+        this.executor = executor;
+        this.cache = cache;
+        this.radius = radius;
+        this.loader = loader;
+    }
+
+    /**
+     * 取消之前的预取，并开始预取 centerDay 前后的日期
+     * @param centerDay 选中日期的纪元日
+     */
+    public void prefetch(int centerDay) {
+        int ticket = generation.incrementAndGet();
+        executor.execute(() -> run(ticket, centerDay));
+    }
+
+    /**
+     * 取消正在进行的预取（如页面销毁时）
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    private void run(int ticket, int centerDay) {
+        for (int step = 0; step <= radius * 2; step++) {
+            if (generation.get() != ticket) {
+                cancelled.incrementAndGet();
+                return;
+            }
+            int day = centerDay + offsetOf(step);
+            if (cache.peek(day) != null) {
+                skipped.incrementAndGet();
+                continue;
+            }
+            DayAlmanac almanac = loader.apply(day);
+            if (almanac != null) {
+                cache.put(day, almanac);
+                loaded.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 第step个预取日期相对选中日期的偏移：0, +1, -1, +2, -2 ……
+     */
+    static int offsetOf(int step) {
+        int distance = (step + 1) / 2;
+        return (step & 1) == 1 ? distance : -distance;
+    }
+
+    // ==================== 统计 ====================
+
+    /** 选中日期前后各预取的天数 */
+    public int getRadius() { return radius; }
+
+    /** 实际加载并写入缓存的天数 */
+    public long getLoadedCount() { return loaded.get(); }
+
+    /** 已在缓存中而跳过的天数 */
+    public long getSkippedCount() { return skipped.get(); }
+
+    /** 因选中日期变化而中途放弃的预取次数 */
+    public long getCancelledCount() { return cancelled.get(); }
+
+    @Override
+    public String toString() {
+        return "DayPrefetcher{radius=" + radius + ", loaded=" + loaded.get()
+                + ", skipped=" + skipped.get() + ", cancelled=" + cancelled.get() + "}";
+    }
+}
@@ -0,0 +1,364 @@
+package com.trah.electronichuangli.almanac;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 可组合的择日条件
+ * 由"宜X""忌X""冲某地支""周末""法定节假日"等基本条件经与、或、非组合而成，例如：
+ * {@code DayQuery.yi("嫁娶").and(DayQuery.yi("纳采")).and(DayQuery.ji("安葬").not())
+ *        .and(DayQuery.chong(zhi).not()).and(DayQuery.weekend()).and(DayQuery.holiday().not())}
+ *
+ * 执行时先把条件树编译成后缀形式的位运算序列，再在 {@link DayAttributeMatrix} 上按块（每块
+ * {@link #BLOCK_WORDS} 个long，即1024天）逐个long运算；凑够需要的天数后不再计算后面的块，
+ * 返回结果中的 {@link Result#getEvaluatedDays()} 记录实际参与运算的天数，便于调整条件和区间
+ *
+ * 条件对象不可变，可在多线程下共享
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class DayQuery {
+
+    /** 每块的long个数 */
+    public static final int BLOCK_WORDS = 16;
+
+    // 节点类型
+    private static final int ALL = 0;
+    private static final int YI = 1;
+    private static final int JI = 2;
+    private static final int CHONG = 3;
+    private static final int WEEKEND = 4;
+    private static final int HOLIDAY = 5;
+    private static final int AND = 6;
+    private static final int OR = 7;
+    private static final int NOT = 8;
+
+    // 编译后的指令
+    private static final int OP_LOAD = 0;        // 压入一列
+    private static final int OP_LOAD_ALL = 1;    // 压入全1
+    private static final int OP_AND_COL = 2;     // 栈顶 &= 列
+    private static final int OP_ANDNOT_COL = 3;  // 栈顶 &= ~列
+    private static final int OP_OR_COL = 4;      // 栈顶 |= 列
+    private static final int OP_AND = 5;         // 弹出两项，压入与
+    private static final int OP_OR = 6;          // 弹出两项，压入或
+    private static final int OP_NOT = 7;         // 栈顶取反
+
+    private static final DayQuery ALL_DAYS = new DayQuery(ALL, null, 0, null, null);
+    private static final DayQuery WEEKEND_DAYS = new DayQuery(WEEKEND, null, 0, null, null);
+    private static final DayQuery HOLIDAYS = new DayQuery(HOLIDAY, null, 0, null, null);
+
+    private final int type;
+    private final String keyword;
+    private final int zhi;
+    private final DayQuery left;
+    private final DayQuery right;
+
+    private DayQuery(int type, String keyword, int zhi, DayQuery left, DayQuery right) {
+        this.type = type;
+        this.keyword = keyword;
+        this.zhi = zhi;
+        this.left = left;
+        this.right = right;
+    }
+
+    // ==================== 基本条件 ====================
+
+    /** 所有日子 */
+    public static DayQuery all() {
+        return ALL_DAYS;
+    }
+
+    /**
+     * 宜事中有包含关键词的词，如"动土"同时命中"动土"和"起基动土"
+     */
+    public static DayQuery yi(String keyword) {
+        return new DayQuery(YI, keyword, 0, null, null);
+    }
+
+    /**
+     * 忌事中有包含关键词的词
+     */
+    public static DayQuery ji(String keyword) {
+        return new DayQuery(JI, keyword, 0, null, null);
+    }
+
+    /**
+     * 当日冲指定地支（生肖），通常以 {@code chong(zhi).not()} 排除冲自己生肖的日子
+     * @param zhi 地支索引（0-11）
+     */
+    public static DayQuery chong(int zhi) {
+        if (zhi < 0 || zhi >= 12) {
+            throw new IllegalArgumentException("invalid zhi: " + zhi);
+        }
+        return new DayQuery(CHONG, null, zhi, null, null);
+    }
+
+    /** 周六、周日 */
+    public static DayQuery weekend() {
+        return WEEKEND_DAYS;
+    }
+
+    /** 法定节假日（不含调休上班日），数据来自lunar库 */
+    public static DayQuery holiday() {
+        return HOLIDAYS;
+    }
+
+    // ==================== 组合 ====================
+
+    public DayQuery and(DayQuery other) {
+        return new DayQuery(AND, null, 0, this, other);
+    }
+
+    public DayQuery or(DayQuery other) {
+        return new DayQuery(OR, null, 0, this, other);
+    }
+
+    public DayQuery not() {
+        return type == NOT ? left : new DayQuery(NOT, null, 0, this, null);
+    }
+
+    // ==================== 执行 ====================
+
+    /**
+     * 在属性矩阵上执行查询
+     * @param matrix 属性矩阵
+     * @param fromDay 起始纪元日（包含），超出矩阵范围的部分被忽略
+     * @param toDay 结束纪元日（包含）
+     * @param limit 最多返回的天数
+     * @return 查询结果
+     */
+    public Result run(DayAttributeMatrix matrix, int fromDay, int toDay, int limit) {
+        long start = System.nanoTime();
+        int from = Math.max(fromDay, matrix.getStartDay()) - matrix.getStartDay();
+        int to = Math.min(toDay, matrix.getEndDay()) - matrix.getStartDay();
+        if (from > to || limit <= 0) {
+            return new Result(new int[0], 0, System.nanoTime() - start);
+        }
+
+        Program program = compile(matrix);
+        long[][] stack = new long[program.depth][BLOCK_WORDS];
+        int[] days = new int[Math.min(limit, to - from + 1)];
+        int found = 0;
+        int evaluated = 0;
+        int lastWord = to >>> 6;
+
+        for (int word = from >>> 6; word <= lastWord && found < limit; word += BLOCK_WORDS) {
+            int n = Math.min(BLOCK_WORDS, lastWord - word + 1);
+            long[] bits = program.execute(stack, word, n);
+
+            // 裁掉区间外的位
+            if (word == from >>> 6) {
+                bits[0] &= -1L << (from & 63);
+            }
+            if (word + n - 1 == lastWord) {
+                bits[n - 1] &= -1L >>> (63 - (to & 63));
+            }
+            evaluated += Math.min((word + n) * 64 - 1, to) - Math.max(word * 64, from) + 1;
+
+            for (int k = 0; k < n && found < limit; k++) {
+                long w = bits[k];
+                while (w != 0 && found < limit) {
+                    days[found++] = matrix.getStartDay() + (word + k) * 64 + Long.numberOfTrailingZeros(w);
+                    w &= w - 1;
+                }
+            }
+        }
+        return new Result(found == days.length ? days : Arrays.copyOf(days, found),
+                evaluated, System.nanoTime() - start);
+    }
+
+    private Program compile(DayAttributeMatrix matrix) {
+        Program program = new Program();
+        emit(this, matrix, program);
+        return program;
+    }
+
+    private static void emit(DayQuery q, DayAttributeMatrix matrix, Program program) {
+        switch (q.type) {
+            case AND:
+            case OR: {
+                // 与、或可交换，尽量让右侧是基本条件，直接与列运算而不占用栈
+                DayQuery a = q.left;
+                DayQuery b = q.right;
+                if (!isColumn(b) && !isNegatedColumn(b) && (isColumn(a) || isNegatedColumn(a))) {
+                    a = q.right;
+                    b = q.left;
+                }
+                emit(a, matrix, program);
+                if (isColumn(b)) {
+                    program.add(q.type == AND ? OP_AND_COL : OP_OR_COL, column(b, matrix));
+                } else if (q.type == AND && isNegatedColumn(b)) {
+                    program.add(OP_ANDNOT_COL, column(b.left, matrix));
+                } else {
+                    emit(b, matrix, program);
+                    program.add(q.type == AND ? OP_AND : OP_OR, null);
+                }
+                break;
+            }
+            case NOT:
+                emit(q.left, matrix, program);
+                program.add(OP_NOT, null);
+                break;
+            case ALL:
+                program.add(OP_LOAD_ALL, null);
+                break;
+            default:
+                program.add(OP_LOAD, column(q, matrix));
+                break;
+        }
+    }
+
+    private static boolean isColumn(DayQuery q) {
+        return q.type >= YI && q.type <= HOLIDAY;
+    }
+
+    private static boolean isNegatedColumn(DayQuery q) {
+        return q.type == NOT && isColumn(q.left);
+    }
+
+    private static long[] column(DayQuery q, DayAttributeMatrix matrix) {
+        switch (q.type) {
+            case YI:
+                return matrix.yiColumn(q.keyword);
+            case JI:
+                return matrix.jiColumn(q.keyword);
+            case CHONG:
+                return matrix.chongColumn(q.zhi);
+            case WEEKEND:
+                return matrix.weekendColumn();
+            default:
+                return matrix.holidayColumn();
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case ALL:
+                return "全部";
+            case YI:
+                return "宜" + keyword;
+            case JI:
+                return "忌" + keyword;
+            case CHONG:
+                return "冲" + GanZhi.shengXiao(zhi);
+            case WEEKEND:
+                return "周末";
+            case HOLIDAY:
+                return "节假日";
+            case NOT:
+                return "!" + (isColumn(left) ? left.toString() : "(" + left + ")");
+            default:
+                return "(" + left + (type == AND ? " & " : " | ") + right + ")";
+        }
+    }
+
+    /**
+     * 编译后的后缀指令序列
+     */
+    private static final class Program {
+        private final List<Integer> ops = new ArrayList<>();
+        private final List<long[]> columns = new ArrayList<>();
+        private int size;
+        private int depth;
+
+        void add(int op, long[] column) {
+            ops.add(op);
+            columns.add(column);
+            if (op == OP_LOAD || op == OP_LOAD_ALL) {
+                depth = Math.max(depth, ++size);
+            } else if (op == OP_AND || op == OP_OR) {
+                size--;
+            }
+        }
+
+        /**
+         * 计算[word, word + n)这几个long，返回栈底的结果缓冲区
+         */
+        long[] execute(long[][] stack, int word, int n) {
+            int sp = 0;
+            for (int i = 0; i < ops.size(); i++) {
+                long[] column = columns.get(i);
+                switch (ops.get(i)) {
+                    case OP_LOAD:
+                        System.arraycopy(column, word, stack[sp++], 0, n);
+                        break;
+                    case OP_LOAD_ALL:
+                        Arrays.fill(stack[sp++], 0, n, -1L);
+                        break;
+                    case OP_AND_COL: {
+                        long[] top = stack[sp - 1];
+                        for (int k = 0; k < n; k++) {
+                            top[k] &= column[word + k];
+                        }
+                        break;
+                    }
+                    case OP_ANDNOT_COL: {
+                        long[] top = stack[sp - 1];
+                        for (int k = 0; k < n; k++) {
+                            top[k] &= ~column[word + k];
+                        }
+                        break;
+                    }
+                    case OP_OR_COL: {
+                        long[] top = stack[sp - 1];
+                        for (int k = 0; k < n; k++) {
+                            top[k] |= column[word + k];
+                        }
+                        break;
+                    }
+                    case OP_AND: {
+                        long[] b = stack[--sp];
+                        long[] a = stack[sp - 1];
+                        for (int k = 0; k < n; k++) {
+                            a[k] &= b[k];
+                        }
+                        break;
+                    }
+                    case OP_OR: {
+                        long[] b = stack[--sp];
+                        long[] a = stack[sp - 1];
+                        for (int k = 0; k < n; k++) {
+                            a[k] |= b[k];
+                        }
+                        break;
+                    }
+                    default: {
+                        long[] top = stack[sp - 1];
+                        for (int k = 0; k < n; k++) {
+                            top[k] = ~top[k];
+                        }
+                        break;
+                    }
+                }
+            }
+            return stack[0];
+        }
+    }
+
+    /**
+     * 查询结果
+     */
+    public static final class Result {
+        private final int[] days;
+        private final int evaluatedDays;
+        private final long elapsedNanos;
+
+        Result(int[] days, int evaluatedDays, long elapsedNanos) {
+            this.days = days;
+            this.evaluatedDays = evaluatedDays;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** 符合条件的纪元日，升序 */
+        public int[] getDays() { return days; }
+
+        /** 实际参与位运算的天数，凑够数量后剩余区间不再计算 */
+        public int getEvaluatedDays() { return evaluatedDays; }
+
+        /** 查询耗时（纳秒），含编译 */
+        public long getElapsedNanos() { return elapsedNanos; }
+    }
+}
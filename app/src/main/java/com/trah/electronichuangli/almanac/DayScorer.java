@@ -0,0 +1,135 @@
+package com.trah.electronichuangli.almanac;
+
+/**
+ * 择日评分
+ * 按日子本身的属性给适宜某事件的日子打分，分数越高越好，同样的日子总是得到同样的分数：
+ * 与该事件相关的宜事越多越好，忌事中出现相关词扣分，再按建除十二值、黄道黑道加减分，
+ * 日冲太岁（岁破）另行扣分
+ *
+ * 除岁破外的各项只由宜忌组合（月支、日干支）决定，构造时为720种组合各算一次，
+ * 之后给某天打分只需一次查表加一次比较，可以在多年的区间上逐日打分
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class DayScorer {
+
+    /** 不适宜该事件的日子的分数 */
+    public static final int UNSUITABLE = Integer.MIN_VALUE;
+
+    /** 达到此分数为大吉 */
+    public static final int DA_JI_SCORE = 60;
+
+    /** 达到此分数为中吉，以下为小吉 */
+    public static final int ZHONG_JI_SCORE = 35;
+
+    // ==================== 权重 ====================
+
+    /** 每个与事件相关的宜事 */
+    private static final int MATCH_SCORE = 12;
+
+    /** 相关宜事最多计入的个数，避免同义词多的事件分数虚高 */
+    private static final int MAX_MATCHES = 3;
+
+    /** 每个宜事（不论是否相关），宜事多的日子略好 */
+    private static final int YI_SCORE = 1;
+
+    /** 每个与事件相关的忌事 */
+    private static final int CONFLICT_PENALTY = 15;
+
+    /** 忌事中没有任何相关词 */
+    private static final int NO_CONFLICT_SCORE = 8;
+
+    /** 建除十二值：除危定执、成开为吉，建满平收次之，破闭不用 */
+    private static final int[] ZHI_XING_SCORES = {
+        0, 6, 2, 0, 6, 4, -20, 4, 10, 2, 8, -10
+    };
+
+    private static final int HUANG_DAO_SCORE = 10;
+
+    private static final int HEI_DAO_PENALTY = 5;
+
+    /** 日冲太岁 */
+    private static final int SUI_PO_PENALTY = 25;
+
+    private static final short UNSUITABLE_COMBO = Short.MIN_VALUE;
+
+    /** 每种宜忌组合的分数（不含岁破） */
+    private final short[] comboScores = new short[YiJiTable.COMBOS];
+
+    /**
+     * @param mask 事件的关键词位图，只有 {@link EventMask#matches(int)} 的组合才会得分
+     */
+    public DayScorer(EventMask mask) {
+        for (int combo = 0; combo < YiJiTable.COMBOS; combo++) {
+            comboScores[combo] = mask.matches(combo) ? (short) scoreCombo(mask, combo) : UNSUITABLE_COMBO;
+        }
+    }
+
+    private static int scoreCombo(EventMask mask, int combo) {
+        // 组合只记录月支；建除和天神只看月支，取地支为该月支的任一干支即可，六十甲子索引0-11正好依次是子到亥
+        int monthGanZhi = combo / 60;
+        int dayGanZhi = combo % 60;
+
+        int score = Math.min(mask.yiCount(combo), MAX_MATCHES) * MATCH_SCORE
+                + YiJiTable.yiWords(combo).length * YI_SCORE;
+        int conflicts = mask.jiCount(combo);
+        score += conflicts == 0 ? NO_CONFLICT_SCORE : -conflicts * CONFLICT_PENALTY;
+        score += ZHI_XING_SCORES[GanZhiEngine.zhiXing(monthGanZhi, dayGanZhi)];
+        score += GanZhiEngine.isHuangDao(GanZhiEngine.tianShen(monthGanZhi, dayGanZhi))
+                ? HUANG_DAO_SCORE : -HEI_DAO_PENALTY;
+        return score;
+    }
+
+    // ==================== 打分 ====================
+
+    /**
+     * 指定宜忌组合的日子是否适宜该事件
+     */
+    public boolean isSuitable(int combo) {
+        return comboScores[combo] != UNSUITABLE_COMBO;
+    }
+
+    /**
+     * 给某天打分
+     * @param combo 宜忌组合编号
+     * @param yearGanZhi 年干支六十甲子索引
+     * @param dayGanZhi 日干支六十甲子索引
+     * @return 分数，不适宜该事件时为 {@link #UNSUITABLE}
+     */
+    public int score(int combo, int yearGanZhi, int dayGanZhi) {
+        int score = comboScores[combo];
+        if (score == UNSUITABLE_COMBO) {
+            return UNSUITABLE;
+        }
+        if (GanZhiEngine.chongZhiOf(dayGanZhi) == GanZhi.zhi(yearGanZhi)) {
+            score -= SUI_PO_PENALTY;
+        }
+        return score;
+    }
+
+    /**
+     * 给游标当前所在的日子打分
+     */
+    public int score(DayCursor cursor) {
+        return score(cursor.getYiJiCombo(), cursor.getYearGanZhi(), cursor.getDayGanZhi());
+    }
+
+    /**
+     * 给一天的黄历打分
+     */
+    public int score(DayAlmanac almanac) {
+        return score(almanac.getYiJiCombo(), almanac.getYearGanZhi(), almanac.getDayGanZhi());
+    }
+
+    /**
+     * 分数对应的吉利等级
+     * @return "大吉"、"中吉"或"小吉"
+     */
+    public static String qualityOf(int score) {
+        if (score >= DA_JI_SCORE) {
+            return "大吉";
+        }
+        return score >= ZHONG_JI_SCORE ? "中吉" : "小吉";
+    }
+}
@@ -0,0 +1,84 @@
+package com.trah.electronichuangli.almanac;
+
+import com.trah.electronichuangli.constants.AppConstants;
+
+/**
+ * 八方位枚举
+ * 同时给出显示文字和指南针度数，并按日干查财神、喜神、福神方位
+ *
+ * @author trah
+ * @version 1.0
+ */
+public enum Direction {
+    NORTH("正北", AppConstants.Direction.NORTH),
+    NORTHEAST("东北", AppConstants.Direction.NORTHEAST),
+    EAST("正东", AppConstants.Direction.EAST),
+    SOUTHEAST("东南", AppConstants.Direction.SOUTHEAST),
+    SOUTH("正南", AppConstants.Direction.SOUTH),
+    SOUTHWEST("西南", AppConstants.Direction.SOUTHWEST),
+    WEST("正西", AppConstants.Direction.WEST),
+    NORTHWEST("西北", AppConstants.Direction.NORTHWEST);
+
+    /** 财神方位，按日干索引（简化实现） */
+    private static final Direction[] CAI_SHEN = {
+        NORTHEAST, NORTHEAST, WEST, WEST, NORTH, NORTH, EAST, EAST, SOUTH, SOUTH
+    };
+
+    /** 喜神方位，按日干索引（简化实现） */
+    private static final Direction[] XI_SHEN = {
+        NORTHEAST, NORTHWEST, SOUTHWEST, SOUTH, SOUTHEAST,
+        NORTHEAST, NORTHWEST, SOUTHWEST, SOUTH, SOUTHEAST
+    };
+
+    /** 福神方位，按日干索引（简化实现） */
+    private static final Direction[] FU_SHEN = {
+        SOUTH, SOUTH, SOUTHEAST, SOUTHEAST, EAST, EAST, SOUTHWEST, SOUTHWEST, NORTHWEST, NORTHWEST
+    };
+
+    private final String label;
+    private final float degrees;
+
+    Direction(String label, float degrees) {
+        this.label = label;
+        this.degrees = degrees;
+    }
+
+    /** 显示文字，如"东北" */
+    public String getLabel() {
+        return label;
+    }
+
+    /** 指南针度数，正北为0 */
+    public float getDegrees() {
+        return degrees;
+    }
+
+    /**
+     * 日干对应的财神方位
+     * @param ganIndex 日干索引（0-9）
+     */
+    public static Direction caiShenOf(int ganIndex) {
+        return CAI_SHEN[ganIndex];
+    }
+
+    /**
+     * 日干对应的喜神方位
+     * @param ganIndex 日干索引（0-9）
+     */
+    public static Direction xiShenOf(int ganIndex) {
+        return XI_SHEN[ganIndex];
+    }
+
+    /**
+     * 日干对应的福神方位
+     * @param ganIndex 日干索引（0-9）
+     */
+    public static Direction fuShenOf(int ganIndex) {
+        return FU_SHEN[ganIndex];
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,103 @@
+package com.trah.electronichuangli.almanac;
+
+import java.util.Calendar;
+
+/**
+ * 纪元日工具类
+ * 以1970-01-01为第0天，把公历日期压缩成一个int，便于做表索引和区间运算
+ * 全部为纯整数运算，不创建任何对象
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class EpochDay {
+
+    private EpochDay() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * 公历年月日转纪元日
+     * @param year 公历年
+     * @param month 公历月（1-12）
+     * @param day 公历日
+     * @return 纪元日
+     */
+    public static int of(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int mp = (month + 9) % 12;
+        int doy = (153 * mp + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * Calendar转纪元日（只取年月日）
+     */
+    public static int of(Calendar calendar) {
+        return of(calendar.get(Calendar.YEAR),
+                  calendar.get(Calendar.MONTH) + 1,
+                  calendar.get(Calendar.DAY_OF_MONTH));
+    }
+
+    /**
+     * 今天的纪元日
+     */
+    public static int today() {
+        return of(Calendar.getInstance());
+    }
+
+    /**
+     * 纪元日转公历年月日，打包为 year * 10000 + month * 100 + day
+     */
+    public static int toYmd(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * 纪元日对应的公历年
+     */
+    public static int year(int epochDay) {
+        return toYmd(epochDay) / 10000;
+    }
+
+    /**
+     * 纪元日对应的公历月（1-12）
+     */
+    public static int month(int epochDay) {
+        return toYmd(epochDay) / 100 % 100;
+    }
+
+    /**
+     * 纪元日对应的公历日
+     */
+    public static int dayOfMonth(int epochDay) {
+        return toYmd(epochDay) % 100;
+    }
+
+    /**
+     * 指定公历月的天数
+     */
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.trah.electronichuangli.almanac;
+
+/**
+ * 事件适宜日索引
+ * 对一种事件保存属性矩阵范围内全部适宜日子的纪元日（升序）及其分数，
+ * 查询"从某天起的前N个适宜日"只需二分查找定位起点再顺序截取，不必逐日递推
+ *
+ * 由 {@link DayAttributeMatrix} 中每天的宜忌组合编号构建：先用评分表判断720个组合是否适宜，
+ * 再顺序扫描每天的组合编号；分数含岁破，只有避冲与查询条件有关，在查询时按日干支排除
+ *
+ * 构建完成后只读，可在多线程下使用
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class EventDayIndex {
+
+    private final int startDay;
+    private final int endDay;
+    private final int[] days;
+    private final short[] scores;
+
+    private EventDayIndex(int startDay, int endDay, int[] days, short[] scores) {
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.days = days;
+        this.scores = scores;
+    }
+
+    /**
+     * 为一种事件构建覆盖整个属性矩阵的索引
+     * @param scorer 事件的评分表
+     * @param matrix 属性矩阵，范围必须在月首表内
+     */
+    public static EventDayIndex build(DayScorer scorer, DayAttributeMatrix matrix) {
+        int startDay = matrix.getStartDay();
+        int endDay = matrix.getEndDay();
+        if (!LunarMonthTable.covers(startDay) || !LunarMonthTable.covers(endDay)) {
+            throw new IllegalArgumentException("range not covered: " + startDay + ".." + endDay);
+        }
+
+        int count = 0;
+        for (int day = startDay; day <= endDay; day++) {
+            if (scorer.isSuitable(matrix.comboAt(day))) {
+                count++;
+            }
+        }
+
+        int[] days = new int[count];
+        short[] scores = new short[count];
+        int n = 0;
+        // 岁破要用年干支，按农历月逐月前进，年份以正月初一为界，与 DayCursor 一致
+        int pos = LunarMonthTable.monthIndexOf(startDay);
+        int monthEnd = LunarMonthTable.startDayAt(pos) + LunarMonthTable.dayCountAt(pos);
+        int yearGanZhi = Math.floorMod(LunarMonthTable.yearAt(pos) - 4, 60);
+        for (int day = startDay; day <= endDay; day++) {
+            if (day == monthEnd) {
+                pos++;
+                monthEnd += LunarMonthTable.dayCountAt(pos);
+                yearGanZhi = Math.floorMod(LunarMonthTable.yearAt(pos) - 4, 60);
+            }
+            int combo = matrix.comboAt(day);
+            if (scorer.isSuitable(combo)) {
+                days[n] = day;
+                scores[n++] = (short) scorer.score(combo, yearGanZhi, GanZhiEngine.dayGanZhi(day));
+            }
+        }
+        return new EventDayIndex(startDay, endDay, days, scores);
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 索引是否覆盖[fromDay, toDay]整个区间
+     */
+    public boolean covers(int fromDay, int toDay) {
+        return fromDay >= startDay && toDay <= endDay;
+    }
+
+    /** 索引中的适宜日数 */
+    public int size() { return days.length; }
+
+    /** 第i个适宜日的纪元日 */
+    public int dayAt(int i) { return days[i]; }
+
+    /** 第i个适宜日的分数 */
+    public int scoreAt(int i) { return scores[i]; }
+
+    /**
+     * 第一个不早于epochDay的适宜日的下标，都早于epochDay时为 {@link #size()}
+     */
+    public int lowerBound(int epochDay) {
+        int low = 0;
+        int high = days.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
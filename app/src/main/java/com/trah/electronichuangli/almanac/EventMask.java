@@ -0,0 +1,81 @@
+package com.trah.electronichuangli.almanac;
+
+/**
+ * 编译好的事件关键词位图
+ * 每个关键词展开为"包含该关键词的所有宜忌词"的位图；某天适宜该事件，当且仅当存在一个关键词，
+ * 它在当日宜事中出现且不在忌事中出现
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class EventMask {
+
+    /** 没有关键词的事件，任何日子都不匹配 */
+    public static final EventMask NONE = new EventMask(new long[0][]);
+
+    private final long[][] keywordMasks;
+
+    /** 各关键词位图的并集，用于统计当天与该事件相关的宜忌词数 */
+    private final long[] union;
+
+    private EventMask(long[][] keywordMasks) {
+        this.keywordMasks = keywordMasks;
+        this.union = new long[keywordMasks.length > 0 ? keywordMasks[0].length : 0];
+        for (long[] mask : keywordMasks) {
+            for (int i = 0; i < union.length; i++) {
+                union[i] |= mask[i];
+            }
+        }
+    }
+
+    /**
+     * 把关键词编译为位图
+     * @param keywords 关键词，按子串匹配宜忌词
+     */
+    public static EventMask compile(String... keywords) {
+        if (keywords == null || keywords.length == 0) {
+            return NONE;
+        }
+        long[][] masks = new long[keywords.length][];
+        for (int i = 0; i < keywords.length; i++) {
+            masks[i] = YiJiTable.maskContaining(keywords[i]);
+        }
+        return new EventMask(masks);
+    }
+
+    /**
+     * 指定宜忌组合的日子是否适宜该事件
+     * @param combo 宜忌组合编号，见 {@link YiJiTable#combo}
+     */
+    public boolean matches(int combo) {
+        for (long[] mask : keywordMasks) {
+            if (YiJiTable.yiIntersects(combo, mask) && !YiJiTable.jiIntersects(combo, mask)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 指定日子是否适宜该事件
+     */
+    public boolean matches(DayAlmanac almanac) {
+        return matches(almanac.getYiJiCombo());
+    }
+
+    /**
+     * 当日宜事中与该事件相关的词数
+     * @param combo 宜忌组合编号
+     */
+    public int yiCount(int combo) {
+        return union.length == 0 ? 0 : YiJiTable.yiCount(combo, union);
+    }
+
+    /**
+     * 当日忌事中与该事件相关的词数
+     * @param combo 宜忌组合编号
+     */
+    public int jiCount(int combo) {
+        return union.length == 0 ? 0 : YiJiTable.jiCount(combo, union);
+    }
+}
@@ -0,0 +1,87 @@
+package com.trah.electronichuangli.almanac;
+
+import com.trah.electronichuangli.constants.AppConstants;
+
+/**
+ * 干支编码工具类
+ * 六十甲子统一用0-59的整数表示，0为甲子，天干索引为 index % 10，地支索引为 index % 12
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class GanZhi {
+
+    /** 十天干 */
+    public static final String[] GAN = {
+        "甲", "乙", "丙", "丁", "戊", "己", "庚", "辛", "壬", "癸"
+    };
+
+    /** 十二地支 */
+    public static final String[] ZHI = {
+        "子", "丑", "寅", "卯", "辰", "巳", "午", "未", "申", "酉", "戌", "亥"
+    };
+
+    /** 预先拼好的六十甲子文字，避免每次拼接 */
+    private static final String[] JIA_ZI = new String[60];
+
+    static {
+        for (int i = 0; i < 60; i++) {
+            JIA_ZI[i] = GAN[i % 10] + ZHI[i % 12];
+        }
+    }
+
+    private GanZhi() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * 由天干、地支索引得到六十甲子索引
+     * @param ganIndex 天干索引（0-9）
+     * @param zhiIndex 地支索引（0-11）
+     * @return 六十甲子索引（0-59）
+     */
+    public static int of(int ganIndex, int zhiIndex) {
+        return Math.floorMod(6 * ganIndex - 5 * zhiIndex, 60);
+    }
+
+    /**
+     * 六十甲子索引对应的天干索引
+     */
+    public static int gan(int index) {
+        return index % 10;
+    }
+
+    /**
+     * 六十甲子索引对应的地支索引
+     */
+    public static int zhi(int index) {
+        return index % 12;
+    }
+
+    /**
+     * 地支对应的生肖
+     * @param zhiIndex 地支索引（0-11）
+     */
+    public static String shengXiao(int zhiIndex) {
+        return AppConstants.ZODIAC_ANIMALS[zhiIndex];
+    }
+
+    /**
+     * 获取六十甲子文字，如"甲子"
+     */
+    public static String text(int index) {
+        return JIA_ZI[index];
+    }
+
+    /**
+     * 地支文字转索引，未找到返回-1
+     */
+    public static int zhiIndexOf(String zhi) {
+        for (int i = 0; i < ZHI.length; i++) {
+            if (ZHI[i].equals(zhi)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,186 @@
+package com.trah.electronichuangli.almanac;
+
+/**
+ * 干支日期算术工具类
+ * 日干支以60天为周期、与纪元日一一对应（1970-01-01为辛巳，六十甲子索引17），
+ * 日冲、日煞、财神/喜神/福神方位都只取决于日干支，建除十二值只取决于月支和日支，
+ * 因此这些字段都可以直接由纪元日算出，不需要经过lunar库的农历换算和中文字符串解析
+ *
+ * 60个干支的派生字段预先展开成byte表，查询时只做一次取模和数组下标
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class GanZhiEngine {
+
+    /** 1970-01-01（纪元日0）的六十甲子索引 */
+    public static final int EPOCH_GAN_ZHI = 17;
+
+    /** 建除十二值，按（日支 - 月支）索引 */
+    public static final String[] ZHI_XING = {
+        "建", "除", "满", "平", "定", "执", "破", "危", "成", "收", "开", "闭"
+    };
+
+    /** 值日天神（黄道、黑道十二神），按 {@link #tianShen} 索引 */
+    public static final String[] TIAN_SHEN = {
+        "青龙", "明堂", "天刑", "朱雀", "金匮", "天德", "白虎", "玉堂", "天牢", "玄武", "司命", "勾陈"
+    };
+
+    /** 六黄道神：青龙、明堂、金匮、天德、玉堂、司命 */
+    private static final int HUANG_DAO_MASK = 1 | 1 << 1 | 1 << 4 | 1 << 5 | 1 << 7 | 1 << 10;
+
+    /** 日煞方位，按地支索引：申子辰煞南，亥卯未煞西，寅午戌煞北，巳酉丑煞东 */
+    private static final Direction[] SHA = {
+        Direction.SOUTH, Direction.EAST, Direction.NORTH, Direction.WEST
+    };
+
+    // ==================== 按六十甲子索引展开的表 ====================
+    private static final byte[] GAN_OF = new byte[60];
+    private static final byte[] ZHI_OF = new byte[60];
+    private static final byte[] CHONG_ZHI_OF = new byte[60];
+
+    static {
+        for (int i = 0; i < 60; i++) {
+            GAN_OF[i] = (byte) (i % 10);
+            ZHI_OF[i] = (byte) (i % 12);
+            CHONG_ZHI_OF[i] = (byte) ((i % 12 + 6) % 12);
+        }
+    }
+
+    private GanZhiEngine() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    // ==================== 日干支 ====================
+
+    /**
+     * 某天的日干支
+     * @param epochDay 纪元日
+     * @return 六十甲子索引（0-59）
+     */
+    public static int dayGanZhi(int epochDay) {
+        return Math.floorMod(epochDay + EPOCH_GAN_ZHI, 60);
+    }
+
+    /**
+     * 某天的日干索引（0-9）
+     */
+    public static int dayGan(int epochDay) {
+        return GAN_OF[dayGanZhi(epochDay)];
+    }
+
+    /**
+     * 某天的日支索引（0-11）
+     */
+    public static int dayZhi(int epochDay) {
+        return ZHI_OF[dayGanZhi(epochDay)];
+    }
+
+    /**
+     * 某天所冲的地支索引（0-11）
+     */
+    public static int chongZhi(int epochDay) {
+        return CHONG_ZHI_OF[dayGanZhi(epochDay)];
+    }
+
+    /**
+     * 某日干支所冲的地支索引（0-11）
+     * @param dayGanZhi 日干支六十甲子索引
+     */
+    public static int chongZhiOf(int dayGanZhi) {
+        return CHONG_ZHI_OF[dayGanZhi];
+    }
+
+    /**
+     * 从某天起第一个日干支为指定值的纪元日
+     * @param fromDay 起始纪元日（包含）
+     * @param ganZhi 目标六十甲子索引
+     */
+    public static int nextDayWithGanZhi(int fromDay, int ganZhi) {
+        return fromDay + Math.floorMod(ganZhi - dayGanZhi(fromDay), 60);
+    }
+
+    /**
+     * 时柱（五鼠遁：甲己还加甲，子时天干 = 日干 % 5 * 2）
+     * 23点起为次日子时，天干按次日日干推算，日柱仍算当天
+     * @param dayGanZhi 当天日干支六十甲子索引
+     * @param hour 小时（0-23）
+     * @return 六十甲子索引
+     */
+    public static int timeGanZhi(int dayGanZhi, int hour) {
+        int zhi = (hour + 1) / 2 % 12;
+        int dayGan = GAN_OF[hour >= 23 ? (dayGanZhi + 1) % 60 : dayGanZhi];
+        return GanZhi.of((dayGan % 5 * 2 + zhi) % 10, zhi);
+    }
+
+    // ==================== 方位 ====================
+
+    /**
+     * 某天的日煞方位
+     */
+    public static Direction sha(int epochDay) {
+        return SHA[ZHI_OF[dayGanZhi(epochDay)] % 4];
+    }
+
+    /**
+     * 某天的财神方位
+     */
+    public static Direction caiShen(int epochDay) {
+        return Direction.caiShenOf(dayGan(epochDay));
+    }
+
+    /**
+     * 某天的喜神方位
+     */
+    public static Direction xiShen(int epochDay) {
+        return Direction.xiShenOf(dayGan(epochDay));
+    }
+
+    /**
+     * 某天的福神方位
+     */
+    public static Direction fuShen(int epochDay) {
+        return Direction.fuShenOf(dayGan(epochDay));
+    }
+
+    // ==================== 建除十二值 ====================
+
+    /**
+     * 建除十二值索引，见 {@link #ZHI_XING}
+     * @param monthGanZhi 月干支六十甲子索引（按节令换月）
+     * @param dayGanZhi 日干支六十甲子索引
+     * @return 0-11，0为建
+     */
+    public static int zhiXing(int monthGanZhi, int dayGanZhi) {
+        int offset = ZHI_OF[dayGanZhi] - ZHI_OF[monthGanZhi];
+        return offset < 0 ? offset + 12 : offset;
+    }
+
+    /**
+     * 建除十二值文字，如"建"
+     */
+    public static String zhiXingText(int monthGanZhi, int dayGanZhi) {
+        return ZHI_XING[zhiXing(monthGanZhi, dayGanZhi)];
+    }
+
+    // ==================== 黄道黑道 ====================
+
+    /**
+     * 值日天神索引，见 {@link #TIAN_SHEN}
+     * 寅申月子日起青龙，卯酉月寅日、辰戌月辰日……月支每进一位青龙日后移两位，与lunar库 getDayTianShen 一致
+     * @param monthGanZhi 月干支六十甲子索引（按节令换月）
+     * @param dayGanZhi 日干支六十甲子索引
+     * @return 0-11，0为青龙
+     */
+    public static int tianShen(int monthGanZhi, int dayGanZhi) {
+        return Math.floorMod(ZHI_OF[dayGanZhi] + 4 - 2 * ZHI_OF[monthGanZhi], 12);
+    }
+
+    /**
+     * 值日天神是否为黄道神
+     * @param tianShen 天神索引
+     */
+    public static boolean isHuangDao(int tianShen) {
+        return (HUANG_DAO_MASK & (1 << tianShen)) != 0;
+    }
+}
@@ -0,0 +1,339 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.I18n;
+import com.nlf.calendar.LunarMonth;
+import com.nlf.calendar.LunarYear;
+import com.nlf.calendar.Solar;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 农历月首（朔日）表与公历→农历换算
+ * 预先算好[START_YEAR, END_YEAR]农历年内每个农历月初一的纪元日、所属农历年和月份（闰月为负数），
+ * 某天的农历年月日只需在月首数组上二分查找一次，不再经过lunar库的 {@code solar.getLunar()}
+ *
+ * 第一次使用时优先取 {@link AlmanacPack} 中预置的数据，没有时由lunar库生成，之后只读，可在多线程下使用
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class LunarMonthTable {
+
+    /** 覆盖的起始农历年，从1899年起以覆盖公历1900年春节前的日子 */
+    public static final int START_YEAR = 1899;
+
+    /** 覆盖的结束农历年 */
+    public static final int END_YEAR = 2100;
+
+    /** 反查不到对应公历日期时的返回值（纪元日可以是负数，不能用-1） */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    private static final String[] YEAR_DIGITS = {
+        "〇", "一", "二", "三", "四", "五", "六", "七", "八", "九"
+    };
+
+    private static final String[] MONTH_NAMES = {
+        "正", "二", "三", "四", "五", "六", "七", "八", "九", "十", "冬", "腊"
+    };
+
+    private static final String[] DAY_NAMES = {
+        "初一", "初二", "初三", "初四", "初五", "初六", "初七", "初八", "初九", "初十",
+        "十一", "十二", "十三", "十四", "十五", "十六", "十七", "十八", "十九", "二十",
+        "廿一", "廿二", "廿三", "廿四", "廿五", "廿六", "廿七", "廿八", "廿九", "三十"
+    };
+
+    private LunarMonthTable() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /** 从数据包读入的月首表，在第一次访问前设置时代替lunar库计算 */
+    private static volatile Data preloaded;
+
+    /** 月首表是否已经加载（之后再预置数据不会生效） */
+    private static volatile boolean loaded;
+
+    /**
+     * 延迟加载的月首表，第一次访问时取预置数据，没有预置时由lunar库生成
+     */
+    private static final class Holder {
+        /** 各月初一的纪元日，末尾多存一项作为最后一个月的结束哨兵 */
+        static final int[] START_DAYS;
+        static final short[] YEARS;
+        static final byte[] MONTHS;
+        /** 每个农历年正月在表中的位置，按 year - START_YEAR 索引，末尾多存一项哨兵 */
+        static final int[] YEAR_FIRST;
+
+        static {
+            Data data = preloaded != null ? preloaded : compute();
+            START_DAYS = data.startDays;
+            YEARS = data.years;
+            MONTHS = data.months;
+            YEAR_FIRST = yearFirstOf(data.years);
+            loaded = true;
+        }
+    }
+
+    /**
+     * 月首表的原始数组
+     */
+    static final class Data {
+        final int[] startDays;
+        final short[] years;
+        final byte[] months;
+
+        Data(int[] startDays, short[] years, byte[] months) {
+            this.startDays = startDays;
+            this.years = years;
+            this.months = months;
+        }
+    }
+
+    /** 用lunar库计算月首表 */
+    private static Data compute() {
+        I18n.init();
+        int capacity = (END_YEAR - START_YEAR + 1) * 13;
+        int[] startDays = new int[capacity + 1];
+        short[] years = new short[capacity];
+        byte[] months = new byte[capacity];
+        int n = 0;
+        int endDay = 0;
+        for (int year = START_YEAR; year <= END_YEAR; year++) {
+            for (LunarMonth month : LunarYear.fromYear(year).getMonthsInYear()) {
+                Solar first = Solar.fromJulianDay(month.getFirstJulianDay());
+                startDays[n] = EpochDay.of(first.getYear(), first.getMonth(), first.getDay());
+                years[n] = (short) month.getYear();
+                months[n] = (byte) month.getMonth();
+                endDay = startDays[n] + month.getDayCount();
+                n++;
+            }
+        }
+        startDays[n] = endDay;
+        return new Data(Arrays.copyOf(startDays, n + 1), Arrays.copyOf(years, n), Arrays.copyOf(months, n));
+    }
+
+    /** 每个农历年第一个月在表中的位置，末尾多存一项哨兵 */
+    private static int[] yearFirstOf(short[] years) {
+        int[] yearFirst = new int[END_YEAR - START_YEAR + 2];
+        int pos = 0;
+        for (int year = START_YEAR; year <= END_YEAR + 1; year++) {
+            while (pos < years.length && years[pos] < year) {
+                pos++;
+            }
+            yearFirst[year - START_YEAR] = pos;
+        }
+        return yearFirst;
+    }
+
+    // ==================== 数据包 ====================
+
+    /**
+     * 预置从数据包读入的月首表，必须在第一次访问月首表之前调用
+     * @return 是否生效；月首表已经加载时返回false
+     */
+    static boolean preload(Data data) {
+        if (loaded) {
+            return false;
+        }
+        preloaded = data;
+        return true;
+    }
+
+    /**
+     * 月首表是否已经加载
+     * 未加载时第一次访问会在当前线程取预置数据或用lunar库逐年生成整张表，
+     * 只换算一天的调用方应先检查，未加载时直接用lunar库
+     */
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 把当前月首表写入数据包：月数，然后依次是各月初一的纪元日（int）、农历年（short）、月份（byte），
+     * 最后是结束哨兵
+     */
+    static void encode(DataOutputStream out) throws IOException {
+        short[] years = Holder.YEARS;
+        out.writeInt(years.length);
+        for (int i = 0; i < years.length; i++) {
+            out.writeInt(Holder.START_DAYS[i]);
+            out.writeShort(years[i]);
+            out.writeByte(Holder.MONTHS[i]);
+        }
+        out.writeInt(Holder.START_DAYS[years.length]);
+    }
+
+    /**
+     * 读取 {@link #encode} 写出的月首表
+     */
+    static Data decode(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        int[] startDays = new int[count + 1];
+        short[] years = new short[count];
+        byte[] months = new byte[count];
+        for (int i = 0; i < count; i++) {
+            startDays[i] = buffer.getInt();
+            years[i] = buffer.getShort();
+            months[i] = buffer.get();
+        }
+        startDays[count] = buffer.getInt();
+        return new Data(startDays, years, months);
+    }
+
+    // ==================== 表访问 ====================
+
+    /** 表中农历月个数 */
+    public static int size() {
+        return Holder.YEARS.length;
+    }
+
+    /** 第pos个农历月初一的纪元日 */
+    public static int startDayAt(int pos) {
+        return Holder.START_DAYS[pos];
+    }
+
+    /** 第pos个农历月的农历年 */
+    public static int yearAt(int pos) {
+        return Holder.YEARS[pos];
+    }
+
+    /** 第pos个农历月的月份，闰月为负数 */
+    public static int monthAt(int pos) {
+        return Holder.MONTHS[pos];
+    }
+
+    /** 第pos个农历月的天数（29或30） */
+    public static int dayCountAt(int pos) {
+        return Holder.START_DAYS[pos + 1] - Holder.START_DAYS[pos];
+    }
+
+    /**
+     * 某天是否在表的范围内
+     */
+    public static boolean covers(int epochDay) {
+        int[] starts = Holder.START_DAYS;
+        return epochDay >= starts[0] && epochDay < starts[starts.length - 1];
+    }
+
+    // ==================== 公历→农历 ====================
+
+    /**
+     * 某天所在农历月在表中的位置
+     * @return 表内位置，不在表范围内时返回-1
+     */
+    public static int monthIndexOf(int epochDay) {
+        if (!covers(epochDay)) {
+            return -1;
+        }
+        int[] starts = Holder.START_DAYS;
+        int low = 0;
+        int high = starts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= epochDay) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 某天的农历日（1-30）
+     * @param pos 该天所在农历月的位置，见 {@link #monthIndexOf}
+     */
+    public static int lunarDayOf(int epochDay, int pos) {
+        return epochDay - Holder.START_DAYS[pos] + 1;
+    }
+
+    // ==================== 农历→公历 ====================
+
+    /**
+     * 农历某年某月在表中的位置
+     * @param year 农历年
+     * @param month 农历月，闰月为负数
+     * @return 表内位置，年份超出范围或该年没有这个月（如没有该闰月）时返回-1
+     */
+    public static int monthIndexOf(int year, int month) {
+        if (year < START_YEAR || year > END_YEAR) {
+            return -1;
+        }
+        int[] yearFirst = Holder.YEAR_FIRST;
+        for (int pos = yearFirst[year - START_YEAR]; pos < yearFirst[year - START_YEAR + 1]; pos++) {
+            if (Holder.MONTHS[pos] == month) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 某农历年的闰月
+     * @return 闰几月（正数），没有闰月或年份超出范围时返回0
+     */
+    public static int leapMonthOf(int year) {
+        if (year < START_YEAR || year > END_YEAR) {
+            return 0;
+        }
+        int[] yearFirst = Holder.YEAR_FIRST;
+        for (int pos = yearFirst[year - START_YEAR]; pos < yearFirst[year - START_YEAR + 1]; pos++) {
+            if (Holder.MONTHS[pos] < 0) {
+                return -Holder.MONTHS[pos];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 农历日期转纪元日
+     * @param year 农历年
+     * @param month 农历月，闰月为负数
+     * @param day 农历日（1-30）
+     * @return 纪元日，日期不存在（没有该闰月、小月没有三十）或超出范围时返回 {@link #NOT_FOUND}
+     */
+    public static int toEpochDay(int year, int month, int day) {
+        int pos = monthIndexOf(year, month);
+        if (pos < 0 || day < 1 || day > dayCountAt(pos)) {
+            return NOT_FOUND;
+        }
+        return Holder.START_DAYS[pos] + day - 1;
+    }
+
+    // ==================== 农历日期文字 ====================
+
+    /**
+     * 某天的农历日期文字，与lunar库 {@code Lunar.toString()} 一致，如"二〇二三年闰二月十一"
+     * @return 文字，不在表范围内时返回null
+     */
+    public static String textOf(int epochDay) {
+        int pos = monthIndexOf(epochDay);
+        if (pos < 0) {
+            return null;
+        }
+        return text(yearAt(pos), monthAt(pos), lunarDayOf(epochDay, pos));
+    }
+
+    /**
+     * 农历日期文字
+     * @param year 农历年
+     * @param month 农历月，闰月为负数
+     * @param day 农历日
+     */
+    public static String text(int year, int month, int day) {
+        StringBuilder sb = new StringBuilder(12);
+        String digits = Integer.toString(year);
+        for (int i = 0; i < digits.length(); i++) {
+            sb.append(YEAR_DIGITS[digits.charAt(i) - '0']);
+        }
+        sb.append('年');
+        if (month < 0) {
+            sb.append('闰');
+        }
+        sb.append(MONTH_NAMES[Math.abs(month) - 1]).append('月');
+        sb.append(DAY_NAMES[day - 1]);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.trah.electronichuangli.almanac;
+
+import java.util.Arrays;
+
+/**
+ * 每年重复的农历日期（农历生日、纪念日等）
+ * 逐个农历年在 {@link LunarMonthTable} 上直接定位当年对应的公历日期，不需要逐日扫描
+ *
+ * 不是每年都存在的日期按以下规则处理：
+ * 闰月日期在没有该闰月的年份按同名的正常月份计算；
+ * 三十日在当年该月只有29天时，按 {@link MissingDay} 取月末或跳过该年
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class LunarRecurrence {
+
+    /**
+     * 当年该月没有这一天（小月没有三十）时的处理方式
+     */
+    public enum MissingDay {
+        /** 取该月最后一天 */
+        LAST_DAY,
+        /** 跳过这一年 */
+        SKIP
+    }
+
+    private final int month;
+    private final int day;
+    private final MissingDay missingDay;
+
+    /**
+     * 缺日取月末的重复日期
+     * @param month 农历月，闰月为负数
+     * @param day 农历日（1-30）
+     */
+    public LunarRecurrence(int month, int day) {
+        this(month, day, MissingDay.LAST_DAY);
+    }
+
+    /**
+     * @param month 农历月，闰月为负数
+     * @param day 农历日（1-30）
+     * @param missingDay 当年没有这一天时的处理方式
+     */
+    public LunarRecurrence(int month, int day, MissingDay missingDay) {
+        if (month == 0 || Math.abs(month) > 12 || day < 1 || day > 30) {
+            throw new IllegalArgumentException("invalid lunar date: " + month + "/" + day);
+        }
+        this.month = month;
+        this.day = day;
+        this.missingDay = missingDay;
+    }
+
+    public int getMonth() { return month; }
+    public int getDay() { return day; }
+    public boolean isLeap() { return month < 0; }
+    public MissingDay getMissingDay() { return missingDay; }
+
+    /**
+     * 该日期在某农历年对应的纪元日
+     * @param lunarYear 农历年
+     * @return 纪元日，该年不存在（按规则跳过）或超出月首表范围时返回 {@link LunarMonthTable#NOT_FOUND}
+     */
+    public int inYear(int lunarYear) {
+        int pos = LunarMonthTable.monthIndexOf(lunarYear, month);
+        if (pos < 0 && month < 0) {
+            pos = LunarMonthTable.monthIndexOf(lunarYear, -month);
+        }
+        if (pos < 0) {
+            return LunarMonthTable.NOT_FOUND;
+        }
+        int dayCount = LunarMonthTable.dayCountAt(pos);
+        int actualDay = day;
+        if (day > dayCount) {
+            if (missingDay == MissingDay.SKIP) {
+                return LunarMonthTable.NOT_FOUND;
+            }
+            actualDay = dayCount;
+        }
+        return LunarMonthTable.startDayAt(pos) + actualDay - 1;
+    }
+
+    /**
+     * 从某天起（包含当天）最近一次出现的纪元日
+     * @return 纪元日，超出月首表范围时返回 {@link LunarMonthTable#NOT_FOUND}
+     */
+    public int next(int fromDay) {
+        int[] days = next(fromDay, 1);
+        return days.length > 0 ? days[0] : LunarMonthTable.NOT_FOUND;
+    }
+
+    /**
+     * 从某天起（包含当天）接下来count次出现的纪元日
+     * @param fromDay 起始纪元日
+     * @param count 最多返回的次数
+     * @return 升序的纪元日数组，到月首表末尾为止，可能少于count个
+     */
+    public int[] next(int fromDay, int count) {
+        if (count <= 0) {
+            return new int[0];
+        }
+        int pos = LunarMonthTable.monthIndexOf(fromDay);
+        int year = pos >= 0 ? LunarMonthTable.yearAt(pos) : LunarMonthTable.START_YEAR;
+        if (pos < 0 && fromDay >= LunarMonthTable.startDayAt(0)) {
+            return new int[0];
+        }
+
+        int[] result = new int[count];
+        int n = 0;
+        for (; year <= LunarMonthTable.END_YEAR && n < count; year++) {
+            int epochDay = inYear(year);
+            if (epochDay != LunarMonthTable.NOT_FOUND && epochDay >= fromDay) {
+                result[n++] = epochDay;
+            }
+        }
+        return n == count ? result : Arrays.copyOf(result, n);
+    }
+
+    @Override
+    public String toString() {
+        return (month < 0 ? "闰" : "") + Math.abs(month) + "月" + day + "日";
+    }
+}
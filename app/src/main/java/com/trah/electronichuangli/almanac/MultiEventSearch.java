@@ -0,0 +1,145 @@
+package com.trah.electronichuangli.almanac;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * 多事件一次择日
+ * 构造时把每种宜忌组合适宜哪些事件编码为一个int位图（第i位对应第i个事件），
+ * 查找时只用 {@link DayCursor} 扫一遍区间：每天取一次组合编号、做一次避冲判断，
+ * 再按位图把这一天交给适宜的各事件的 {@link TopKDays}；不适宜任何事件的日子只花一次查表
+ *
+ * 同时给出"各事件都适宜的同一天"的排名，按各事件分数中最低的一项排序，
+ * 即短板最好的日子排在前面
+ *
+ * 构建完成后只读，可在多线程下共享
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class MultiEventSearch {
+
+    /** 一次最多同时查找的事件数 */
+    public static final int MAX_EVENTS = 32;
+
+    private final String[] eventTypes;
+    private final DayScorer[] scorers;
+
+    /** 组合编号 → 适宜事件位图 */
+    private final int[] comboEvents = new int[YiJiTable.COMBOS];
+
+    /** 所有事件都适宜时的位图 */
+    private final int allEvents;
+
+    /**
+     * @param eventTypes 事件类型，仅用于结果中的名称
+     * @param scorers 各事件的评分表，与eventTypes一一对应
+     */
+    public MultiEventSearch(String[] eventTypes, DayScorer[] scorers) {
+        if (eventTypes.length != scorers.length || eventTypes.length == 0 || eventTypes.length > MAX_EVENTS) {
+            throw new IllegalArgumentException("1.." + MAX_EVENTS + " events expected, got "
+                    + eventTypes.length + "/" + scorers.length);
+        }
+        this.eventTypes = eventTypes.clone();
+        this.scorers = scorers.clone();
+        this.allEvents = eventTypes.length == 32 ? -1 : (1 << eventTypes.length) - 1;
+        for (int combo = 0; combo < YiJiTable.COMBOS; combo++) {
+            int bits = 0;
+            for (int e = 0; e < scorers.length; e++) {
+                if (scorers[e].isSuitable(combo)) {
+                    bits |= 1 << e;
+                }
+            }
+            comboEvents[combo] = bits;
+        }
+    }
+
+    /**
+     * 扫描区间一次，得到各事件以及"同日皆宜"的最好的日子
+     * @param fromDay 起始纪元日（包含）
+     * @param toDay 结束纪元日（包含）
+     * @param limit 每个列表最多保留的天数
+     * @param clash 需要避开的生肖
+     * @param cancelled 每处理一天检查一次，返回true时立即停止，返回已看过的日子中最好的
+     * @return 已排序的结果
+     */
+    public Result run(int fromDay, int toDay, int limit, ClashFilter clash, BooleanSupplier cancelled) {
+        long start = System.nanoTime();
+        int k = Math.max(1, limit);
+        TopKDays[] perEvent = new TopKDays[scorers.length];
+        for (int e = 0; e < perEvent.length; e++) {
+            perEvent[e] = new TopKDays(k);
+        }
+        TopKDays together = new TopKDays(k);
+
+        int scanned = 0;
+        for (DayCursor cursor = new DayCursor(fromDay, toDay); cursor.hasCurrent(); cursor.next()) {
+            if (cancelled.getAsBoolean()) {
+                break;
+            }
+            scanned++;
+            int combo = cursor.getYiJiCombo();
+            int bits = comboEvents[combo];
+            if (bits == 0 || clash.clashes(cursor.getDayGanZhi())) {
+                continue;
+            }
+            int day = cursor.getEpochDay();
+            int yearGanZhi = cursor.getYearGanZhi();
+            int dayGanZhi = cursor.getDayGanZhi();
+            int weakest = Integer.MAX_VALUE;
+            for (int rest = bits; rest != 0; rest &= rest - 1) {
+                int e = Integer.numberOfTrailingZeros(rest);
+                int score = scorers[e].score(combo, yearGanZhi, dayGanZhi);
+                perEvent[e].offer(day, score);
+                weakest = Math.min(weakest, score);
+            }
+            if (bits == allEvents) {
+                together.offer(day, weakest);
+            }
+        }
+
+        for (TopKDays days : perEvent) {
+            days.sort();
+        }
+        return new Result(eventTypes, perEvent, together.sort(), scanned, System.nanoTime() - start);
+    }
+
+    /** 事件个数 */
+    public int getEventCount() { return eventTypes.length; }
+
+    /**
+     * 多事件查找结果
+     */
+    public static final class Result {
+        private final String[] eventTypes;
+        private final TopKDays[] perEvent;
+        private final TopKDays together;
+        private final int scannedDays;
+        private final long elapsedNanos;
+
+        Result(String[] eventTypes, TopKDays[] perEvent, TopKDays together, int scannedDays, long elapsedNanos) {
+            this.eventTypes = eventTypes;
+            this.perEvent = perEvent;
+            this.together = together;
+            this.scannedDays = scannedDays;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** 事件个数 */
+        public int getEventCount() { return eventTypes.length; }
+
+        /** 第i个事件的类型 */
+        public String getEventType(int i) { return eventTypes[i]; }
+
+        /** 第i个事件最好的日子 */
+        public TopKDays getDays(int i) { return perEvent[i]; }
+
+        /** 所有事件都适宜的日子，分数为各事件分数中的最低值 */
+        public TopKDays getDaysForAll() { return together; }
+
+        /** 实际扫描的天数 */
+        public int getScannedDays() { return scannedDays; }
+
+        /** 查找耗时（纳秒） */
+        public long getElapsedNanos() { return elapsedNanos; }
+    }
+}
@@ -0,0 +1,295 @@
+package com.trah.electronichuangli.almanac;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 有界择日结果缓存
+ * 以（事件、区间天数、避冲掩码）为键，条目记录起始日和区间内全部适宜日子的纪元日与分数（按日期升序），
+ * 取前K名只需在这些候选上过一遍 {@link TopKDays}，不必再逐日递推
+ *
+ * 有该事件的 {@link EventDayIndex} 时，整段扫描和补算新增日子都只在索引上二分定位区间、顺序取出候选，不再逐日递推
+ *
+ * 过了午夜起始日后移时不重算整个区间：丢掉已过去的日子，只对新进入区间末尾的几天打分后追加；
+ * 后移天数超过区间长度或起始日前移时才整段重算
+ * 中途取消的扫描不完整，不写入缓存
+ *
+ * 容量满时淘汰最久未使用的条目；所有方法都是同步的，扫描在锁外进行
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class SearchResultCache {
+
+    /** 一次查找的结果来源 */
+    public enum Outcome {
+        /** 起始日相同，直接取用 */
+        HIT,
+        /** 起始日后移，只补算了新增的几天 */
+        SHIFTED,
+        /** 没有可用条目，整段扫描 */
+        MISS
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final Consumer<Outcome> onLookup;
+
+    // 统计
+    private long hits;
+    private long shifts;
+    private long misses;
+
+    /**
+     * @param capacity 最多缓存的查询数，必须大于0
+     * @param onLookup 每次查找后回调结果来源，用于上报指标，在查找线程上执行
+     */
+    public SearchResultCache(int capacity, Consumer<Outcome> onLookup) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(capacity * 2, 0.75f, true);
+        this.onLookup = onLookup;
+    }
+
+    // ==================== 查找 ====================
+
+    /**
+     * 在区间内挑出最适宜某事件的日子，能用缓存时不重新扫描
+     * @param eventType 事件类型，与scorer一一对应
+     * @param scorer 该事件的评分表
+     * @param fromDay 起始纪元日（包含）
+     * @param toDay 结束纪元日（包含）
+     * @param clash 需要避开的生肖
+     * @param limit 最多返回的天数
+     * @param cancelled 每扫描一天检查一次，返回true时立即停止，返回已看过的日子中最好的
+     * @return 已排序的结果，最好的在前
+     */
+    public TopKDays rank(String eventType, DayScorer scorer, int fromDay, int toDay, ClashFilter clash,
+                         int limit, BooleanSupplier cancelled) {
+        return rank(eventType, scorer, null, fromDay, toDay, clash, limit, cancelled);
+    }
+
+    /**
+     * 同 {@link #rank(String, DayScorer, int, int, ClashFilter, int, BooleanSupplier)}，需要扫描的日子在索引范围内时从索引取候选
+     * @param index 由scorer构建的适宜日索引，可为null
+     * @param cancelled 每扫描一天（用索引时每个候选日）检查一次，返回true时立即停止
+     */
+    public TopKDays rank(String eventType, DayScorer scorer, EventDayIndex index, int fromDay, int toDay,
+                         ClashFilter clash, int limit, BooleanSupplier cancelled) {
+        Key key = new Key(eventType, toDay - fromDay + 1, clash.getZhiMask());
+        Entry cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+
+        Entry entry;
+        Outcome outcome;
+        if (cached != null && cached.fromDay == fromDay) {
+            entry = cached;
+            outcome = Outcome.HIT;
+        } else if (cached != null && fromDay > cached.fromDay && fromDay <= cached.toDay) {
+            entry = cached.shift(scorer, index, clash, fromDay, toDay, cancelled);
+            outcome = Outcome.SHIFTED;
+        } else {
+            entry = new Entry(fromDay, toDay, 0);
+            entry.scan(scorer, index, clash, fromDay, toDay, cancelled);
+            outcome = Outcome.MISS;
+        }
+
+        synchronized (this) {
+            if (outcome == Outcome.HIT) {
+                hits++;
+            } else {
+                if (outcome == Outcome.SHIFTED) {
+                    shifts++;
+                } else {
+                    misses++;
+                }
+                if (entry.complete) {
+                    put(key, entry);
+                }
+            }
+        }
+        if (onLookup != null) {
+            onLookup.accept(outcome);
+        }
+        return entry.top(limit);
+    }
+
+    private void put(Key key, Entry entry) {
+        entries.put(key, entry);
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > capacity) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * 清空缓存，评分规则或事件关键词变化后调用
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    // ==================== 统计 ====================
+
+    /** 缓存的查询数 */
+    public synchronized int size() { return entries.size(); }
+
+    /** 直接命中次数 */
+    public synchronized long getHitCount() { return hits; }
+
+    /** 跨日后移后命中的次数 */
+    public synchronized long getShiftCount() { return shifts; }
+
+    /** 整段扫描的次数 */
+    public synchronized long getMissCount() { return misses; }
+
+    /**
+     * 命中率（含跨日后移），没有查找时为0
+     */
+    public synchronized double getHitRatio() {
+        long total = hits + shifts + misses;
+        return total > 0 ? (double) (hits + shifts) / total : 0;
+    }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 缓存键：起始日不在键中，跨日后仍能找到前一天的条目
+     */
+    private static final class Key {
+        final String eventType;
+        final int range;
+        final int clashMask;
+
+        Key(String eventType, int range, int clashMask) {
+            this.eventType = eventType != null ? eventType : "";
+            this.range = range;
+            this.clashMask = clashMask;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return range == other.range && clashMask == other.clashMask && eventType.equals(other.eventType);
+        }
+
+        @Override
+        public int hashCode() {
+            return (eventType.hashCode() * 31 + range) * 31 + clashMask;
+        }
+    }
+
+    /**
+     * 一次查询的全部候选日，写入缓存后不再修改
+     */
+    private static final class Entry {
+        final int fromDay;
+        final int toDay;
+        int[] days;
+        int[] scores;
+        int size;
+        boolean complete;
+
+        Entry(int fromDay, int toDay, int expected) {
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            int initial = Math.max(16, expected);
+            this.days = new int[initial];
+            this.scores = new int[initial];
+        }
+
+        /**
+         * 起始日后移后的新条目：保留仍在区间内的候选，只扫描新增的几天
+         */
+        Entry shift(DayScorer scorer, EventDayIndex index, ClashFilter clash, int newFrom, int newTo,
+                    BooleanSupplier cancelled) {
+            int keep = size - lowerBound(newFrom);
+            Entry shifted = new Entry(newFrom, newTo, size);
+            System.arraycopy(days, size - keep, shifted.days, 0, keep);
+            System.arraycopy(scores, size - keep, shifted.scores, 0, keep);
+            shifted.size = keep;
+            shifted.scan(scorer, index, clash, toDay + 1, newTo, cancelled);
+            return shifted;
+        }
+
+        void scan(DayScorer scorer, EventDayIndex index, ClashFilter clash, int from, int to,
+                  BooleanSupplier cancelled) {
+            if (index != null && index.covers(from, to)) {
+                scanIndex(index, clash, from, to, cancelled);
+                return;
+            }
+            for (DayCursor cursor = new DayCursor(from, to); cursor.hasCurrent(); cursor.next()) {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                if (clash.clashes(cursor.getDayGanZhi())) {
+                    continue;
+                }
+                int score = scorer.score(cursor);
+                if (score != DayScorer.UNSUITABLE) {
+                    add(cursor.getEpochDay(), score);
+                }
+            }
+            complete = true;
+        }
+
+        /** 只看索引中[from, to]内的适宜日，分数已经算好 */
+        private void scanIndex(EventDayIndex index, ClashFilter clash, int from, int to, BooleanSupplier cancelled) {
+            int end = index.lowerBound(to + 1);
+            for (int i = index.lowerBound(from); i < end; i++) {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                int day = index.dayAt(i);
+                if (!clash.clashes(GanZhiEngine.dayGanZhi(day))) {
+                    add(day, index.scoreAt(i));
+                }
+            }
+            complete = true;
+        }
+
+        private void add(int epochDay, int score) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            days[size] = epochDay;
+            scores[size++] = score;
+        }
+
+        /** 第一个不早于epochDay的候选下标 */
+        private int lowerBound(int epochDay) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (days[mid] < epochDay) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        TopKDays top(int limit) {
+            TopKDays best = new TopKDays(Math.max(1, limit));
+            for (int i = 0; i < size; i++) {
+                best.offer(days[i], scores[i]);
+            }
+            return best.sort();
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.I18n;
+import com.nlf.calendar.Solar;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 二十四节气时刻表
+ * 预先算好[START_YEAR, END_YEAR]内全部节气的交节时刻，按时间升序保存为long数组，
+ * 上一节/下一节、距下一个节气的天数、八字年柱月柱都变成一次二分查找，不再逐日调用lunar库做天文计算
+ *
+ * 时刻统一用"北京时间墙上时间距1970-01-01 00:00的秒数"表示，与lunar库的 {@link Solar} 时刻一致，
+ * 某天零点的时刻为 epochDay * 86400
+ * 第一次使用时优先取 {@link AlmanacPack} 中预置的数据，没有时由lunar库生成，之后只读，可在多线程下使用
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class SolarTermTable {
+
+    /** 覆盖的起始公历年 */
+    public static final int START_YEAR = 1900;
+
+    /** 覆盖的结束公历年 */
+    public static final int END_YEAR = 2100;
+
+    /** 节气名称，索引与lunar库一致，从冬至开始；奇数索引为"节"，偶数索引为"气" */
+    public static final String[] NAMES = {
+        "冬至", "小寒", "大寒", "立春", "雨水", "惊蛰", "春分", "清明", "谷雨", "立夏", "小满", "芒种",
+        "夏至", "小暑", "大暑", "立秋", "处暑", "白露", "秋分", "寒露", "霜降", "立冬", "小雪", "大雪"
+    };
+
+    /** 立春的节气索引 */
+    public static final int LI_CHUN = 3;
+
+    private static final long SECONDS_PER_DAY = 86400L;
+
+    private SolarTermTable() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /** 从数据包读入的节气表，在第一次访问前设置时代替lunar库计算 */
+    private static volatile Data preloaded;
+
+    /** 节气表是否已经加载（之后再预置数据不会生效） */
+    private static volatile boolean loaded;
+
+    /**
+     * 延迟加载的节气表，第一次访问时取预置数据，没有预置时由lunar库生成
+     */
+    private static final class Holder {
+        static final long[] INSTANTS;
+        static final byte[] TERMS;
+
+        static {
+            Data data = preloaded != null ? preloaded : compute();
+            INSTANTS = data.instants;
+            TERMS = data.terms;
+            loaded = true;
+        }
+    }
+
+    /**
+     * 节气表的原始数组
+     */
+    static final class Data {
+        final long[] instants;
+        final byte[] terms;
+
+        Data(long[] instants, byte[] terms) {
+            this.instants = instants;
+            this.terms = terms;
+        }
+    }
+
+    /** 用lunar库计算节气表 */
+    private static Data compute() {
+        I18n.init();
+        Map<String, Integer> termIndex = new HashMap<>();
+        for (int i = 0; i < NAMES.length; i++) {
+            termIndex.put(NAMES[i], i);
+        }
+
+        // 每个农历年的节气表中，中文名称的24项是本年冬至前后到本年大雪，首尾的拼音项属于相邻年份，跳过
+        int years = END_YEAR - START_YEAR + 3;
+        long[] instants = new long[years * NAMES.length];
+        byte[] terms = new byte[instants.length];
+        int n = 0;
+        for (int year = START_YEAR - 1; year <= END_YEAR + 1; year++) {
+            Map<String, Solar> table = Solar.fromYmd(year, 6, 1).getLunar().getJieQiTable();
+            for (Map.Entry<String, Solar> entry : table.entrySet()) {
+                Integer term = termIndex.get(entry.getKey());
+                if (term == null) {
+                    continue;
+                }
+                Solar solar = entry.getValue();
+                instants[n] = instantOf(solar.getYear(), solar.getMonth(), solar.getDay(),
+                        solar.getHour(), solar.getMinute(), solar.getSecond());
+                terms[n] = term.byteValue();
+                n++;
+            }
+        }
+        return new Data(Arrays.copyOf(instants, n), Arrays.copyOf(terms, n));
+    }
+
+    // ==================== 数据包 ====================
+
+    /**
+     * 预置从数据包读入的节气表，必须在第一次访问节气表之前调用
+     * @return 是否生效；节气表已经加载时返回false
+     */
+    static boolean preload(Data data) {
+        if (loaded) {
+            return false;
+        }
+        preloaded = data;
+        return true;
+    }
+
+    /**
+     * 节气表是否已经加载
+     * 未加载时第一次访问会在当前线程取预置数据或用lunar库生成整张表，
+     * 只算一天的调用方应先检查，未加载时直接用lunar库，不为一天触发整表生成
+     */
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 把当前节气表写入数据包：个数，然后依次是各节气的时刻（long）和节气索引（byte）
+     */
+    static void encode(DataOutputStream out) throws IOException {
+        long[] instants = Holder.INSTANTS;
+        out.writeInt(instants.length);
+        for (int i = 0; i < instants.length; i++) {
+            out.writeLong(instants[i]);
+            out.writeByte(Holder.TERMS[i]);
+        }
+    }
+
+    /**
+     * 读取 {@link #encode} 写出的节气表
+     */
+    static Data decode(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        long[] instants = new long[count];
+        byte[] terms = new byte[count];
+        for (int i = 0; i < count; i++) {
+            instants[i] = buffer.getLong();
+            terms[i] = buffer.get();
+        }
+        return new Data(instants, terms);
+    }
+
+    // ==================== 时刻换算 ====================
+
+    /**
+     * 北京时间某时刻的秒数
+     */
+    public static long instantOf(int year, int month, int day, int hour, int minute, int second) {
+        return EpochDay.of(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+    }
+
+    /**
+     * 某天零点的时刻
+     */
+    public static long dayStart(int epochDay) {
+        return epochDay * SECONDS_PER_DAY;
+    }
+
+    /**
+     * 时刻所在的纪元日
+     */
+    public static int dayOf(long instant) {
+        return (int) Math.floorDiv(instant, SECONDS_PER_DAY);
+    }
+
+    // ==================== 表访问 ====================
+
+    /** 表中节气个数 */
+    public static int size() {
+        return Holder.INSTANTS.length;
+    }
+
+    /** 第pos个节气的交节时刻 */
+    public static long instantAt(int pos) {
+        return Holder.INSTANTS[pos];
+    }
+
+    /** 第pos个节气的节气索引，见 {@link #NAMES} */
+    public static int termAt(int pos) {
+        return Holder.TERMS[pos];
+    }
+
+    /** 第pos个节气的名称 */
+    public static String nameAt(int pos) {
+        return NAMES[Holder.TERMS[pos]];
+    }
+
+    /** 第pos个节气交节当天的纪元日 */
+    public static int dayAt(int pos) {
+        return dayOf(Holder.INSTANTS[pos]);
+    }
+
+    /**
+     * 节气索引是否为"节"（小寒、立春、惊蛰……，决定月柱）
+     */
+    public static boolean isJie(int term) {
+        return (term & 1) == 1;
+    }
+
+    /**
+     * 某天前后是否都有表内的"节"，即上一节和下一节都能查到
+     */
+    public static boolean covers(int epochDay) {
+        long[] instants = Holder.INSTANTS;
+        long start = dayStart(epochDay);
+        // 相邻两个节至多相隔一个气，首尾各留出一项
+        return instants.length > 2 && start >= instants[1] && start < instants[instants.length - 2];
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 最后一个交节时刻不晚于instant的节气位置
+     * @return 表内位置，instant早于整张表时返回-1
+     */
+    public static int lastAtOrBefore(long instant) {
+        long[] instants = Holder.INSTANTS;
+        int low = 0;
+        int high = instants.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (instants[mid] <= instant) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * 某天的上一个"节"：当天零点以前最后一个交节的节，与lunar库 getPrevJie() 一致
+     * @return 表内位置，不在表范围内时返回-1
+     */
+    public static int prevJie(int epochDay) {
+        int pos = lastAtOrBefore(dayStart(epochDay));
+        if (pos >= 0 && !isJie(termAt(pos))) {
+            pos--;
+        }
+        return pos;
+    }
+
+    /**
+     * 某天的下一个"节"：当天零点以后第一个交节的节（节当天即为当天的节），与lunar库 getNextJie() 一致
+     * @return 表内位置，不在表范围内时返回-1
+     */
+    public static int nextJie(int epochDay) {
+        int pos = lastAtOrBefore(dayStart(epochDay)) + 1;
+        if (pos < size() && !isJie(termAt(pos))) {
+            pos++;
+        }
+        return pos < size() ? pos : -1;
+    }
+
+    /**
+     * 某天起的下一个节气（节或气），当天交节的也算
+     * @return 表内位置，不在表范围内时返回-1
+     */
+    public static int nextTerm(int epochDay) {
+        int pos = lastAtOrBefore(dayStart(epochDay)) + 1;
+        return pos < size() ? pos : -1;
+    }
+
+    /**
+     * 距下一个节气的天数，当天交节为0
+     * @return 天数，不在表范围内时返回-1
+     */
+    public static int daysUntilNextTerm(int epochDay) {
+        int pos = nextTerm(epochDay);
+        return pos >= 0 ? dayAt(pos) - epochDay : -1;
+    }
+
+    // ==================== 八字年柱、月柱 ====================
+
+    /**
+     * 某时刻的年柱（以立春交节时刻换年）
+     * @return 六十甲子索引，不在表范围内时返回-1
+     */
+    public static int yearGanZhiAt(long instant) {
+        int pos = lastAtOrBefore(instant);
+        while (pos >= 0 && termAt(pos) != LI_CHUN) {
+            pos--;
+        }
+        if (pos < 0) {
+            return -1;
+        }
+        int year = EpochDay.toYmd(dayAt(pos)) / 10000;
+        return Math.floorMod(year - 4, 60);
+    }
+
+    /**
+     * 某天的月干支（节当天即换月），与lunar库 getMonthGanIndex()/getMonthZhiIndex() 一致
+     * @return 六十甲子索引，不在表范围内时返回-1
+     */
+    public static int monthGanZhiOf(int epochDay) {
+        return monthGanZhiAt(dayStart(epochDay + 1) - 1);
+    }
+
+    /**
+     * 某时刻的月柱（以节的交节时刻换月）
+     * @return 六十甲子索引，不在表范围内时返回-1
+     */
+    public static int monthGanZhiAt(long instant) {
+        int pos = lastAtOrBefore(instant);
+        if (pos >= 0 && !isJie(termAt(pos))) {
+            pos--;
+        }
+        int yearGanZhi = yearGanZhiAt(instant);
+        if (pos < 0 || yearGanZhi < 0) {
+            return -1;
+        }
+        // 小寒为丑月，立春为寅月……大雪为子月
+        int monthZhi = (termAt(pos) + 1) / 2 % 12;
+        // 五虎遁：甲己之年丙作首，寅月天干 = 年干 % 5 * 2 + 2
+        int fromYin = (monthZhi + 10) % 12;
+        int monthGan = (GanZhi.gan(yearGanZhi) % 5 * 2 + 2 + fromYin) % 10;
+        return GanZhi.of(monthGan, monthZhi);
+    }
+}
@@ -0,0 +1,197 @@
+package com.trah.electronichuangli.almanac;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 按日期分页列出适宜某事件的日子
+ * 有该事件的 {@link EventDayIndex} 且覆盖整个区间时，每页二分查找定位起点后顺序截取适宜日，只需排除冲日；
+ * 否则内部持有一个 {@link DayCursor}，每页从上一页停下的那一天接着递推，已看过的日子不再扫描，
+ * 翻页状态只有游标本身，占用空间与区间长度无关，可以在多年的区间上一页页往后翻
+ *
+ * 取出的一页要等调用方确认已经显示、调用 {@link #commit(Page)} 后位置才前进；
+ * 中途取消或没能显示的一页不提交，下次 {@link #next} 重新取这一页，不会漏掉日子
+ * 位置可用 {@link #getNextDay()} 取出，之后用同样的条件以该日为起点新建分页器即可从断点继续
+ *
+ * 所有方法都是同步的，但同一时间只应有一个线程翻页
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class SuitableDayPager {
+
+    private final DayScorer scorer;
+    private final EventDayIndex index;
+    private final ClashFilter clash;
+    private final int toDay;
+
+    /** 已提交的位置，即下一页的起点，超过toDay表示已经翻完 */
+    private int nextDay;
+
+    /** 最近取出、尚未提交的一页 */
+    private Page pending;
+
+    /** 停在pending末尾的游标，提交后接着用；没有时为null，下一页时重建 */
+    private DayCursor cursor;
+
+    /**
+     * @param scorer 事件的评分表，只列出适宜的日子
+     * @param clash 需要避开的生肖
+     * @param fromDay 起始纪元日（包含），也可以是之前某页的 {@link #getNextDay()}
+     * @param toDay 结束纪元日（包含）
+     */
+    public SuitableDayPager(DayScorer scorer, ClashFilter clash, int fromDay, int toDay) {
+        this(scorer, null, clash, fromDay, toDay);
+    }
+
+    /**
+     * @param scorer 事件的评分表，只列出适宜的日子
+     * @param index 由scorer构建的适宜日索引，没有或不覆盖整个区间时逐日递推
+     * @param clash 需要避开的生肖
+     * @param fromDay 起始纪元日（包含），也可以是之前某页的 {@link #getNextDay()}
+     * @param toDay 结束纪元日（包含）
+     */
+    public SuitableDayPager(DayScorer scorer, EventDayIndex index, ClashFilter clash, int fromDay, int toDay) {
+        this.scorer = scorer;
+        this.index = index != null && index.covers(fromDay, toDay) ? index : null;
+        this.clash = clash;
+        this.toDay = toDay;
+        this.nextDay = fromDay;
+    }
+
+    /**
+     * 从已提交的位置取下一页，位置不变，显示后需调用 {@link #commit(Page)}
+     * @param pageSize 每页最多的天数，必须大于0
+     * @param cancelled 每处理一天（用索引时每个候选日）检查一次，返回true时放弃这一页
+     * @return 按日期升序的一页，已翻完时为空页；取消时返回null
+     */
+    public synchronized Page next(int pageSize, BooleanSupplier cancelled) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+        }
+        if (nextDay > toDay) {
+            return new Page(new int[0], new int[0], nextDay, nextDay, false);
+        }
+        if (index != null) {
+            return nextFromIndex(pageSize, cancelled);
+        }
+        int startDay = nextDay;
+        // 只有上一页提交后游标才正好停在nextDay上，否则从nextDay重建
+        DayCursor cursor = this.cursor != null && pending != null && pending.nextDay == nextDay
+                ? this.cursor : new DayCursor(nextDay, toDay);
+        this.cursor = null;
+        pending = null;
+
+        int[] days = new int[pageSize];
+        int[] scores = new int[pageSize];
+        int count = 0;
+        while (cursor.hasCurrent() && count < pageSize) {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            if (!clash.clashes(cursor.getDayGanZhi())) {
+                int score = scorer.score(cursor);
+                if (score != DayScorer.UNSUITABLE) {
+                    days[count] = cursor.getEpochDay();
+                    scores[count++] = score;
+                }
+            }
+            cursor.next();
+        }
+
+        int pageEnd = cursor.hasCurrent() ? cursor.getEpochDay() : toDay + 1;
+        Page page = new Page(Arrays.copyOf(days, count), Arrays.copyOf(scores, count), startDay, pageEnd,
+                pageEnd <= toDay);
+        pending = page;
+        this.cursor = cursor.hasCurrent() ? cursor : null;
+        return page;
+    }
+
+    /**
+     * 在索引上从nextDay二分定位，顺序取不冲的适宜日直到取满一页
+     */
+    private Page nextFromIndex(int pageSize, BooleanSupplier cancelled) {
+        int[] days = new int[pageSize];
+        int[] scores = new int[pageSize];
+        int count = 0;
+        int end = index.lowerBound(toDay + 1);
+        for (int i = index.lowerBound(nextDay); i < end && count < pageSize; i++) {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            int day = index.dayAt(i);
+            if (!clash.clashes(GanZhiEngine.dayGanZhi(day))) {
+                days[count] = day;
+                scores[count++] = index.scoreAt(i);
+            }
+        }
+
+        // 取满一页时停在最后一天之后，与逐日递推的位置相同
+        int pageEnd = count == pageSize ? days[count - 1] + 1 : toDay + 1;
+        Page page = new Page(Arrays.copyOf(days, count), Arrays.copyOf(scores, count), nextDay, pageEnd,
+                pageEnd <= toDay);
+        pending = page;
+        return page;
+    }
+
+    /**
+     * 确认一页已经显示，位置前进到这一页之后
+     * 只接受从当前位置取出的页，过时的页（位置已经前进过）忽略
+     * @return 是否前进
+     */
+    public synchronized boolean commit(Page page) {
+        if (page.startDay != nextDay) {
+            return false;
+        }
+        nextDay = page.nextDay;
+        if (page != pending) {
+            // 不是最近取出的一页，游标不在这一页末尾
+            cursor = null;
+            pending = null;
+        }
+        return true;
+    }
+
+    /** 已提交的位置，即下一页的起点纪元日，超过结束日表示已经翻完 */
+    public synchronized int getNextDay() { return nextDay; }
+
+    /** 提交的位置之后是否还有日子 */
+    public synchronized boolean hasMore() { return nextDay <= toDay; }
+
+    /**
+     * 一页结果
+     */
+    public static final class Page {
+        private final int[] days;
+        private final int[] scores;
+        private final int startDay;
+        private final int nextDay;
+        private final boolean hasMore;
+
+        Page(int[] days, int[] scores, int startDay, int nextDay, boolean hasMore) {
+            this.days = days;
+            this.scores = scores;
+            this.startDay = startDay;
+            this.nextDay = nextDay;
+            this.hasMore = hasMore;
+        }
+
+        /** 本页天数 */
+        public int size() { return days.length; }
+
+        /** 本页第i天的纪元日 */
+        public int dayAt(int i) { return days[i]; }
+
+        /** 本页第i天的分数 */
+        public int scoreAt(int i) { return scores[i]; }
+
+        /** 本页的起点纪元日 */
+        public int getStartDay() { return startDay; }
+
+        /** 下一页的起点纪元日 */
+        public int getNextDay() { return nextDay; }
+
+        /** 之后是否还有没看过的日子（不保证其中还有适宜的） */
+        public boolean hasMore() { return hasMore; }
+    }
+}
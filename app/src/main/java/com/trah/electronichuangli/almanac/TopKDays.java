@@ -0,0 +1,154 @@
+package com.trah.electronichuangli.almanac;
+
+/**
+ * 分数最高的K天
+ * 用两个int数组实现的有界小顶堆，堆顶是当前入选日子中最差的一天；新日子比堆顶好时替换堆顶，
+ * 在任意长的区间上逐日提交也只占用O(K)空间，提交过程不创建对象
+ *
+ * "更好"指分数更高，分数相同时日期更早
+ * 提交完毕后调用 {@link #sort()} 原地堆排序，之后按名次读取；排序后不能再提交
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class TopKDays {
+
+    private final int[] days;
+    private final int[] scores;
+    private int size;
+    private boolean sorted;
+
+    /**
+     * @param k 最多保留的天数，必须大于0
+     */
+    public TopKDays(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.days = new int[k];
+        this.scores = new int[k];
+    }
+
+    /**
+     * 提交一天
+     * @param epochDay 纪元日
+     * @param score 分数
+     * @return 是否入选（可能在之后被更好的日子挤出）
+     */
+    public boolean offer(int epochDay, int score) {
+        if (sorted) {
+            throw new IllegalStateException("already sorted");
+        }
+        if (size < days.length) {
+            days[size] = epochDay;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        if (!better(epochDay, score, days[0], scores[0])) {
+            return false;
+        }
+        days[0] = epochDay;
+        scores[0] = score;
+        siftDown(0, size);
+        return true;
+    }
+
+    /**
+     * 已满时入选所需超过的分数，未满时为 {@link Integer#MIN_VALUE}
+     * 调用方可据此跳过明显不够格的日子
+     */
+    public int threshold() {
+        return size < days.length ? Integer.MIN_VALUE : scores[0];
+    }
+
+    /**
+     * 按名次原地排序（最好的在前），之后只能读取
+     * @return this
+     */
+    public TopKDays sort() {
+        if (!sorted) {
+            // 小顶堆的堆排序：每次把最差的换到末尾，得到从好到差的顺序
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            sorted = true;
+        }
+        return this;
+    }
+
+    // ==================== 读取 ====================
+
+    /** 入选天数 */
+    public int size() { return size; }
+
+    /** 第i名的纪元日，需先 {@link #sort()} */
+    public int dayAt(int i) {
+        checkRank(i);
+        return days[i];
+    }
+
+    /** 第i名的分数，需先 {@link #sort()} */
+    public int scoreAt(int i) {
+        checkRank(i);
+        return scores[i];
+    }
+
+    private void checkRank(int i) {
+        if (!sorted) {
+            throw new IllegalStateException("not sorted");
+        }
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("rank " + i + ", size " + size);
+        }
+    }
+
+    // ==================== 堆操作 ====================
+
+    private static boolean better(int dayA, int scoreA, int dayB, int scoreB) {
+        return scoreA != scoreB ? scoreA > scoreB : dayA < dayB;
+    }
+
+    /** i比j差，应更靠近堆顶 */
+    private boolean worse(int i, int j) {
+        return better(days[j], scores[j], days[i], scores[i]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int end) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= end) {
+                break;
+            }
+            if (child + 1 < end && worse(child + 1, child)) {
+                child++;
+            }
+            if (!worse(child, i)) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int day = days[i];
+        days[i] = days[j];
+        days[j] = day;
+        int score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
@@ -0,0 +1,162 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.I18n;
+import com.nlf.calendar.util.LunarUtil;
+
+import java.util.List;
+
+/**
+ * 宜忌位图表
+ * 每日宜忌只由（月支，日干支）决定，共12×60种组合；类加载时把每种组合的宜、忌
+ * 各编码为一个位图，之后判断某天宜忌只需按组合编号取位图做位运算
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class YiJiTable {
+
+    /** 组合数量：12个月支 × 60个日干支 */
+    public static final int COMBOS = 12 * 60;
+
+    private static final int W = YiJiVocabulary.WORDS;
+
+    /** 宜位图，组合c占用[c*W, c*W+W) */
+    private static final long[] YI = new long[COMBOS * W];
+
+    /** 忌位图，布局同上 */
+    private static final long[] JI = new long[COMBOS * W];
+
+    /** 每种组合的宜、忌词（保持lunar库给出的顺序），供只需要宜忌文字的场合直接取用 */
+    private static final String[][] YI_WORDS = new String[COMBOS][];
+    private static final String[][] JI_WORDS = new String[COMBOS][];
+
+    static {
+        // 库内静态词表在首次初始化之前保存的是多语言键而不是中文，直接调用LunarUtil前必须先初始化
+        I18n.init();
+        for (int monthZhi = 0; monthZhi < 12; monthZhi++) {
+            // 宜忌与月干无关，用六十甲子中第monthZhi个（其地支恰为monthZhi）代表该月
+            String month = GanZhi.text(monthZhi);
+            for (int dayGz = 0; dayGz < 60; dayGz++) {
+                String day = GanZhi.text(dayGz);
+                int combo = monthZhi * 60 + dayGz;
+                List<String> yi = LunarUtil.getDayYi(month, day);
+                List<String> ji = LunarUtil.getDayJi(month, day);
+                encode(yi, YI, combo * W);
+                encode(ji, JI, combo * W);
+                YI_WORDS[combo] = internAll(yi);
+                JI_WORDS[combo] = internAll(ji);
+            }
+        }
+    }
+
+    private YiJiTable() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    private static void encode(List<String> items, long[] target, int base) {
+        for (String item : items) {
+            int id = YiJiVocabulary.intern(item);
+            target[base + (id >>> 6)] |= 1L << id;
+        }
+    }
+
+    /** 换成词汇表中的同一个字符串实例，各组合共享 */
+    private static String[] internAll(List<String> items) {
+        String[] words = new String[items.size()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = YiJiVocabulary.wordOf(YiJiVocabulary.intern(items.get(i)));
+        }
+        return words;
+    }
+
+    /**
+     * 宜忌组合编号
+     * @param monthGanZhi 月干支索引（以节为界）
+     * @param dayGanZhi 日干支索引
+     * @return 组合编号（0-719）
+     */
+    public static int combo(int monthGanZhi, int dayGanZhi) {
+        return GanZhi.zhi(monthGanZhi) * 60 + dayGanZhi;
+    }
+
+    /**
+     * 某组合的宜事，返回共享数组，调用方不得修改
+     */
+    static String[] yiWords(int combo) {
+        return YI_WORDS[combo];
+    }
+
+    /**
+     * 某组合的忌事，返回共享数组，调用方不得修改
+     */
+    static String[] jiWords(int combo) {
+        return JI_WORDS[combo];
+    }
+
+    /**
+     * 当日宜事中是否有位于mask中的词
+     */
+    public static boolean yiIntersects(int combo, long[] mask) {
+        return intersects(YI, combo * W, mask);
+    }
+
+    /**
+     * 当日忌事中是否有位于mask中的词
+     */
+    public static boolean jiIntersects(int combo, long[] mask) {
+        return intersects(JI, combo * W, mask);
+    }
+
+    /**
+     * 当日宜事中位于mask中的词数
+     */
+    public static int yiCount(int combo, long[] mask) {
+        return count(YI, combo * W, mask);
+    }
+
+    /**
+     * 当日忌事中位于mask中的词数
+     */
+    public static int jiCount(int combo, long[] mask) {
+        return count(JI, combo * W, mask);
+    }
+
+    /**
+     * 当日宜事是否包含指定词
+     */
+    public static boolean hasYi(int combo, int wordId) {
+        return (YI[combo * W + (wordId >>> 6)] & (1L << wordId)) != 0;
+    }
+
+    /**
+     * 当日忌事是否包含指定词
+     */
+    public static boolean hasJi(int combo, int wordId) {
+        return (JI[combo * W + (wordId >>> 6)] & (1L << wordId)) != 0;
+    }
+
+    /**
+     * 所有包含关键词的宜忌词组成的位图
+     * 通过本类调用可保证宜忌表已加载、词汇表已包含库里出现过的全部用词
+     */
+    public static long[] maskContaining(String keyword) {
+        return YiJiVocabulary.maskContaining(keyword);
+    }
+
+    private static boolean intersects(long[] bits, int base, long[] mask) {
+        for (int i = 0; i < W; i++) {
+            if ((bits[base + i] & mask[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int count(long[] bits, int base, long[] mask) {
+        int count = 0;
+        for (int i = 0; i < W; i++) {
+            count += Long.bitCount(bits[base + i] & mask[i]);
+        }
+        return count;
+    }
+}
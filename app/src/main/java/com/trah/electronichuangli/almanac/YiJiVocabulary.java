@@ -0,0 +1,109 @@
+package com.trah.electronichuangli.almanac;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 宜忌词汇表
+ * 宜忌用词是一个封闭集合，这里给每个词分配一个固定的小整数编号，
+ * 一天的宜或忌就可以用 {@link #WORDS} 个long组成的位图表示
+ * 编号顺序与6tail/lunar-java内部词表一致；库升级后出现的新词会追加在后面
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class YiJiVocabulary {
+
+    /** 位图容量（词数上限） */
+    public static final int CAPACITY = 192;
+
+    /** 每个位图占用的long个数 */
+    public static final int WORDS = CAPACITY / 64;
+
+    /** 固定词表，编号即数组下标 */
+    private static final String[] CANONICAL = {
+        "祭祀", "祈福", "求嗣", "开光", "塑绘", "齐醮", "斋醮", "沐浴", "酬神", "造庙", "祀灶",
+        "焚香", "谢土", "出火", "雕刻", "嫁娶", "订婚", "纳采", "问名", "纳婿", "归宁", "安床",
+        "合帐", "冠笄", "订盟", "进人口", "裁衣", "挽面", "开容", "修坟", "启钻", "破土", "安葬",
+        "立碑", "成服", "除服", "开生坟", "合寿木", "入殓", "移柩", "普渡", "入宅", "安香", "安门",
+        "修造", "起基", "动土", "上梁", "竖柱", "开井开池", "作陂放水", "拆卸", "破屋", "坏垣",
+        "补垣", "伐木做梁", "作灶", "解除", "开柱眼", "穿屏扇架", "盖屋合脊", "开厕", "造仓",
+        "塞穴", "平治道涂", "造桥", "作厕", "筑堤", "开池", "伐木", "开渠", "掘井", "扫舍", "放水",
+        "造屋", "合脊", "造畜稠", "修门", "定磉", "作梁", "修饰垣墙", "架马", "开市", "挂匾",
+        "纳财", "求财", "开仓", "买车", "置产", "雇庸", "出货财", "安机械", "造车器", "经络",
+        "酝酿", "作染", "鼓铸", "造船", "割蜜", "栽种", "取渔", "结网", "牧养", "安碓磑", "习艺",
+        "入学", "理发", "探病", "见贵", "乘船", "渡水", "针灸", "出行", "移徙", "分居", "剃头",
+        "整手足甲", "纳畜", "捕捉", "畋猎", "教牛马", "会亲友", "赴任", "求医", "治病", "词讼",
+        "起基动土", "破屋坏垣", "盖屋", "造仓库", "立券交易", "交易", "立券", "安机", "会友",
+        "求医疗病", "诸事不宜", "馀事勿取", "行丧", "断蚁", "归岫", "无"
+    };
+
+    private static final List<String> words = new ArrayList<>(CAPACITY);
+    private static final Map<String, Integer> ids = new HashMap<>(CAPACITY * 2);
+
+    static {
+        for (String word : CANONICAL) {
+            intern(word);
+        }
+    }
+
+    private YiJiVocabulary() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * 取得词的编号，不存在时追加
+     * @throws IllegalStateException 词数超过位图容量
+     */
+    static synchronized int intern(String word) {
+        Integer id = ids.get(word);
+        if (id == null) {
+            if (words.size() >= CAPACITY) {
+                throw new IllegalStateException("宜忌词汇超过位图容量: " + word);
+            }
+            id = words.size();
+            words.add(word);
+            ids.put(word, id);
+        }
+        return id;
+    }
+
+    /**
+     * 词的编号，未收录返回-1
+     */
+    public static synchronized int idOf(String word) {
+        Integer id = ids.get(word);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * 编号对应的词
+     */
+    public static synchronized String wordOf(int id) {
+        return words.get(id);
+    }
+
+    /**
+     * 已收录的词数
+     */
+    public static synchronized int size() {
+        return words.size();
+    }
+
+    /**
+     * 所有包含关键词的宜忌词组成的位图，如"动土"同时命中"动土"和"起基动土"
+     * @param keyword 关键词
+     * @return 长度为 {@link #WORDS} 的位图
+     */
+    static synchronized long[] maskContaining(String keyword) {
+        long[] mask = new long[WORDS];
+        for (int id = 0; id < words.size(); id++) {
+            if (words.get(id).contains(keyword)) {
+                mask[id >>> 6] |= 1L << id;
+            }
+        }
+        return mask;
+    }
+}
@@ -31,6 +31,12 @@ public class AppConstants {
     /** 生辰时间存储键名 */
     public static final String KEY_BIRTH_TIME = "birth_time";
     
+    /** 配偶（或对方）生日存储键名，用于嫁娶择日避冲 */
+    public static final String KEY_PARTNER_BIRTH_DATE = "partner_birth_date";
+    
+    /** 择日时是否避开与本人（嫁娶时含配偶）相冲的日子 */
+    public static final String KEY_AVOID_CLASH = "avoid_clash";
+    
     // ==================== 默认值常量 ====================
     
     /** 默认生辰时间 */
@@ -115,11 +121,11 @@ public class AppConstants {
     
     /** 天数范围选项 */
     public static final String[] DAYS_RANGE_OPTIONS = {
-        "7天", "15天", "30天", "60天", "90天"
+        "7天", "15天", "30天", "60天", "90天", "半年", "一年", "三年"
     };
     
     /** 天数范围对应的数值 */
-    public static final int[] DAYS_RANGE_VALUES = {7, 15, 30, 60, 90};
+    public static final int[] DAYS_RANGE_VALUES = {7, 15, 30, 60, 90, 182, 365, 1095};
     
     /** 默认查找天数范围 */
     public static final int DEFAULT_DAYS_RANGE = 30;
@@ -127,6 +133,44 @@ public class AppConstants {
     /** 最大结果数量 */
     public static final int MAX_RESULTS = 20;
     
+    /** 按日期列出全部吉日时每页的天数 */
+    public static final int RESULTS_PAGE_SIZE = 20;
+    
+    /** 择日结果缓存最多保存的查询数 */
+    public static final int SEARCH_CACHE_SIZE = 8;
+    
+    // ==================== 黄历日表相关常量 ====================
+    
+    /** 构建时生成的黄历数据包在assets中的文件名 */
+    public static final String ALMANAC_PACK_ASSET = "almanac.pack";
+    
+    /** 日表覆盖的起始公历年，与app/build.gradle.kts中的almanacStartYear一致 */
+    public static final int ALMANAC_START_YEAR = 1900;
+    
+    /** 日表覆盖的结束公历年（包含），与app/build.gradle.kts中的almanacEndYear一致 */
+    public static final int ALMANAC_END_YEAR = 2100;
+    
+    /** 单日黄历内存缓存容量（天），足够覆盖一次吉日查询加上前后翻看 */
+    public static final int DAY_CACHE_CAPACITY = 512;
+    
+    /** 单日黄历缓存快照文件名（位于缓存目录） */
+    public static final String DAY_CACHE_SNAPSHOT_FILE = "day_cache.snapshot";
+    
+    /** 保存快照时额外包含今天之前的天数 */
+    public static final int SNAPSHOT_DAYS_BEFORE = 7;
+    
+    /** 保存快照时额外包含今天之后的天数 */
+    public static final int SNAPSHOT_DAYS_AFTER = 28;
+    
+    /** 首页选中日期前后各预取的天数，翻看相邻日期时直接命中缓存 */
+    public static final int PREFETCH_RADIUS_DAYS = 7;
+    
+    /** 启动预热等待数据包安装的最长时间（毫秒），超时后直接预热 */
+    public static final long WARMUP_PACK_TIMEOUT_MS = 5000;
+    
+    /** 启动预热时从今天起实际计算的天数，让常用的计算路径在用户操作前完成JIT */
+    public static final int WARMUP_DAYS = 30;
+    
     // ==================== 生肖相关常量 ====================
     
     /** 十二生肖数组 */
@@ -144,9 +188,6 @@ public class AppConstants {
     /** 指针旋转动画时长(毫秒) */
     public static final int POINTER_ANIMATION_DURATION = 100;
     
-    /** 数据加载延迟时间(毫秒) */
-    public static final int DATA_LOADING_DELAY = 5;
-    
     /** 下拉刷新延迟时间(毫秒) */
     public static final int REFRESH_DELAY = 500;
     
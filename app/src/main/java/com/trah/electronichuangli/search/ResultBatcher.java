@@ -0,0 +1,132 @@
+package com.trah.electronichuangli.search;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 搜索结果批量投递器
+ * 后台线程每找到一个结果就调用 {@link #add}，结果先放入缓冲区；
+ * 主线程在下一帧统一取出并回调，保证每帧最多刷新一次界面
+ * 第一个结果最多等待一帧就会显示，不需要等整个搜索结束
+ * 投递时所属搜索已不是会话中最新的一次（被新搜索取代或被取消），尚未投递的结果全部丢弃，也不会再回调
+ *
+ * @param <T> 结果类型
+ * @author trah
+ * @version 1.0
+ */
+public class ResultBatcher<T> {
+
+    /**
+     * 批量结果回调，全部在主线程执行
+     */
+    public interface Listener<T> {
+        /** 收到一批新结果（按找到的先后顺序） */
+        void onBatch(List<T> batch);
+
+        /** 搜索结束，之后不会再有回调 */
+        void onComplete();
+    }
+
+    private final SearchSession.Ticket ticket;
+    private final Listener<T> listener;
+    private final Executor nextFrame;
+
+    private final Object lock = new Object();
+    private List<T> pending = new ArrayList<>();
+    private boolean scheduled;      // 已经预约了下一帧的刷新
+    private boolean finished;       // 生产方已调用finish
+    private boolean completed;      // 已回调onComplete
+
+    private final Runnable flushTask = this::flush;
+
+    /**
+     * @param ticket 所属搜索的凭证
+     * @param listener 结果回调
+     */
+    public ResultBatcher(SearchSession.Ticket ticket, Listener<T> listener) {
+        this(ticket, listener, mainThreadNextFrame());
+    }
+
+    /**
+     * @param nextFrame 在主线程下一帧执行任务，测试时可换成手动驱动的队列
+     */
+    ResultBatcher(SearchSession.Ticket ticket, Listener<T> listener, Executor nextFrame) {
+        this.ticket = ticket;
+        this.listener = listener;
+        this.nextFrame = nextFrame;
+    }
+
+    /** Choreographer只能在主线程使用，先切到主线程再预约下一帧 */
+    private static Executor mainThreadNextFrame() {
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        return task -> mainHandler.post(
+                () -> Choreographer.getInstance().postFrameCallback(frameTimeNanos -> task.run()));
+    }
+
+    /**
+     * 提交一个结果，可在任意线程调用
+     */
+    public void add(T item) {
+        if (ticket.isCancelled()) {
+            return;
+        }
+        synchronized (lock) {
+            if (finished) {
+                return;
+            }
+            pending.add(item);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        nextFrame.execute(flushTask);
+    }
+
+    /**
+     * 生产方已提交完所有结果，剩余结果会在下一帧连同完成回调一起投递
+     */
+    public void finish() {
+        synchronized (lock) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        nextFrame.execute(flushTask);
+    }
+
+    /** 主线程：取出缓冲区中的结果并回调 */
+    private void flush() {
+        List<T> batch;
+        boolean done;
+        synchronized (lock) {
+            batch = pending;
+            pending = new ArrayList<>();
+            scheduled = false;
+            done = finished && !completed;
+            if (done) {
+                completed = true;
+            }
+        }
+        // 过时的搜索：结果和完成回调都不再投递
+        if (!ticket.isCurrent()) {
+            return;
+        }
+        if (!batch.isEmpty()) {
+            listener.onBatch(batch);
+        }
+        if (done) {
+            listener.onComplete();
+        }
+    }
+}
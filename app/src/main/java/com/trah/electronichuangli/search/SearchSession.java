@@ -0,0 +1,115 @@
+package com.trah.electronichuangli.search;
+
+import com.trah.electronichuangli.utils.AppMetrics;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 可取消的搜索会话
+ * 每次提交新搜索都会分配递增的代号，并取消上一次搜索；
+ * 后台任务通过 {@link Ticket#isCancelled()} 协作式地检查并尽快退出，
+ * 还在队列里没开始的旧任务会直接跳过，单线程的执行器不会被过时的搜索占住；
+ * 投递结果前用 {@link Ticket#isCurrent()} 按代号核对，只有最新一次搜索的结果会显示
+ *
+ * @author trah
+ * @version 1.0
+ */
+public class SearchSession {
+
+    /**
+     * 搜索任务，在执行器线程上运行
+     */
+    public interface Task {
+        void run(Ticket ticket);
+    }
+
+    /**
+     * 一次搜索的凭证，携带代号和取消状态
+     */
+    public static final class Ticket {
+        private final SearchSession session;
+        private final int generation;
+        private volatile long cancelRequestedAt;    // 请求取消的时刻（纳秒），0表示未取消
+
+        private Ticket(SearchSession session, int generation) {
+            this.session = session;
+            this.generation = generation;
+        }
+
+        /** 搜索代号，越新越大 */
+        public int getGeneration() {
+            return generation;
+        }
+
+        /** 是否仍是所属会话中最新且未取消的搜索，投递结果前检查 */
+        public boolean isCurrent() {
+            return session.isCurrent(generation);
+        }
+
+        /** 是否已被取消（有新搜索提交或会话关闭） */
+        public boolean isCancelled() {
+            return cancelRequestedAt != 0;
+        }
+
+        private void cancel() {
+            if (cancelRequestedAt == 0) {
+                cancelRequestedAt = System.nanoTime();
+            }
+        }
+    }
+
+    private final ExecutorService executor;
+    private int generation;
+    private Ticket current;
+
+    /**
+     * @param executor 执行搜索的线程池，通常是单线程
+     */
+    public SearchSession(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 取消正在进行的搜索并提交新搜索
+     * @param task 搜索任务
+     * @return 新搜索的凭证
+     */
+    public synchronized Ticket submit(Task task) {
+        if (current != null) {
+            current.cancel();
+        }
+        Ticket ticket = new Ticket(this, ++generation);
+        current = ticket;
+        executor.execute(() -> run(ticket, task));
+        return ticket;
+    }
+
+    /**
+     * 取消正在进行的搜索（如页面销毁时）
+     */
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    /**
+     * 指定代号是否仍是最新一次搜索
+     */
+    public synchronized boolean isCurrent(int generation) {
+        return current != null && current.generation == generation && !current.isCancelled();
+    }
+
+    private static void run(Ticket ticket, Task task) {
+        try {
+            if (!ticket.isCancelled()) {
+                task.run(ticket);
+            }
+        } finally {
+            if (ticket.isCancelled()) {
+                AppMetrics.recordNanos(AppMetrics.SEARCH_CANCEL_LATENCY,
+                        System.nanoTime() - ticket.cancelRequestedAt);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.trah.electronichuangli.utils;
+
+import android.util.Log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 应用内性能指标工具类
+ * 按名称累计耗时样本（次数、总耗时、最大耗时）和计数器，只保存在内存中，用于日志和调试
+ *
+ * @author trah
+ * @version 1.0
+ */
+public final class AppMetrics {
+
+    private static final String TAG = "AppMetrics";
+
+    // ==================== 指标名称 ====================
+
+    /** 吉日搜索从请求取消到后台任务真正停止的耗时 */
+    public static final String SEARCH_CANCEL_LATENCY = "search.cancel_latency";
+
+    /** 启动预热总耗时（不含等待数据包的时间） */
+    public static final String ALMANAC_WARMUP = "almanac.warmup";
+
+    /** 启动预热中lunar库类加载、初始化和第一次计算的耗时 */
+    public static final String ALMANAC_WARMUP_LIBRARY = "almanac.warmup.library";
+
+    /** 启动预热中等待数据包安装的耗时 */
+    public static final String ALMANAC_WARMUP_WAIT = "almanac.warmup.wait";
+
+    /** 择日结果缓存直接命中次数 */
+    public static final String SEARCH_CACHE_HIT = "search.cache.hit";
+
+    /** 择日结果缓存跨日后移后命中的次数 */
+    public static final String SEARCH_CACHE_SHIFT = "search.cache.shift";
+
+    /** 择日结果缓存未命中、整段扫描的次数 */
+    public static final String SEARCH_CACHE_MISS = "search.cache.miss";
+
+    private static final Map<String, Timing> timings = new LinkedHashMap<>();
+
+    private static final Map<String, Long> counters = new LinkedHashMap<>();
+
+    private AppMetrics() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * 记录一次耗时
+     * @param name 指标名称
+     * @param nanos 耗时（纳秒）
+     */
+    public static void recordNanos(String name, long nanos) {
+        synchronized (timings) {
+            Timing timing = timings.get(name);
+            if (timing == null) {
+                timing = new Timing();
+                timings.put(name, timing);
+            }
+            timing.count++;
+            timing.totalNanos += nanos;
+            timing.maxNanos = Math.max(timing.maxNanos, nanos);
+        }
+        Log.d(TAG, name + " " + nanos / 1000 + "us");
+    }
+
+    /**
+     * 计数器加一
+     * @param name 计数器名称
+     */
+    public static void increment(String name) {
+        synchronized (counters) {
+            Long value = counters.get(name);
+            counters.put(name, value != null ? value + 1 : 1L);
+        }
+    }
+
+    /**
+     * 计数器当前值，没有记录时为0
+     */
+    public static long getCounter(String name) {
+        synchronized (counters) {
+            Long value = counters.get(name);
+            return value != null ? value : 0;
+        }
+    }
+
+    /**
+     * 命中率：命中类计数器之和占全部计数器之和的比例，没有记录时为0
+     * @param missName 未命中计数器
+     * @param hitNames 各种命中计数器
+     */
+    public static double getHitRatio(String missName, String... hitNames) {
+        long hits = 0;
+        for (String name : hitNames) {
+            hits += getCounter(name);
+        }
+        long total = hits + getCounter(missName);
+        return total > 0 ? (double) hits / total : 0;
+    }
+
+    /**
+     * 某指标的样本数
+     */
+    public static long getCount(String name) {
+        synchronized (timings) {
+            Timing timing = timings.get(name);
+            return timing != null ? timing.count : 0;
+        }
+    }
+
+    /**
+     * 某指标的平均耗时（纳秒），没有样本时为0
+     */
+    public static long getAverageNanos(String name) {
+        synchronized (timings) {
+            Timing timing = timings.get(name);
+            return timing != null && timing.count > 0 ? timing.totalNanos / timing.count : 0;
+        }
+    }
+
+    /**
+     * 某指标的最大耗时（纳秒），没有样本时为0
+     */
+    public static long getMaxNanos(String name) {
+        synchronized (timings) {
+            Timing timing = timings.get(name);
+            return timing != null ? timing.maxNanos : 0;
+        }
+    }
+
+    /**
+     * 所有指标的摘要，每行一个指标
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        synchronized (timings) {
+            for (Map.Entry<String, Timing> entry : timings.entrySet()) {
+                Timing timing = entry.getValue();
+                sb.append(entry.getKey())
+                  .append(" count=").append(timing.count)
+                  .append(" avg=").append(timing.totalNanos / timing.count / 1000).append("us")
+                  .append(" max=").append(timing.maxNanos / 1000).append("us")
+                  .append('\n');
+            }
+        }
+        synchronized (counters) {
+            for (Map.Entry<String, Long> entry : counters.entrySet()) {
+                sb.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 单个耗时指标的累计值
+     */
+    private static final class Timing {
+        long count;
+        long totalNanos;
+        long maxNanos;
+    }
+}
@@ -4,6 +4,10 @@ import com.nlf.calendar.Lunar;
 import com.nlf.calendar.Solar;
 import com.nlf.calendar.LunarTime;
 import com.nlf.calendar.EightChar;
+import com.trah.electronichuangli.almanac.EpochDay;
+import com.trah.electronichuangli.almanac.GanZhi;
+import com.trah.electronichuangli.almanac.GanZhiEngine;
+import com.trah.electronichuangli.almanac.SolarTermTable;
 import java.util.Calendar;
 import java.util.Random;
 
@@ -75,26 +79,22 @@ public class FortuneCalculator {
         try {
             // 创建出生时间的八字对象
             int birthHour = getBirthHour(birthInfo.getSimpleBirthTime());
-            Solar birthSolar = new Solar(birthInfo.getBirthYear(), 
-                                       birthInfo.getBirthMonth(), 
-                                       birthInfo.getBirthDay(), 
-                                       birthHour, 0, 0);
-            
-            Lunar birthLunar = birthSolar.getLunar();
-            EightChar eightChar = birthLunar.getEightChar();
+            String[] pillars = calculateBaziPillars(birthInfo.getBirthYear(), 
+                                                   birthInfo.getBirthMonth(), 
+                                                   birthInfo.getBirthDay(), 
+                                                   birthHour);
             
             // 设置八字信息
             String baziInfo = String.format("八字：%s %s %s %s", 
-                eightChar.getYear(), eightChar.getMonth(), 
-                eightChar.getDay(), eightChar.getTime());
+                pillars[0], pillars[1], pillars[2], pillars[3]);
             fortune.setBaziInfo(baziInfo);
             
             // 计算五行平衡
-            String wuxingBalance = calculateWuxingBalance(eightChar);
+            String wuxingBalance = calculateWuxingBalance(pillars);
             fortune.setWuxingBalance(wuxingBalance);
             
             // 设置用神和忌神（简化计算）
-            String[] yongjishen = calculateYongJishen(eightChar);
+            String[] yongjishen = calculateYongJishen();
             fortune.setYongshen(yongjishen[0]);
             fortune.setJishen(yongjishen[1]);
             
@@ -104,6 +104,29 @@ public class FortuneCalculator {
         }
     }
     
+    /**
+     * 计算八字四柱（年、月、日、时）
+     * 节气表已加载且在范围内时年柱、月柱按交节时刻二分查表，日柱、时柱直接由日期推算；
+     * 否则使用lunar库，只算一个八字不值得触发整张节气表的生成
+     */
+    private static String[] calculateBaziPillars(int year, int month, int day, int hour) {
+        long instant = SolarTermTable.instantOf(year, month, day, hour, 0, 0);
+        int epochDay = EpochDay.of(year, month, day);
+        if (SolarTermTable.isLoaded() && SolarTermTable.covers(epochDay)) {
+            int dayGanZhi = GanZhiEngine.dayGanZhi(epochDay);
+            return new String[]{
+                GanZhi.text(SolarTermTable.yearGanZhiAt(instant)),
+                GanZhi.text(SolarTermTable.monthGanZhiAt(instant)),
+                GanZhi.text(dayGanZhi),
+                GanZhi.text(GanZhiEngine.timeGanZhi(dayGanZhi, hour))
+            };
+        }
+        EightChar eightChar = new Solar(year, month, day, hour, 0, 0).getLunar().getEightChar();
+        return new String[]{
+            eightChar.getYear(), eightChar.getMonth(), eightChar.getDay(), eightChar.getTime()
+        };
+    }
+    
     /**
      * 根据时辰名称获取对应小时
      */
@@ -128,14 +151,13 @@ public class FortuneCalculator {
     /**
      * 计算五行平衡
      */
-    private static String calculateWuxingBalance(EightChar eightChar) {
+    private static String calculateWuxingBalance(String[] pillars) {
         // 简化的五行统计
         String[] elements = {"金", "木", "水", "火", "土"};
         int[] counts = new int[5];
         
         // 统计八字中五行出现次数（简化实现）
-        String bazi = eightChar.getYear() + eightChar.getMonth() + 
-                     eightChar.getDay() + eightChar.getTime();
+        String bazi = pillars[0] + pillars[1] + pillars[2] + pillars[3];
         
         // 这里可以更精确地计算五行，目前使用简化方式
         for (String element : elements) {
@@ -169,7 +191,7 @@ public class FortuneCalculator {
     /**
      * 计算用神和忌神
      */
-    private static String[] calculateYongJishen(EightChar eightChar) {
+    private static String[] calculateYongJishen() {
         String[] elements = {"金", "木", "水", "火", "土"};
         String yongshen = elements[random.nextInt(5)];
         String jishen = elements[random.nextInt(5)];
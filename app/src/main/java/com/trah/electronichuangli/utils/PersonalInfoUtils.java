@@ -3,7 +3,9 @@ package com.trah.electronichuangli.utils;
 import android.content.Context;
 import android.content.SharedPreferences;
 import com.trah.electronichuangli.constants.AppConstants;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 
 /**
  * 个人信息管理工具类
@@ -52,6 +54,63 @@ public class PersonalInfoUtils {
         return new BirthInfo(birthDate, birthTime);
     }
     
+    /**
+     * 保存配偶（或对方）的生日，只用于择日避冲，不需要时辰
+     * @param context 上下文
+     * @param birthDate 生日日期，为null时清除
+     */
+    public static void savePartnerBirthInfo(Context context, Calendar birthDate) {
+        SharedPreferences prefs = context.getSharedPreferences(
+            AppConstants.PREFS_PERSONAL_INFO, Context.MODE_PRIVATE);
+        SharedPreferences.Editor editor = prefs.edit();
+        if (birthDate != null) {
+            editor.putLong(AppConstants.KEY_PARTNER_BIRTH_DATE, birthDate.getTimeInMillis());
+        } else {
+            editor.remove(AppConstants.KEY_PARTNER_BIRTH_DATE);
+        }
+        editor.apply();
+    }
+    
+    /**
+     * 加载配偶（或对方）的生日
+     * @param context 上下文
+     * @return BirthInfo对象，如果未设置则返回null
+     */
+    public static BirthInfo loadPartnerBirthInfo(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(
+            AppConstants.PREFS_PERSONAL_INFO, Context.MODE_PRIVATE);
+        
+        long birthDateTime = prefs.getLong(AppConstants.KEY_PARTNER_BIRTH_DATE, -1);
+        if (birthDateTime == -1) {
+            return null;
+        }
+        
+        Calendar birthDate = Calendar.getInstance();
+        birthDate.setTimeInMillis(birthDateTime);
+        return new BirthInfo(birthDate, AppConstants.DEFAULT_BIRTH_TIME);
+    }
+    
+    /**
+     * 择日时需要避冲的人：本人，嫁娶时再加上配偶
+     * @param context 上下文
+     * @param eventType 事件类型
+     * @return 已设置生日的人，可能为空
+     */
+    public static List<BirthInfo> loadClashProfiles(Context context, String eventType) {
+        List<BirthInfo> profiles = new ArrayList<>(2);
+        BirthInfo self = loadBirthInfo(context);
+        if (self != null) {
+            profiles.add(self);
+        }
+        if ("结婚嫁娶".equals(eventType)) {
+            BirthInfo partner = loadPartnerBirthInfo(context);
+            if (partner != null) {
+                profiles.add(partner);
+            }
+        }
+        return profiles;
+    }
+    
     /**
      * 获取时辰名称在数组中的索引
      * @param timeString 时辰字符串（支持带时间范围和不带时间范围的格式）
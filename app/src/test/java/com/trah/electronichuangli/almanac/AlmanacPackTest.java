@@ -0,0 +1,142 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * AlmanacPack 单元测试
+ */
+public class AlmanacPackTest {
+
+    private File dir;
+    private byte[] pack;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("almanac-pack-test").toFile();
+        byte[] days = AlmanacTableWriter.encode(2023, 2024, RangeComputation.sequential());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AlmanacPack.write(out, 2023, 2024, days);
+        pack = out.toByteArray();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void installedTableMatchesLiveComputation() throws IOException {
+        AlmanacPack installed = AlmanacPack.install(new ByteArrayInputStream(pack), dir);
+        assertEquals(2023, installed.getStartYear());
+        assertEquals(2024, installed.getEndYear());
+
+        AlmanacTable table = installed.getTable();
+        assertEquals(EpochDay.of(2023, 1, 1), table.getStartDay());
+        assertEquals(EpochDay.of(2024, 12, 31), table.getEndDay());
+        for (int day = table.getStartDay(); day <= table.getEndDay(); day += 7) {
+            int ymd = EpochDay.toYmd(day);
+            DayAlmanac expected = DayAlmanac.compute(ymd / 10000, ymd / 100 % 100, ymd % 100);
+            DayAlmanac actual = table.decode(day);
+            assertEquals(expected.getLunarText(), actual.getLunarText());
+            assertEquals(expected.getGanZhiText(), actual.getGanZhiText());
+            assertEquals(expected.getPrevJie(), actual.getPrevJie());
+            assertEquals(expected.getJiRi(), actual.getJiRi());
+            assertEquals(expected.getYi(), actual.getYi());
+            assertEquals(expected.getJi(), actual.getJi());
+        }
+    }
+
+    @Test
+    public void termAndMonthSectionsRoundTrip() throws IOException {
+        AlmanacPack installed = AlmanacPack.install(new ByteArrayInputStream(pack), dir);
+
+        SolarTermTable.Data terms = SolarTermTable.decode(installed.termSection());
+        assertEquals(SolarTermTable.size(), terms.instants.length);
+        for (int i = 0; i < terms.instants.length; i++) {
+            assertEquals(SolarTermTable.instantAt(i), terms.instants[i]);
+            assertEquals(SolarTermTable.termAt(i), terms.terms[i]);
+        }
+
+        LunarMonthTable.Data months = LunarMonthTable.decode(installed.monthSection());
+        assertEquals(LunarMonthTable.size(), months.years.length);
+        for (int i = 0; i < months.years.length; i++) {
+            assertEquals(LunarMonthTable.startDayAt(i), months.startDays[i]);
+            assertEquals(LunarMonthTable.yearAt(i), months.years[i]);
+            assertEquals(LunarMonthTable.monthAt(i), months.months[i]);
+        }
+        assertEquals(LunarMonthTable.startDayAt(months.years.length), months.startDays[months.years.length]);
+    }
+
+    @Test
+    public void reinstallReusesDataAndRemovesStaleFiles() throws IOException {
+        File stale = new File(dir, "almanac_table.bin");
+        assertTrue(stale.createNewFile());
+        AlmanacPack.install(new ByteArrayInputStream(pack), dir);
+        assertFalse(stale.exists());
+
+        File[] files = dir.listFiles();
+        assertEquals(1, files.length);
+        long modified = files[0].lastModified();
+        assertTrue(files[0].setLastModified(modified - 10000));
+        AlmanacPack.install(new ByteArrayInputStream(pack), dir);
+        assertEquals(modified - 10000, files[0].lastModified());
+    }
+
+    @Test
+    public void corruptedInstalledDataIsUnpackedAgain() throws IOException {
+        AlmanacPack.install(new ByteArrayInputStream(pack), dir);
+        File installed = dir.listFiles()[0];
+        byte[] original = Files.readAllBytes(installed.toPath());
+
+        // 截断后补齐到原长度：长度相同，内容已坏
+        byte[] padded = new byte[original.length];
+        System.arraycopy(original, 0, padded, 0, original.length / 2);
+        Files.write(installed.toPath(), padded);
+
+        AlmanacPack reinstalled = AlmanacPack.install(new ByteArrayInputStream(pack), dir);
+        assertArrayEquals(original, Files.readAllBytes(installed.toPath()));
+        int day = reinstalled.getTable().getEndDay();
+        int ymd = EpochDay.toYmd(day);
+        assertEquals(DayAlmanac.compute(ymd / 10000, ymd / 100 % 100, ymd % 100).getLunarText(),
+                reinstalled.getTable().decode(day).getLunarText());
+        assertEquals(1, dir.listFiles().length);
+    }
+
+    @Test
+    public void corruptedPackIsRejected() {
+        byte[] corrupted = pack.clone();
+        corrupted[corrupted.length / 2] ^= 0x5A;
+        try {
+            AlmanacPack.install(new ByteArrayInputStream(corrupted), dir);
+            fail("corrupted pack should be rejected");
+        } catch (IOException expected) {
+            // 解压失败或校验和不符
+        }
+        assertEquals(0, dir.listFiles().length);
+
+        byte[] wrongVersion = pack.clone();
+        wrongVersion[7] = 99;
+        try {
+            AlmanacPack.install(new ByteArrayInputStream(wrongVersion), dir);
+            fail("unknown pack version should be rejected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("version"));
+        }
+    }
+}
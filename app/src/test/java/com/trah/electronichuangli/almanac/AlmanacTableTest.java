@@ -0,0 +1,119 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * AlmanacTable 单元测试
+ */
+public class AlmanacTableTest {
+
+    private static byte[] bytes;
+    private static AlmanacTable table;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        bytes = AlmanacTableWriter.encode(2023, 2023, RangeComputation.sequential());
+        table = AlmanacTable.parse(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    public void headerDescribesFixedSizeRecordsAtTheEnd() {
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        assertEquals(AlmanacTable.MAGIC, header.getInt());
+        assertEquals(AlmanacTable.FORMAT_VERSION, header.getInt());
+        assertEquals(EpochDay.of(2023, 1, 1), header.getInt());
+        assertEquals(365, header.getInt());
+        assertEquals(AlmanacTable.RECORD_SIZE, header.getInt());
+        int recordsOffset = header.getInt();
+        assertEquals(bytes.length, recordsOffset + 365 * AlmanacTable.RECORD_SIZE);
+    }
+
+    @Test
+    public void recordFieldsSitAtTheirOffsets() {
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        header.position(20);
+        int recordsOffset = header.getInt();
+
+        // 2023-03-22 为闰二月初一，农历月按负数存储
+        int day = EpochDay.of(2023, 3, 22);
+        int base = recordsOffset + (day - table.getStartDay()) * AlmanacTable.RECORD_SIZE;
+        ByteBuffer record = ByteBuffer.wrap(bytes);
+        assertEquals(2023, record.getShort(base + AlmanacTable.OFF_LUNAR_YEAR));
+        assertEquals(-2, record.get(base + AlmanacTable.OFF_LUNAR_MONTH));
+        assertEquals(1, record.get(base + AlmanacTable.OFF_LUNAR_DAY));
+        assertEquals(table.yearGanZhi(day), record.get(base + AlmanacTable.OFF_YEAR_GZ));
+        assertEquals(table.monthGanZhi(day), record.get(base + AlmanacTable.OFF_MONTH_GZ));
+        assertEquals(GanZhiEngine.dayGanZhi(day), record.get(base + AlmanacTable.OFF_DAY_GZ));
+        assertEquals(GanZhiEngine.chongZhi(day), record.get(base + AlmanacTable.OFF_CHONG_ZHI));
+        assertEquals("二〇二三年闰二月初一", table.lunarText(day));
+    }
+
+    @Test
+    public void everyDayMatchesLunarLibrary() {
+        for (int day = table.getStartDay(); day <= table.getEndDay(); day++) {
+            int ymd = EpochDay.toYmd(day);
+            Solar solar = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100);
+            Lunar lunar = solar.getLunar();
+            String at = solar.toYmd();
+            assertEquals(at, lunar.getYear(), table.lunarYear(day));
+            assertEquals(at, lunar.getMonth(), table.lunarMonth(day));
+            assertEquals(at, lunar.getDay(), table.lunarDay(day));
+            assertEquals(at, lunar.toString(), table.lunarText(day));
+            assertEquals(at, lunar.getYearInGanZhi(), GanZhi.text(table.yearGanZhi(day)));
+            assertEquals(at, lunar.getMonthInGanZhi(), GanZhi.text(table.monthGanZhi(day)));
+            assertEquals(at, lunar.getDayInGanZhi(), GanZhi.text(table.dayGanZhi(day)));
+            assertEquals(at, lunar.getDayChong(), GanZhi.ZHI[table.chongZhi(day)]);
+            assertEquals(at, solar.getXingZuo(), table.star(day));
+            assertEquals(at, lunar.getYearNaYin(), table.naYin(day));
+            assertEquals(at, lunar.getDayYi(), Arrays.asList(table.yi(day)));
+            assertEquals(at, lunar.getDayJi(), Arrays.asList(table.ji(day)));
+        }
+    }
+
+    @Test
+    public void coversExactlyTheEncodedYears() {
+        int first = EpochDay.of(2023, 1, 1);
+        int last = EpochDay.of(2023, 12, 31);
+        assertEquals(first, table.getStartDay());
+        assertEquals(last, table.getEndDay());
+        assertTrue(table.covers(first));
+        assertTrue(table.covers(last));
+        assertFalse(table.covers(first - 1));
+        assertFalse(table.covers(last + 1));
+        assertFalse(table.covers(Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void truncatedOrForeignDataIsRejected() {
+        try {
+            AlmanacTable.parse(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1)));
+            fail("truncated table should be rejected");
+        } catch (IOException expected) {
+            // 记录区不完整
+        }
+        try {
+            AlmanacTable.parse(ByteBuffer.wrap(Arrays.copyOf(bytes, 100)));
+            fail("table cut inside the pools should be rejected");
+        } catch (IOException expected) {
+            // 文本池读到一半
+        }
+        byte[] foreign = bytes.clone();
+        foreign[0] = 0;
+        try {
+            AlmanacTable.parse(ByteBuffer.wrap(foreign));
+            fail("wrong magic should be rejected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("not an almanac table"));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * ClashFilter 单元测试
+ */
+public class ClashFilterTest {
+
+    @Test
+    public void clashesExactlyWhenDayChongMatchesAnyProfile() {
+        int rat = 0;
+        int horse = 6;
+        ClashFilter filter = ClashFilter.of(rat, horse, rat);
+        assertEquals(1 << rat | 1 << horse, filter.getZhiMask());
+        for (int dayGanZhi = 0; dayGanZhi < 60; dayGanZhi++) {
+            int chong = GanZhiEngine.chongZhiOf(dayGanZhi);
+            assertEquals(chong == rat || chong == horse, filter.clashes(dayGanZhi));
+        }
+    }
+
+    @Test
+    public void emptyFilterKeepsEveryDay() {
+        assertSame(ClashFilter.NONE, ClashFilter.of());
+        assertTrue(ClashFilter.NONE.isEmpty());
+        for (int dayGanZhi = 0; dayGanZhi < 60; dayGanZhi++) {
+            assertFalse(ClashFilter.NONE.clashes(dayGanZhi));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidZhi() {
+        ClashFilter.of(12);
+    }
+
+    @Test
+    public void agreesWithDayQueryOnAttributeMatrix() {
+        int from = EpochDay.of(2026, 1, 1);
+        int to = EpochDay.of(2027, 12, 31);
+        ClashFilter filter = ClashFilter.of(2, 9);
+        DayAttributeMatrix matrix = DayAttributeMatrix.build(from, to);
+        int[] days = filter.toQuery().run(matrix, from, to, Integer.MAX_VALUE).getDays();
+
+        int expected = 0;
+        for (int day = from; day <= to; day++) {
+            if (!filter.clashes(GanZhiEngine.dayGanZhi(day))) {
+                assertEquals(day, days[expected++]);
+            }
+        }
+        assertEquals(expected, days.length);
+    }
+
+    @Test
+    public void describesExcludedZodiacs() {
+        assertEquals("避冲属鼠、属马", ClashFilter.of(6, 0).toString());
+        assertEquals("不避冲", ClashFilter.NONE.toString());
+    }
+}
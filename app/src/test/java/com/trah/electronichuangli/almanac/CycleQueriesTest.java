@@ -0,0 +1,78 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * CycleQueries 单元测试，与逐日扫描的结果对比
+ */
+public class CycleQueriesTest {
+
+    private static int scan(int fromDay, long ganZhiMask, int zhiXingMask) {
+        for (int day = fromDay; day < fromDay + 3660; day++) {
+            int dayGanZhi = GanZhiEngine.dayGanZhi(day);
+            int zhiXing = GanZhiEngine.zhiXing(SolarTermTable.monthGanZhiOf(day), dayGanZhi);
+            if ((ganZhiMask & (1L << dayGanZhi)) != 0 && (zhiXingMask & (1 << zhiXing)) != 0) {
+                return day;
+            }
+        }
+        return CycleQueries.NOT_FOUND;
+    }
+
+    @Test
+    public void ganZhiMasksMatchScan() {
+        Random random = new Random(15);
+        for (int i = 0; i < 5000; i++) {
+            int from = EpochDay.of(1950, 1, 1) + random.nextInt(40000);
+            long mask = random.nextLong() & random.nextLong() & CycleQueries.ALL_DAYS;
+            if (mask == 0) {
+                continue;
+            }
+            assertEquals(scan(from, mask, CycleQueries.ALL_ZHI_XING), CycleQueries.next(from, mask));
+        }
+    }
+
+    @Test
+    public void singleGanZhiAndChong() {
+        int from = EpochDay.of(2026, 10, 17);
+        for (int ganZhi = 0; ganZhi < 60; ganZhi++) {
+            int day = CycleQueries.next(from, CycleQueries.ganZhiMask(ganZhi));
+            assertEquals(ganZhi, GanZhiEngine.dayGanZhi(day));
+            assertTrue(day >= from && day < from + 60);
+        }
+        for (int zhi = 0; zhi < 12; zhi++) {
+            int day = CycleQueries.nextNotChong(from, zhi);
+            assertNotEquals(zhi, GanZhiEngine.chongZhi(day));
+            assertTrue(day <= from + 1);
+        }
+        assertEquals(CycleQueries.NOT_FOUND, CycleQueries.next(from, 0L));
+    }
+
+    @Test
+    public void zhiXingMatchesScan() {
+        Random random = new Random(16);
+        for (int i = 0; i < 5000; i++) {
+            int from = EpochDay.of(1950, 1, 1) + random.nextInt(40000);
+            long mask = random.nextInt(4) == 0 ? CycleQueries.ALL_DAYS : random.nextLong() & CycleQueries.ALL_DAYS;
+            int zhiXing = random.nextInt(CycleQueries.ALL_ZHI_XING) + 1;
+            assertEquals(scan(from, mask, zhiXing), CycleQueries.next(from, mask, zhiXing));
+        }
+    }
+
+    @Test
+    public void zhiXingAgreesWithLunarLibrary() {
+        int from = EpochDay.of(2026, 1, 1);
+        for (int k = 0; k < 12; k++) {
+            int day = CycleQueries.nextWithZhiXing(from, k);
+            int ymd = EpochDay.toYmd(day);
+            Lunar lunar = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100).getLunar();
+            assertEquals(GanZhiEngine.ZHI_XING[k], lunar.getZhiXing());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.JieQi;
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * DayAlmanac 单元测试
+ */
+public class DayAlmanacTest {
+
+    private static String nameOf(JieQi jieQi) {
+        return jieQi != null ? jieQi.getName() : "";
+    }
+
+    private static void assertMatchesLunar(int year, int month, int day) {
+        Solar solar = new Solar(year, month, day);
+        Lunar lunar = solar.getLunar();
+        DayAlmanac almanac = DayAlmanac.compute(year, month, day);
+        String at = solar.toYmd();
+
+        assertEquals(at, EpochDay.of(year, month, day), almanac.getEpochDay());
+        assertEquals(at, year, almanac.getYear());
+        assertEquals(at, month, almanac.getMonth());
+        assertEquals(at, day, almanac.getDay());
+        assertEquals(at, lunar.getYear(), almanac.getLunarYear());
+        assertEquals(at, lunar.getMonth(), almanac.getLunarMonth());
+        assertEquals(at, lunar.getDay(), almanac.getLunarDay());
+        assertEquals(at, lunar.toString(), almanac.getLunarText());
+        assertEquals(at, lunar.getYearInGanZhi() + "年 " + lunar.getMonthInGanZhi() + "月 "
+                + lunar.getDayInGanZhi() + "日", almanac.getGanZhiText());
+        assertEquals(at, lunar.getYearShengXiao(), almanac.getShengXiao());
+        assertEquals(at, lunar.getDayChong(), GanZhi.ZHI[almanac.getChongZhi()]);
+        assertEquals(at, lunar.getDayChongShengXiao(), almanac.getChongShengXiao());
+        assertEquals(at, solar.getXingZuo(), almanac.getStar());
+        assertEquals(at, lunar.getYearNaYin(), almanac.getNaYin());
+        assertEquals(at, nameOf(lunar.getPrevJie()), almanac.getPrevJie());
+        assertEquals(at, nameOf(lunar.getNextJie()), almanac.getNextJie());
+        assertEquals(at, lunar.getDayYi(), almanac.getYi());
+        assertEquals(at, lunar.getDayJi(), almanac.getJi());
+        assertTrue(at, almanac.hasFields(DayField.ALL));
+    }
+
+    @Test
+    public void computeMatchesLunarAcrossTableRange() {
+        // 步长取质数，各年份落在不同的月日上
+        for (int epochDay = EpochDay.of(1900, 1, 31); epochDay <= EpochDay.of(2100, 12, 31); epochDay += 29) {
+            int ymd = EpochDay.toYmd(epochDay);
+            assertMatchesLunar(ymd / 10000, ymd / 100 % 100, ymd % 100);
+        }
+    }
+
+    @Test
+    public void computeMatchesLunarOutsideTables() {
+        assertMatchesLunar(1899, 6, 15);
+        assertMatchesLunar(2101, 2, 1);
+        assertMatchesLunar(2150, 8, 8);
+    }
+
+    @Test
+    public void leapMonthAndTermDays() {
+        // 闰二月初一
+        assertMatchesLunar(2023, 3, 22);
+        DayAlmanac leap = DayAlmanac.compute(2023, 3, 22);
+        assertEquals(-2, leap.getLunarMonth());
+        assertEquals("二〇二三年闰二月初一", leap.getLunarText());
+
+        // 立春当天换月干支，但年干支仍以春节为界
+        assertMatchesLunar(2024, 2, 3);
+        assertMatchesLunar(2024, 2, 4);
+        assertMatchesLunar(2024, 2, 9);
+        assertMatchesLunar(2024, 2, 10);
+    }
+
+    @Test
+    public void jiRiPrefersFestivalsThenYiCount() {
+        assertEquals("春节", DayAlmanac.compute(2024, 2, 10).getJiRi());
+        for (int epochDay = EpochDay.of(2024, 1, 1); epochDay <= EpochDay.of(2024, 12, 31); epochDay++) {
+            int ymd = EpochDay.toYmd(epochDay);
+            Lunar lunar = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100).getLunar();
+            String jiRi = DayAlmanac.compute(ymd / 10000, ymd / 100 % 100, ymd % 100).getJiRi();
+            List<String> yi = lunar.getDayYi();
+            if (!lunar.getFestivals().isEmpty()) {
+                assertTrue(jiRi.startsWith(lunar.getFestivals().get(0)));
+            } else if (!lunar.getOtherFestivals().isEmpty()) {
+                assertTrue(jiRi.startsWith(lunar.getOtherFestivals().get(0)));
+            } else if (yi.size() >= 6) {
+                assertEquals("诸事皆宜", jiRi);
+            } else if (yi.contains("嫁娶") || yi.contains("开市") || yi.contains("出行")) {
+                assertEquals("黄道吉日", jiRi);
+            } else {
+                assertEquals("", jiRi);
+            }
+        }
+    }
+
+    @Test
+    public void yiAndJiAreReadOnly() {
+        DayAlmanac almanac = DayAlmanac.compute(2024, 6, 1);
+        try {
+            almanac.getYi().add("祭祀");
+            fail("yi should be read-only");
+        } catch (UnsupportedOperationException expected) {
+            // 只读视图
+        }
+        try {
+            almanac.getJi().clear();
+            fail("ji should be read-only");
+        } catch (UnsupportedOperationException expected) {
+            // 只读视图
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * DayCacheSnapshot 单元测试
+ */
+public class DayCacheSnapshotTest {
+
+    private File dir;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("day-cache-snapshot").toFile();
+        file = new File(dir, "day_cache.snapshot");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static List<DayAlmanac> sampleDays() {
+        List<DayAlmanac> days = new ArrayList<>();
+        int start = EpochDay.of(2024, 2, 1);
+        for (int i = 0; i < 40; i++) {
+            int ymd = EpochDay.toYmd(start + i);
+            days.add(DayAlmanac.compute(ymd / 10000, ymd / 100 % 100, ymd % 100));
+        }
+        return days;
+    }
+
+    @Test
+    public void roundTripPreservesEveryField() throws IOException {
+        List<DayAlmanac> days = sampleDays();
+        DayCacheSnapshot.write(file, 3, 0x1234ABCDL, days);
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        List<DayAlmanac> restored = DayCacheSnapshot.read(file, 3, 0x1234ABCDL);
+        assertEquals(days.size(), restored.size());
+        for (int i = 0; i < days.size(); i++) {
+            DayAlmanac expected = days.get(i);
+            DayAlmanac actual = restored.get(i);
+            assertEquals(expected.getEpochDay(), actual.getEpochDay());
+            assertEquals(expected.getSolarText(), actual.getSolarText());
+            assertEquals(expected.getLunarYear(), actual.getLunarYear());
+            assertEquals(expected.getLunarMonth(), actual.getLunarMonth());
+            assertEquals(expected.getLunarDay(), actual.getLunarDay());
+            assertEquals(expected.getLunarText(), actual.getLunarText());
+            assertEquals(expected.getGanZhiText(), actual.getGanZhiText());
+            assertEquals(expected.getChongZhi(), actual.getChongZhi());
+            assertEquals(expected.getStar(), actual.getStar());
+            assertEquals(expected.getNaYin(), actual.getNaYin());
+            assertEquals(expected.getPrevJie(), actual.getPrevJie());
+            assertEquals(expected.getNextJie(), actual.getNextJie());
+            assertEquals(expected.getJiRi(), actual.getJiRi());
+            assertEquals(expected.getYi(), actual.getYi());
+            assertEquals(expected.getJi(), actual.getJi());
+            assertEquals(DayField.ALL, actual.getFields());
+        }
+        assertTrue("snapshot should stay small: " + file.length(), file.length() < 8 * 1024);
+    }
+
+    @Test
+    public void versionChangeInvalidatesSnapshot() throws IOException {
+        DayCacheSnapshot.write(file, 3, 7, sampleDays());
+        assertTrue(DayCacheSnapshot.read(file, 4, 7).isEmpty());
+        assertFalse(file.exists());
+
+        DayCacheSnapshot.write(file, 3, 7, sampleDays());
+        assertTrue(DayCacheSnapshot.read(file, 3, 8).isEmpty());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void corruptedOrMissingSnapshotIsEmpty() throws IOException {
+        assertTrue(DayCacheSnapshot.read(file, 1, 1).isEmpty());
+
+        DayCacheSnapshot.write(file, 1, 1, sampleDays());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() / 2);
+            int b = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(b ^ 0x40);
+        }
+        assertTrue(DayCacheSnapshot.read(file, 1, 1).isEmpty());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void projectionsAreNotSaved() throws IOException {
+        List<DayAlmanac> days = new ArrayList<>();
+        days.add(DayAlmanac.compute(2024, 5, 1, DayField.LUNAR | DayField.YI_JI));
+        days.add(DayAlmanac.compute(2024, 5, 2));
+        DayCacheSnapshot.write(file, 1, 1, days);
+
+        List<DayAlmanac> restored = DayCacheSnapshot.read(file, 1, 1);
+        assertEquals(1, restored.size());
+        assertEquals(EpochDay.of(2024, 5, 2), restored.get(0).getEpochDay());
+    }
+}
@@ -0,0 +1,93 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * DayCache 单元测试
+ */
+public class DayCacheTest {
+
+    private static DayAlmanac day(int epochDay) {
+        return new DayAlmanac(epochDay, 1970, 1, 1, 1969, 11, 24, "",
+                0, 0, 0, 0, "", "", "", "", "", null, null);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        DayCache cache = new DayCache(2);
+        cache.put(1, day(1));
+        cache.put(2, day(2));
+        assertNotNull(cache.get(1));
+        cache.put(3, day(3));
+
+        assertNull(cache.get(2));
+        assertEquals(1, cache.get(1).getEpochDay());
+        assertEquals(3, cache.get(3).getEpochDay());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void snapshotAndPeekDoNotTouchOrder() {
+        DayCache cache = new DayCache(3);
+        cache.put(1, day(1));
+        cache.put(2, day(2));
+        cache.put(3, day(3));
+        assertEquals(2, cache.peek(2).getEpochDay());
+        assertNull(cache.peek(4));
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+
+        DayAlmanac[] snapshot = cache.snapshot();
+        assertEquals(3, snapshot.length);
+        assertEquals(3, snapshot[0].getEpochDay());
+        assertEquals(1, snapshot[2].getEpochDay());
+
+        // peek没有把2提前，淘汰的仍是最久未使用的1
+        cache.put(4, day(4));
+        assertNull(cache.peek(1));
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        DayCache cache = new DayCache(4);
+        assertNull(cache.get(10));
+        cache.put(10, day(10));
+        cache.get(10);
+        cache.get(10);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void matchesReferenceLruUnderRandomAccess() {
+        final int capacity = 37;
+        DayCache cache = new DayCache(capacity);
+        Map<Integer, DayAlmanac> reference = new LinkedHashMap<Integer, DayAlmanac>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, DayAlmanac> eldest) {
+                return size() > capacity;
+            }
+        };
+
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // 包含负数纪元日（1970年以前）
+            int key = random.nextInt(120) - 40;
+            if (random.nextBoolean()) {
+                assertSame(reference.get(key), cache.get(key));
+            } else {
+                DayAlmanac value = day(key);
+                reference.put(key, value);
+                cache.put(key, value);
+            }
+            assertEquals(reference.size(), cache.size());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.JieQi;
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * DayCursor 单元测试
+ * 逐日递推的结果与lunar库 Solar.next(1) 逐日换算的结果对照
+ */
+public class DayCursorTest {
+
+    private static String nameOf(JieQi jieQi) {
+        return jieQi != null ? jieQi.getName() : "";
+    }
+
+    /**
+     * 游标与Solar.next(1)并排前进，逐日比较所有递推字段
+     * @return 游标的完整换算次数
+     */
+    private static int walk(int fromYear, int fromMonth, int fromDay, int days) {
+        Solar solar = new Solar(fromYear, fromMonth, fromDay);
+        int from = EpochDay.of(fromYear, fromMonth, fromDay);
+        DayCursor cursor = new DayCursor(from, from + days - 1);
+        for (int i = 0; i < days; i++, solar = solar.next(1), cursor.next()) {
+            Lunar lunar = solar.getLunar();
+            String at = solar.toYmd();
+            assertTrue(at, cursor.hasCurrent());
+            assertEquals(at, EpochDay.of(solar.getYear(), solar.getMonth(), solar.getDay()), cursor.getEpochDay());
+            assertEquals(at, lunar.getYear(), cursor.getLunarYear());
+            assertEquals(at, lunar.getMonth(), cursor.getLunarMonth());
+            assertEquals(at, lunar.getDay(), cursor.getLunarDay());
+            assertEquals(at, lunar.getYearInGanZhi(), GanZhi.text(cursor.getYearGanZhi()));
+            assertEquals(at, lunar.getMonthInGanZhi(), GanZhi.text(cursor.getMonthGanZhi()));
+            assertEquals(at, lunar.getDayInGanZhi(), GanZhi.text(cursor.getDayGanZhi()));
+            assertEquals(at, lunar.getDayChong(), GanZhi.ZHI[cursor.getChongZhi()]);
+            assertEquals(at, nameOf(lunar.getPrevJie()), cursor.getPrevJie());
+            assertEquals(at, nameOf(lunar.getNextJie()), cursor.getNextJie());
+            assertEquals(at, lunar.getZhiXing(), GanZhiEngine.ZHI_XING[cursor.getZhiXing()]);
+            assertEquals(at, lunar.getDayYi(), Arrays.asList(YiJiTable.yiWords(cursor.getYiJiCombo())));
+        }
+        assertFalse(cursor.hasCurrent());
+        return cursor.getReseedCount();
+    }
+
+    @Test
+    public void leapMonthYearMatchesSolarNext() {
+        // 2023年闰二月，全年13个农历月
+        int reseeds = walk(2023, 1, 1, 365);
+        // 每个农历月首换算一次，每个节当天和次日各换算一次，不会逐日换算
+        assertTrue("reseeds: " + reseeds, reseeds <= 13 + 2 * 12 + 1);
+    }
+
+    @Test
+    public void springFestivalAndLiChunMatchSolarNext() {
+        // 立春（2月4日）早于春节（2月10日）：月干支先换，年干支和农历年后换
+        walk(2024, 1, 20, 40);
+        // 春节（1月22日）早于立春（2月4日）
+        walk(2023, 1, 10, 40);
+    }
+
+    @Test
+    public void longMonthsAndShortMonthsMatchSolarNext() {
+        walk(2033, 1, 1, 2 * 366);
+    }
+
+    @Test
+    public void crossingTableEdgesMatchesSolarNext() {
+        // 月首表和节气表的末端之后改用lunar库换算，递推仍然连续
+        walk(2100, 10, 1, 200);
+        walk(1899, 11, 1, 150);
+    }
+
+    @Test
+    public void splitHalvesConcatenateToTheWholeRange() {
+        int from = EpochDay.of(2025, 1, 1);
+        int to = EpochDay.of(2025, 12, 31);
+        DayCursor whole = new DayCursor(from, to, day -> null);
+        DayCursor prefix = (DayCursor) whole.trySplit();
+        assertNotNull(prefix);
+
+        List<Integer> combos = new ArrayList<>();
+        for (DayCursor part : new DayCursor[]{prefix, whole}) {
+            for (; part.hasCurrent(); part.next()) {
+                combos.add(part.getEpochDay() * 1000 + part.getYiJiCombo());
+            }
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (DayCursor cursor = new DayCursor(from, to); cursor.hasCurrent(); cursor.next()) {
+            expected.add(cursor.getEpochDay() * 1000 + cursor.getYiJiCombo());
+        }
+        assertEquals(expected, combos);
+    }
+
+    @Test
+    public void emptyRangeHasNoCurrentDay() {
+        int day = EpochDay.of(2025, 6, 1);
+        DayCursor cursor = new DayCursor(day, day - 1);
+        assertFalse(cursor.hasCurrent());
+        assertEquals(0, cursor.estimateSize());
+        assertEquals(0, cursor.getReseedCount());
+    }
+}
@@ -0,0 +1,94 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 字段投影的正确性校验和各投影级别的耗时对比
+ * 耗时只断言查表投影与完整计算的相对代价，不依赖机器快慢
+ */
+public class DayFieldBenchmarkTest {
+
+    /** 不含吉日、可以完全查表的投影级别 */
+    private static final int[] TABLE_LEVELS = {
+        0,
+        DayField.YI_JI,
+        DayField.LUNAR | DayField.YI_JI,
+        DayField.LUNAR | DayField.YI_JI | DayField.JIE_QI | DayField.STAR | DayField.NA_YIN
+    };
+
+    /** 累加各轮的校验和，避免计算被优化掉 */
+    private static int sink;
+
+    @Test
+    public void projectedFieldsMatchFullCompute() {
+        int fromDay = EpochDay.of(1900, 1, 1);
+        int toDay = EpochDay.of(2100, 12, 31);
+        int projection = DayField.ALL & ~DayField.JI_RI;
+        for (int epochDay = fromDay; epochDay <= toDay; epochDay += 7) {
+            int ymd = EpochDay.toYmd(epochDay);
+            int year = ymd / 10000;
+            int month = ymd / 100 % 100;
+            int day = ymd % 100;
+            DayAlmanac full = DayAlmanac.compute(year, month, day);
+            DayAlmanac part = DayAlmanac.compute(year, month, day, projection);
+            String at = " @ " + ymd;
+
+            assertTrue(at, part.hasFields(projection));
+            assertFalse(at, part.hasFields(DayField.JI_RI));
+            assertEquals(at, full.getLunarText(), part.getLunarText());
+            assertEquals(at, full.getLunarMonth(), part.getLunarMonth());
+            assertEquals(at, full.getYearGanZhi(), part.getYearGanZhi());
+            assertEquals(at, full.getMonthGanZhi(), part.getMonthGanZhi());
+            assertEquals(at, full.getDayGanZhi(), part.getDayGanZhi());
+            assertEquals(at, full.getChongZhi(), part.getChongZhi());
+            assertEquals(at, full.getStar(), part.getStar());
+            assertEquals(at, full.getNaYin(), part.getNaYin());
+            assertEquals(at, full.getJieQiText(), part.getJieQiText());
+            assertEquals(at, full.getYi(), part.getYi());
+            assertEquals(at, full.getJi(), part.getJi());
+        }
+    }
+
+    @Test
+    public void jiRiFallsBackToFullCompute() {
+        DayAlmanac almanac = DayAlmanac.compute(2026, 2, 17, DayField.JI_RI);
+        assertTrue(almanac.hasFields(DayField.ALL));
+        assertTrue(almanac.getJiRi().contains("春节"));
+    }
+
+    @Test
+    public void tableProjectionsCostFarLessThanFullCompute() {
+        int fromDay = EpochDay.of(2020, 1, 1);
+        int days = 3 * 366;
+        long full = bestNanos(DayField.ALL, fromDay, days);
+        for (int fields : TABLE_LEVELS) {
+            long projected = bestNanos(fields, fromDay, days);
+            // 查表投影不调用lunar库的农历换算，实测相差三个数量级，这里只要求一个数量级
+            assertTrue(DayField.toString(fields) + ": " + projected + "ns vs " + full + "ns",
+                    projected * 10 < full);
+        }
+    }
+
+    /** 两轮中较快的一轮，第一轮同时用于预热查表和JIT */
+    private static long bestNanos(int fields, int fromDay, int days) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            sink += run(fields, fromDay, days);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static int run(int fields, int fromDay, int days) {
+        int checksum = 0;
+        for (int epochDay = fromDay; epochDay < fromDay + days; epochDay++) {
+            int ymd = EpochDay.toYmd(epochDay);
+            DayAlmanac almanac = DayAlmanac.compute(ymd / 10000, ymd / 100 % 100, ymd % 100, fields);
+            checksum += almanac.getDayGanZhi() + almanac.getYi().size();
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,89 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.*;
+
+/**
+ * DayPrefetcher 单元测试
+ */
+public class DayPrefetcherTest {
+
+    private static DayAlmanac day(int epochDay) {
+        return new DayAlmanac(epochDay, 1970, 1, 1, 1969, 11, 24, "",
+                0, 0, 0, 0, "", "", "", "", "", null, null);
+    }
+
+    @Test
+    public void offsetsAlternateOutwardFromCenter() {
+        int[] offsets = new int[7];
+        for (int step = 0; step < offsets.length; step++) {
+            offsets[step] = DayPrefetcher.offsetOf(step);
+        }
+        assertArrayEquals(new int[]{0, 1, -1, 2, -2, 3, -3}, offsets);
+    }
+
+    @Test
+    public void loadsWindowNearestFirstAndSkipsCachedDays() {
+        DayCache cache = new DayCache(32);
+        cache.put(100, day(100));
+        cache.put(99, day(99));
+        List<Integer> loads = new ArrayList<>();
+        DayPrefetcher prefetcher = new DayPrefetcher(Runnable::run, cache, 2, epochDay -> {
+            loads.add(epochDay);
+            return day(epochDay);
+        });
+
+        prefetcher.prefetch(100);
+
+        assertEquals(Arrays.asList(101, 102, 98), loads);
+        for (int d = 98; d <= 102; d++) {
+            assertNotNull(cache.peek(d));
+        }
+        assertEquals(3, prefetcher.getLoadedCount());
+        assertEquals(2, prefetcher.getSkippedCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void newSelectionCancelsPreviousPrefetch() {
+        Queue<Runnable> queue = new ArrayDeque<>();
+        DayCache cache = new DayCache(32);
+        List<Integer> loads = new ArrayList<>();
+        DayPrefetcher[] holder = new DayPrefetcher[1];
+        holder[0] = new DayPrefetcher(queue::add, cache, 3, epochDay -> {
+            loads.add(epochDay);
+            if (epochDay == 21) {
+                // 加载途中用户跳到了别的日期
+                holder[0].prefetch(500);
+            }
+            return day(epochDay);
+        });
+
+        holder[0].prefetch(10);
+        holder[0].prefetch(20);
+        while (!queue.isEmpty()) {
+            queue.poll().run();
+        }
+
+        // 10附近的任务还没开始就被20取代；20附近的任务加载完21后被500取代
+        assertEquals(Arrays.asList(20, 21, 500, 501, 499, 502, 498, 503, 497), loads);
+        assertNull(cache.peek(19));
+        assertEquals(2, holder[0].getCancelledCount());
+    }
+
+    @Test
+    public void failedLoadIsNotCached() {
+        DayCache cache = new DayCache(8);
+        DayPrefetcher prefetcher = new DayPrefetcher(Runnable::run, cache, 1, epochDay -> null);
+        prefetcher.prefetch(0);
+        assertEquals(0, cache.size());
+        assertEquals(0, prefetcher.getLoadedCount());
+    }
+}
@@ -0,0 +1,124 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.Holiday;
+import com.nlf.calendar.Solar;
+import com.nlf.calendar.util.HolidayUtil;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * DayQuery / DayAttributeMatrix 单元测试，与逐日判断的结果对比
+ */
+public class DayQueryTest {
+
+    private static DayAttributeMatrix matrix;
+
+    @BeforeClass
+    public static void buildMatrix() {
+        matrix = DayAttributeMatrix.build(EpochDay.of(1990, 1, 1), EpochDay.of(2060, 12, 31));
+    }
+
+    private static boolean yi(int day, String keyword) {
+        int combo = YiJiTable.combo(SolarTermTable.monthGanZhiOf(day), GanZhiEngine.dayGanZhi(day));
+        return YiJiTable.yiIntersects(combo, YiJiTable.maskContaining(keyword));
+    }
+
+    private static boolean ji(int day, String keyword) {
+        int combo = YiJiTable.combo(SolarTermTable.monthGanZhiOf(day), GanZhiEngine.dayGanZhi(day));
+        return YiJiTable.jiIntersects(combo, YiJiTable.maskContaining(keyword));
+    }
+
+    private static boolean isWeekend(int day) {
+        int ymd = EpochDay.toYmd(day);
+        int week = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100).getWeek();
+        return week == 0 || week == 6;
+    }
+
+    private static boolean isHoliday(int day) {
+        int ymd = EpochDay.toYmd(day);
+        Holiday holiday = HolidayUtil.getHoliday(ymd / 10000, ymd / 100 % 100, ymd % 100);
+        return holiday != null && !holiday.isWork();
+    }
+
+    @Test
+    public void plannerQueryMatchesScan() {
+        int zhi = 0;
+        DayQuery query = DayQuery.yi("嫁娶").and(DayQuery.yi("纳采"))
+                .and(DayQuery.ji("安葬").not())
+                .and(DayQuery.chong(zhi).not())
+                .and(DayQuery.weekend())
+                .and(DayQuery.holiday().not());
+        int from = EpochDay.of(2001, 3, 7);
+        int to = EpochDay.of(2024, 11, 20);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int day = from; day <= to; day++) {
+            if (yi(day, "嫁娶") && yi(day, "纳采") && !ji(day, "安葬")
+                    && GanZhiEngine.chongZhi(day) != zhi && isWeekend(day) && !isHoliday(day)) {
+                expected.add(day);
+            }
+        }
+        DayQuery.Result result = query.run(matrix, from, to, Integer.MAX_VALUE);
+        assertEquals(expected.size(), result.getDays().length);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals((int) expected.get(i), result.getDays()[i]);
+        }
+        assertEquals(to - from + 1, result.getEvaluatedDays());
+    }
+
+    @Test
+    public void orAndNotMatchScan() {
+        DayQuery query = DayQuery.yi("出行").or(DayQuery.holiday()).and(DayQuery.weekend().or(DayQuery.ji("动土")).not());
+        Random random = new Random(16);
+        for (int i = 0; i < 50; i++) {
+            int from = matrix.getStartDay() - 10 + random.nextInt(20000);
+            int to = from + random.nextInt(800);
+            List<Integer> expected = new ArrayList<>();
+            for (int day = Math.max(from, matrix.getStartDay()); day <= to; day++) {
+                if ((yi(day, "出行") || isHoliday(day)) && !(isWeekend(day) || ji(day, "动土"))) {
+                    expected.add(day);
+                }
+            }
+            int[] days = query.run(matrix, from, to, Integer.MAX_VALUE).getDays();
+            assertEquals(expected.toString(), Arrays.toString(days));
+        }
+    }
+
+    @Test
+    public void limitStopsEarly() {
+        int from = EpochDay.of(2020, 1, 1);
+        int to = EpochDay.of(2059, 12, 31);
+        DayQuery.Result all = DayQuery.all().run(matrix, from, to, 10);
+        assertArrayEquals(new int[]{from, from + 1, from + 2, from + 3, from + 4,
+                from + 5, from + 6, from + 7, from + 8, from + 9}, all.getDays());
+        assertTrue(all.getEvaluatedDays() <= DayQuery.BLOCK_WORDS * 64);
+
+        DayQuery.Result none = DayQuery.weekend().and(DayQuery.weekend().not()).run(matrix, from, to, 10);
+        assertEquals(0, none.getDays().length);
+        assertEquals(to - from + 1, none.getEvaluatedDays());
+
+        assertEquals(0, DayQuery.all().run(matrix, to, from, 10).getEvaluatedDays());
+    }
+
+    @Test
+    public void multiYearQueryIsFast() {
+        DayQuery query = DayQuery.yi("嫁娶").and(DayQuery.ji("安葬").not())
+                .and(DayQuery.chong(6).not()).and(DayQuery.weekend()).and(DayQuery.holiday().not());
+        int from = matrix.getStartDay();
+        int to = matrix.getEndDay();
+        query.run(matrix, from, to, Integer.MAX_VALUE);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 200; i++) {
+            best = Math.min(best, query.run(matrix, from, to, Integer.MAX_VALUE).getElapsedNanos());
+        }
+        assertTrue("70年组合查询: " + best / 1000 + "us", best < 5_000_000);
+    }
+}
@@ -0,0 +1,71 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * DayScorer 单元测试
+ */
+public class DayScorerTest {
+
+    private static final EventMask WEDDING = EventMask.compile("嫁娶", "纳采", "订盟");
+
+    @Test
+    public void onlySuitableCombosAreScored() {
+        DayScorer scorer = new DayScorer(WEDDING);
+        for (int combo = 0; combo < YiJiTable.COMBOS; combo++) {
+            assertEquals(WEDDING.matches(combo), scorer.isSuitable(combo));
+            int score = scorer.score(combo, 0, combo % 60);
+            assertEquals(WEDDING.matches(combo), score != DayScorer.UNSUITABLE);
+        }
+        assertFalse(new DayScorer(EventMask.NONE).isSuitable(0));
+    }
+
+    @Test
+    public void scoresAreDeterministic() {
+        DayScorer a = new DayScorer(WEDDING);
+        DayScorer b = new DayScorer(EventMask.compile("嫁娶", "纳采", "订盟"));
+        int from = EpochDay.of(2026, 1, 1);
+        for (DayCursor cursor = new DayCursor(from, from + 365); cursor.hasCurrent(); cursor.next()) {
+            assertEquals(a.score(cursor), b.score(cursor));
+        }
+    }
+
+    @Test
+    public void clashWithYearBranchLowersScore() {
+        DayScorer scorer = new DayScorer(WEDDING);
+        for (int combo = 0; combo < YiJiTable.COMBOS; combo++) {
+            if (!scorer.isSuitable(combo)) {
+                continue;
+            }
+            int dayGanZhi = combo % 60;
+            int clashedZhi = GanZhiEngine.chongZhiOf(dayGanZhi);
+            // 六十甲子索引0-11依次是子到亥，可直接当作地支为该索引的年干支
+            int clashedYear = clashedZhi;
+            int otherYear = (clashedZhi + 1) % 12;
+            assertTrue(scorer.score(combo, clashedYear, dayGanZhi) < scorer.score(combo, otherYear, dayGanZhi));
+        }
+    }
+
+    @Test
+    public void moreMatchingYiScoresHigherOtherwiseEqual() {
+        // 同一天只看"嫁娶"和同时看"嫁娶""纳采""订盟"：后者相关宜事更多，分数不低于前者
+        DayScorer narrow = new DayScorer(EventMask.compile("嫁娶"));
+        DayScorer broad = new DayScorer(WEDDING);
+        for (int combo = 0; combo < YiJiTable.COMBOS; combo++) {
+            if (narrow.isSuitable(combo) && broad.isSuitable(combo)
+                    && WEDDING.jiCount(combo) == EventMask.compile("嫁娶").jiCount(combo)) {
+                assertTrue(broad.score(combo, 0, combo % 60) >= narrow.score(combo, 0, combo % 60));
+            }
+        }
+    }
+
+    @Test
+    public void qualityFollowsThresholds() {
+        assertEquals("大吉", DayScorer.qualityOf(DayScorer.DA_JI_SCORE));
+        assertEquals("中吉", DayScorer.qualityOf(DayScorer.DA_JI_SCORE - 1));
+        assertEquals("中吉", DayScorer.qualityOf(DayScorer.ZHONG_JI_SCORE));
+        assertEquals("小吉", DayScorer.qualityOf(DayScorer.ZHONG_JI_SCORE - 1));
+    }
+}
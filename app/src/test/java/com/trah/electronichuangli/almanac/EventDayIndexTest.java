@@ -0,0 +1,120 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * EventDayIndex 单元测试
+ * 索引内容与逐日递推打分的结果对照
+ */
+public class EventDayIndexTest {
+
+    private static final DayScorer SCORER = new DayScorer(EventMask.compile("嫁娶", "纳采", "订盟"));
+
+    private static final int START = EpochDay.of(2023, 1, 1);
+    private static final int END = EpochDay.of(2025, 12, 31);
+
+    private static DayAttributeMatrix matrix;
+    private static EventDayIndex index;
+
+    @BeforeClass
+    public static void setUp() {
+        matrix = DayAttributeMatrix.build(START, END);
+        index = EventDayIndex.build(SCORER, matrix);
+    }
+
+    @Test
+    public void holdsEverySuitableDayWithItsScore() {
+        // 跨过闰二月（2023）和立春早于春节（2024）的年份，岁破随农历年切换
+        int i = 0;
+        for (DayCursor cursor = new DayCursor(START, END); cursor.hasCurrent(); cursor.next()) {
+            int score = SCORER.score(cursor);
+            if (score != DayScorer.UNSUITABLE) {
+                String at = String.valueOf(EpochDay.toYmd(cursor.getEpochDay()));
+                assertEquals(at, cursor.getEpochDay(), index.dayAt(i));
+                assertEquals(at, score, index.scoreAt(i++));
+            }
+        }
+        assertEquals(i, index.size());
+        assertTrue(index.size() > 100);
+    }
+
+    @Test
+    public void lowerBoundFindsFirstDayNotBefore() {
+        assertEquals(0, index.lowerBound(Integer.MIN_VALUE));
+        assertEquals(index.size(), index.lowerBound(END + 1));
+        for (int i = 1; i < index.size(); i++) {
+            assertEquals(i, index.lowerBound(index.dayAt(i)));
+            assertEquals(i, index.lowerBound(index.dayAt(i - 1) + 1));
+        }
+    }
+
+    @Test
+    public void coversOnlyTheMatrixRange() {
+        assertTrue(index.covers(START, END));
+        assertTrue(index.covers(START + 10, START + 9));
+        assertFalse(index.covers(START - 1, END));
+        assertFalse(index.covers(START, END + 1));
+    }
+
+    @Test
+    public void pagerReadsTheSamePagesFromTheIndex() {
+        ClashFilter clash = ClashFilter.of(3);
+        int from = EpochDay.of(2024, 2, 1);
+        int to = EpochDay.of(2025, 1, 31);
+        SuitableDayPager walked = new SuitableDayPager(SCORER, clash, from, to);
+        SuitableDayPager indexed = new SuitableDayPager(SCORER, index, clash, from, to);
+        int[] checks = {0};
+        while (walked.hasMore()) {
+            SuitableDayPager.Page expected = walked.next(15, () -> false);
+            SuitableDayPager.Page actual = indexed.next(15, () -> { checks[0]++; return false; });
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.dayAt(i), actual.dayAt(i));
+                assertEquals(expected.scoreAt(i), actual.scoreAt(i));
+            }
+            assertEquals(expected.getNextDay(), actual.getNextDay());
+            assertEquals(expected.hasMore(), actual.hasMore());
+            walked.commit(expected);
+            assertTrue(indexed.commit(actual));
+        }
+        assertFalse(indexed.hasMore());
+        // 只检查索引中的候选日，不逐日扫描
+        assertTrue("checks: " + checks[0], checks[0] <= index.lowerBound(to + 1) - index.lowerBound(from));
+    }
+
+    @Test
+    public void cacheScansAndShiftsOnTheIndex() {
+        ClashFilter clash = ClashFilter.of(0);
+        int from = EpochDay.of(2024, 3, 1);
+        SearchResultCache walked = new SearchResultCache(4, null);
+        SearchResultCache indexed = new SearchResultCache(4, null);
+        for (int shift = 0; shift <= 3; shift++) {
+            int[] checks = {0};
+            TopKDays expected = walked.rank("嫁娶", SCORER, from + shift, from + shift + 89, clash, 20, () -> false);
+            TopKDays actual = indexed.rank("嫁娶", SCORER, index, from + shift, from + shift + 89, clash, 20,
+                    () -> { checks[0]++; return false; });
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.dayAt(i), actual.dayAt(i));
+                assertEquals(expected.scoreAt(i), actual.scoreAt(i));
+            }
+            // 整段扫描和跨日补算都只看区间内的适宜日
+            int to = from + shift + 89;
+            int scanFrom = shift == 0 ? from : to;
+            assertEquals(index.lowerBound(to + 1) - index.lowerBound(scanFrom), checks[0]);
+        }
+        assertEquals(3, indexed.getShiftCount());
+    }
+
+    @Test
+    public void rangesOutsideTheIndexFallBackToTheCursor() {
+        int from = END - 30;
+        SuitableDayPager pager = new SuitableDayPager(SCORER, index, ClashFilter.NONE, from, END + 30);
+        int[] checks = {0};
+        pager.next(1000, () -> { checks[0]++; return false; });
+        assertEquals(61, checks[0]);
+    }
+}
@@ -0,0 +1,56 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * GanZhiEngine 单元测试，逐日与6tail/lunar-java交叉验证
+ */
+public class GanZhiEngineTest {
+
+    @Test
+    public void matchesLunarLibraryFrom1900To2100() {
+        int fromDay = EpochDay.of(1900, 1, 1);
+        int toDay = EpochDay.of(2100, 12, 31);
+        for (int epochDay = fromDay; epochDay <= toDay; epochDay++) {
+            int ymd = EpochDay.toYmd(epochDay);
+            Lunar lunar = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100).getLunar();
+            String at = " @ " + ymd;
+
+            int dayGanZhi = GanZhiEngine.dayGanZhi(epochDay);
+            assertEquals(lunar.getDayInGanZhi() + at, lunar.getDayInGanZhi(), GanZhi.text(dayGanZhi));
+            assertEquals(at, lunar.getDayGanIndex(), GanZhiEngine.dayGan(epochDay));
+            assertEquals(at, lunar.getDayZhiIndex(), GanZhiEngine.dayZhi(epochDay));
+            assertEquals(at, lunar.getDayChong(), GanZhi.ZHI[GanZhiEngine.chongZhi(epochDay)]);
+            assertTrue(at, GanZhiEngine.sha(epochDay).getLabel().endsWith(lunar.getDaySha()));
+
+            int monthGanZhi = GanZhi.of(lunar.getMonthGanIndex(), lunar.getMonthZhiIndex());
+            assertEquals(at, lunar.getZhiXing(), GanZhiEngine.zhiXingText(monthGanZhi, dayGanZhi));
+
+            int tianShen = GanZhiEngine.tianShen(monthGanZhi, dayGanZhi);
+            assertEquals(at, lunar.getDayTianShen(), GanZhiEngine.TIAN_SHEN[tianShen]);
+            assertEquals(at, "黄道".equals(lunar.getDayTianShenType()), GanZhiEngine.isHuangDao(tianShen));
+        }
+    }
+
+    @Test
+    public void nextDayWithGanZhiStaysWithinOneCycle() {
+        int from = EpochDay.of(2026, 1, 1);
+        for (int ganZhi = 0; ganZhi < 60; ganZhi++) {
+            int day = GanZhiEngine.nextDayWithGanZhi(from, ganZhi);
+            assertTrue(day >= from && day < from + 60);
+            assertEquals(ganZhi, GanZhiEngine.dayGanZhi(day));
+        }
+    }
+
+    @Test
+    public void handlesDaysBeforeEpoch() {
+        // 1969-12-31 为庚辰
+        assertEquals("庚辰", GanZhi.text(GanZhiEngine.dayGanZhi(-1)));
+        assertEquals(GanZhi.zhiIndexOf("戌"), GanZhiEngine.chongZhi(-1));
+    }
+}
@@ -0,0 +1,77 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * LunarMonthTable 单元测试，逐日与6tail/lunar-java交叉验证
+ */
+public class LunarMonthTableTest {
+
+    @Test
+    public void matchesLunarLibraryFrom1900To2100() {
+        int fromDay = EpochDay.of(1900, 1, 1);
+        int toDay = EpochDay.of(2100, 12, 31);
+        for (int epochDay = fromDay; epochDay <= toDay; epochDay++) {
+            int ymd = EpochDay.toYmd(epochDay);
+            Lunar lunar = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100).getLunar();
+            String at = " @ " + ymd;
+
+            int pos = LunarMonthTable.monthIndexOf(epochDay);
+            assertTrue(at, pos >= 0);
+            assertEquals(at, lunar.getYear(), LunarMonthTable.yearAt(pos));
+            assertEquals(at, lunar.getMonth(), LunarMonthTable.monthAt(pos));
+            assertEquals(at, lunar.getDay(), LunarMonthTable.lunarDayOf(epochDay, pos));
+            assertEquals(at, lunar.toString(), LunarMonthTable.textOf(epochDay));
+        }
+    }
+
+    @Test
+    public void monthsAreContiguous() {
+        for (int pos = 0; pos < LunarMonthTable.size(); pos++) {
+            int days = LunarMonthTable.dayCountAt(pos);
+            assertTrue(days == 29 || days == 30);
+            if (pos > 0) {
+                assertEquals(LunarMonthTable.startDayAt(pos - 1) + LunarMonthTable.dayCountAt(pos - 1),
+                        LunarMonthTable.startDayAt(pos));
+            }
+        }
+    }
+
+    @Test
+    public void reverseLookupMatchesLunarLibrary() {
+        for (int pos = 0; pos < LunarMonthTable.size(); pos++) {
+            int year = LunarMonthTable.yearAt(pos);
+            int month = LunarMonthTable.monthAt(pos);
+            for (int day = 1; day <= 30; day++) {
+                int epochDay = LunarMonthTable.toEpochDay(year, month, day);
+                if (day > LunarMonthTable.dayCountAt(pos)) {
+                    assertEquals(LunarMonthTable.NOT_FOUND, epochDay);
+                    continue;
+                }
+                Solar solar = Lunar.fromYmd(year, month, day).getSolar();
+                assertEquals(year + "/" + month + "/" + day,
+                        EpochDay.of(solar.getYear(), solar.getMonth(), solar.getDay()), epochDay);
+            }
+        }
+    }
+
+    @Test
+    public void missingLeapMonthIsNotFound() {
+        // 2023年闰二月，2024年没有闰月
+        assertEquals(2, LunarMonthTable.leapMonthOf(2023));
+        assertEquals(0, LunarMonthTable.leapMonthOf(2024));
+        assertEquals(LunarMonthTable.NOT_FOUND, LunarMonthTable.toEpochDay(2024, -2, 1));
+        assertEquals(EpochDay.of(2023, 3, 22), LunarMonthTable.toEpochDay(2023, -2, 1));
+    }
+
+    @Test
+    public void outsideTableReturnsMinusOne() {
+        assertEquals(-1, LunarMonthTable.monthIndexOf(EpochDay.of(1800, 1, 1)));
+        assertNull(LunarMonthTable.textOf(EpochDay.of(2200, 1, 1)));
+    }
+}
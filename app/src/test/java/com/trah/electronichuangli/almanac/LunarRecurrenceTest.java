@@ -0,0 +1,52 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * LunarRecurrence 单元测试
+ */
+public class LunarRecurrenceTest {
+
+    @Test
+    public void nextOccurrencesAreYearly() {
+        // 农历八月十五：2026-09-25，2027-09-15
+        LunarRecurrence midAutumn = new LunarRecurrence(8, 15);
+        int[] days = midAutumn.next(EpochDay.of(2026, 1, 1), 2);
+
+        assertArrayEquals(new int[] {EpochDay.of(2026, 9, 25), EpochDay.of(2027, 9, 15)}, days);
+        assertEquals(EpochDay.of(2026, 9, 25), midAutumn.next(EpochDay.of(2026, 9, 25)));
+        assertEquals(EpochDay.of(2027, 9, 15), midAutumn.next(EpochDay.of(2026, 9, 26)));
+    }
+
+    @Test
+    public void leapMonthFallsBackToRegularMonth() {
+        LunarRecurrence leap = new LunarRecurrence(-2, 10);
+
+        assertEquals(LunarMonthTable.toEpochDay(2023, -2, 10), leap.inYear(2023));
+        assertEquals(LunarMonthTable.toEpochDay(2024, 2, 10), leap.inYear(2024));
+    }
+
+    @Test
+    public void missingThirtiethDay() {
+        // 找一个只有29天的月份
+        int pos = LunarMonthTable.monthIndexOf(2026, 1);
+        while (LunarMonthTable.dayCountAt(pos) == 30) {
+            pos++;
+        }
+        int year = LunarMonthTable.yearAt(pos);
+        int month = LunarMonthTable.monthAt(pos);
+        int lastDay = LunarMonthTable.startDayAt(pos) + 28;
+
+        assertEquals(lastDay, new LunarRecurrence(month, 30).inYear(year));
+        assertEquals(LunarMonthTable.NOT_FOUND,
+                new LunarRecurrence(month, 30, LunarRecurrence.MissingDay.SKIP).inYear(year));
+    }
+
+    @Test
+    public void stopsAtEndOfTable() {
+        int[] days = new LunarRecurrence(1, 1).next(EpochDay.of(2099, 1, 1), 10);
+        assertEquals(2, days.length);
+    }
+}
@@ -0,0 +1,108 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * MultiEventSearch 单元测试
+ */
+public class MultiEventSearchTest {
+
+    private static final String[] EVENTS = {"结婚嫁娶", "搬家入宅"};
+
+    private static final DayScorer[] SCORERS = {
+        new DayScorer(EventMask.compile("嫁娶", "纳采", "订盟")),
+        new DayScorer(EventMask.compile("入宅", "移徙", "安床"))
+    };
+
+    private static final int FROM = EpochDay.of(2026, 1, 1);
+    private static final int TO = FROM + 365;
+
+    private static TopKDays rankAlone(DayScorer scorer, int limit, ClashFilter clash) {
+        TopKDays top = new TopKDays(limit);
+        for (DayCursor cursor = new DayCursor(FROM, TO); cursor.hasCurrent(); cursor.next()) {
+            if (scorer.isSuitable(cursor.getYiJiCombo()) && !clash.clashes(cursor.getDayGanZhi())) {
+                top.offer(cursor.getEpochDay(), scorer.score(cursor));
+            }
+        }
+        return top.sort();
+    }
+
+    private static void assertSameRanking(TopKDays expected, TopKDays actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.dayAt(i), actual.dayAt(i));
+            assertEquals(expected.scoreAt(i), actual.scoreAt(i));
+        }
+    }
+
+    @Test
+    public void perEventResultsMatchSingleEventSearch() {
+        MultiEventSearch.Result result = new MultiEventSearch(EVENTS, SCORERS)
+                .run(FROM, TO, 20, ClashFilter.NONE, () -> false);
+        assertEquals(2, result.getEventCount());
+        assertEquals(366, result.getScannedDays());
+        for (int e = 0; e < EVENTS.length; e++) {
+            assertEquals(EVENTS[e], result.getEventType(e));
+            assertSameRanking(rankAlone(SCORERS[e], 20, ClashFilter.NONE), result.getDays(e));
+        }
+    }
+
+    @Test
+    public void clashFilterAppliesToEveryEvent() {
+        ClashFilter clash = ClashFilter.of(0, 6);
+        MultiEventSearch.Result result = new MultiEventSearch(EVENTS, SCORERS).run(FROM, TO, 20, clash, () -> false);
+        for (int e = 0; e < EVENTS.length; e++) {
+            assertSameRanking(rankAlone(SCORERS[e], 20, clash), result.getDays(e));
+        }
+    }
+
+    @Test
+    public void daysForAllAreSuitableForEveryEventAndRankedByWeakestScore() {
+        MultiEventSearch.Result result = new MultiEventSearch(EVENTS, SCORERS)
+                .run(FROM, TO, 10, ClashFilter.NONE, () -> false);
+        TopKDays together = result.getDaysForAll();
+        assertTrue(together.size() > 0);
+        assertTrue(together.size() <= 10);
+
+        int previous = Integer.MAX_VALUE;
+        for (int i = 0; i < together.size(); i++) {
+            int day = together.dayAt(i);
+            DayCursor cursor = new DayCursor(day, day);
+            int weakest = Integer.MAX_VALUE;
+            for (DayScorer scorer : SCORERS) {
+                assertTrue(scorer.isSuitable(cursor.getYiJiCombo()));
+                weakest = Math.min(weakest, scorer.score(cursor));
+            }
+            assertEquals(weakest, together.scoreAt(i));
+            assertTrue(together.scoreAt(i) <= previous);
+            previous = together.scoreAt(i);
+        }
+    }
+
+    @Test
+    public void singleEventTogetherEqualsItsOwnRanking() {
+        MultiEventSearch.Result result = new MultiEventSearch(new String[]{EVENTS[0]}, new DayScorer[]{SCORERS[0]})
+                .run(FROM, TO, 15, ClashFilter.NONE, () -> false);
+        assertSameRanking(result.getDays(0), result.getDaysForAll());
+    }
+
+    @Test
+    public void cancelStopsScanEarly() {
+        int[] checks = {0};
+        MultiEventSearch.Result result = new MultiEventSearch(EVENTS, SCORERS)
+                .run(FROM, TO, 20, ClashFilter.NONE, () -> ++checks[0] > 30);
+        assertEquals(30, result.getScannedDays());
+        for (int e = 0; e < EVENTS.length; e++) {
+            for (int i = 0; i < result.getDays(e).size(); i++) {
+                assertTrue(result.getDays(e).dayAt(i) < FROM + 30);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchedArgumentsAreRejected() {
+        new MultiEventSearch(EVENTS, new DayScorer[]{SCORERS[0]});
+    }
+}
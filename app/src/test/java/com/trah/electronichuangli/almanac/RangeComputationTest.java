@@ -0,0 +1,58 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * RangeComputation 单元测试
+ */
+public class RangeComputationTest {
+
+    private static long[] sum(int fromDay, int toDay) {
+        long total = 0;
+        for (int day = fromDay; day <= toDay; day++) {
+            total += day;
+        }
+        return new long[] {fromDay, toDay, total};
+    }
+
+    @Test
+    public void chunksCoverRangeInOrder() {
+        List<long[]> chunks = new RangeComputation(null, 10).map(-5, 27, RangeComputationTest::sum);
+
+        assertEquals(4, chunks.size());
+        long next = -5;
+        for (long[] chunk : chunks) {
+            assertEquals(next, chunk[0]);
+            next = chunk[1] + 1;
+        }
+        assertEquals(28, next);
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        int from = EpochDay.of(2000, 1, 1);
+        int to = EpochDay.of(2009, 12, 31);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<long[]> sequential = new RangeComputation(null, 37).map(from, to, RangeComputationTest::sum);
+            List<long[]> parallel = new RangeComputation(pool, 37).map(from, to, RangeComputationTest::sum);
+
+            assertEquals(sequential.size(), parallel.size());
+            for (int i = 0; i < sequential.size(); i++) {
+                assertArrayEquals(sequential.get(i), parallel.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void emptyRange() {
+        assertTrue(RangeComputation.parallel().map(10, 9, RangeComputationTest::sum).isEmpty());
+    }
+}
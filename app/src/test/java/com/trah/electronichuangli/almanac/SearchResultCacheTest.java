@@ -0,0 +1,145 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * SearchResultCache 单元测试
+ */
+public class SearchResultCacheTest {
+
+    private static final String WEDDING = "结婚嫁娶";
+
+    private static final DayScorer SCORER = new DayScorer(EventMask.compile("嫁娶", "纳采", "订盟"));
+
+    private static final int FROM = EpochDay.of(2026, 3, 1);
+
+    private static TopKDays rankDirectly(int fromDay, int toDay, ClashFilter clash, int limit) {
+        TopKDays top = new TopKDays(limit);
+        for (DayCursor cursor = new DayCursor(fromDay, toDay); cursor.hasCurrent(); cursor.next()) {
+            if (!clash.clashes(cursor.getDayGanZhi())) {
+                int score = SCORER.score(cursor);
+                if (score != DayScorer.UNSUITABLE) {
+                    top.offer(cursor.getEpochDay(), score);
+                }
+            }
+        }
+        return top.sort();
+    }
+
+    private static void assertSameRanking(TopKDays expected, TopKDays actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.dayAt(i), actual.dayAt(i));
+            assertEquals(expected.scoreAt(i), actual.scoreAt(i));
+        }
+    }
+
+    @Test
+    public void repeatedQueryIsServedFromCache() {
+        List<SearchResultCache.Outcome> outcomes = new ArrayList<>();
+        SearchResultCache cache = new SearchResultCache(4, outcomes::add);
+
+        TopKDays first = cache.rank(WEDDING, SCORER, FROM, FROM + 89, ClashFilter.NONE, 20, () -> false);
+        int[] checks = {0};
+        TopKDays second = cache.rank(WEDDING, SCORER, FROM, FROM + 89, ClashFilter.NONE, 20, () -> ++checks[0] > 0);
+
+        assertSameRanking(rankDirectly(FROM, FROM + 89, ClashFilter.NONE, 20), first);
+        assertSameRanking(first, second);
+        assertEquals(0, checks[0]);
+        assertEquals(Arrays.asList(SearchResultCache.Outcome.MISS, SearchResultCache.Outcome.HIT), outcomes);
+        assertEquals(0.5, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    public void rolloverScansOnlyNewDays() {
+        SearchResultCache cache = new SearchResultCache(4, null);
+        cache.rank(WEDDING, SCORER, FROM, FROM + 89, ClashFilter.NONE, 20, () -> false);
+
+        for (int shift = 1; shift <= 3; shift++) {
+            int[] checks = {0};
+            TopKDays shifted = cache.rank(WEDDING, SCORER, FROM + shift, FROM + shift + 89, ClashFilter.NONE, 20,
+                    () -> { checks[0]++; return false; });
+            // 每次只后移一天，只需补算新进入区间的那一天
+            assertEquals(1, checks[0]);
+            assertSameRanking(rankDirectly(FROM + shift, FROM + shift + 89, ClashFilter.NONE, 20), shifted);
+        }
+        assertEquals(3, cache.getShiftCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void skippingSeveralDaysStillShifts() {
+        SearchResultCache cache = new SearchResultCache(4, null);
+        cache.rank(WEDDING, SCORER, FROM, FROM + 29, ClashFilter.NONE, 10, () -> false);
+        int[] checks = {0};
+        TopKDays shifted = cache.rank(WEDDING, SCORER, FROM + 10, FROM + 39, ClashFilter.NONE, 10,
+                () -> { checks[0]++; return false; });
+        assertEquals(10, checks[0]);
+        assertSameRanking(rankDirectly(FROM + 10, FROM + 39, ClashFilter.NONE, 10), shifted);
+
+        // 超出整个区间或往前移都要整段重算
+        cache.rank(WEDDING, SCORER, FROM + 100, FROM + 129, ClashFilter.NONE, 10, () -> false);
+        cache.rank(WEDDING, SCORER, FROM, FROM + 29, ClashFilter.NONE, 10, () -> false);
+        assertEquals(1, cache.getShiftCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void keyIncludesEventRangeAndClash() {
+        SearchResultCache cache = new SearchResultCache(8, null);
+        ClashFilter clash = ClashFilter.of(0);
+        cache.rank(WEDDING, SCORER, FROM, FROM + 29, ClashFilter.NONE, 10, () -> false);
+        TopKDays filtered = cache.rank(WEDDING, SCORER, FROM, FROM + 29, clash, 10, () -> false);
+        cache.rank(WEDDING, SCORER, FROM, FROM + 59, ClashFilter.NONE, 10, () -> false);
+        cache.rank("订婚", SCORER, FROM, FROM + 29, ClashFilter.NONE, 10, () -> false);
+
+        assertEquals(4, cache.getMissCount());
+        assertEquals(4, cache.size());
+        assertSameRanking(rankDirectly(FROM, FROM + 29, clash, 10), filtered);
+        for (int i = 0; i < filtered.size(); i++) {
+            assertFalse(clash.clashes(new DayCursor(filtered.dayAt(i), filtered.dayAt(i)).getDayGanZhi()));
+        }
+    }
+
+    @Test
+    public void limitIsAppliedPerLookup() {
+        SearchResultCache cache = new SearchResultCache(4, null);
+        cache.rank(WEDDING, SCORER, FROM, FROM + 89, ClashFilter.NONE, 20, () -> false);
+        TopKDays fewer = cache.rank(WEDDING, SCORER, FROM, FROM + 89, ClashFilter.NONE, 5, () -> false);
+        assertSameRanking(rankDirectly(FROM, FROM + 89, ClashFilter.NONE, 5), fewer);
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void cancelledScanIsNotCached() {
+        SearchResultCache cache = new SearchResultCache(4, null);
+        int[] checks = {0};
+        cache.rank(WEDDING, SCORER, FROM, FROM + 89, ClashFilter.NONE, 20, () -> ++checks[0] > 10);
+        assertEquals(0, cache.size());
+        cache.rank(WEDDING, SCORER, FROM, FROM + 89, ClashFilter.NONE, 20, () -> false);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedQueryIsEvicted() {
+        SearchResultCache cache = new SearchResultCache(2, null);
+        cache.rank("a", SCORER, FROM, FROM + 9, ClashFilter.NONE, 5, () -> false);
+        cache.rank("b", SCORER, FROM, FROM + 9, ClashFilter.NONE, 5, () -> false);
+        cache.rank("a", SCORER, FROM, FROM + 9, ClashFilter.NONE, 5, () -> false);
+        cache.rank("c", SCORER, FROM, FROM + 9, ClashFilter.NONE, 5, () -> false);
+        cache.rank("a", SCORER, FROM, FROM + 9, ClashFilter.NONE, 5, () -> false);
+        cache.rank("b", SCORER, FROM, FROM + 9, ClashFilter.NONE, 5, () -> false);
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+}
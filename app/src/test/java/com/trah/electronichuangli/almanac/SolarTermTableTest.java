@@ -0,0 +1,88 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.EightChar;
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * SolarTermTable 单元测试，与6tail/lunar-java交叉验证
+ */
+public class SolarTermTableTest {
+
+    @Test
+    public void prevAndNextJieMatchLunarLibrary() {
+        int fromDay = EpochDay.of(1900, 1, 1);
+        int toDay = EpochDay.of(2100, 12, 31);
+        for (int epochDay = fromDay; epochDay <= toDay; epochDay++) {
+            int ymd = EpochDay.toYmd(epochDay);
+            Lunar lunar = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100).getLunar();
+            String at = " @ " + ymd;
+
+            assertTrue(at, SolarTermTable.covers(epochDay));
+            assertEquals(at, lunar.getPrevJie().getName(), SolarTermTable.nameAt(SolarTermTable.prevJie(epochDay)));
+            assertEquals(at, lunar.getNextJie().getName(), SolarTermTable.nameAt(SolarTermTable.nextJie(epochDay)));
+
+            Solar next = lunar.getNextJie().getSolar();
+            assertEquals(at, EpochDay.of(next.getYear(), next.getMonth(), next.getDay()),
+                    SolarTermTable.dayAt(SolarTermTable.nextJie(epochDay)));
+        }
+    }
+
+    @Test
+    public void termsAlternateInOrder() {
+        for (int pos = 1; pos < SolarTermTable.size(); pos++) {
+            assertTrue(SolarTermTable.instantAt(pos) > SolarTermTable.instantAt(pos - 1));
+            assertEquals((SolarTermTable.termAt(pos - 1) + 1) % 24, SolarTermTable.termAt(pos));
+        }
+    }
+
+    @Test
+    public void daysUntilNextTerm() {
+        // 2026-02-04 立春，2026-02-18 雨水
+        int liChun = EpochDay.of(2026, 2, 4);
+        assertEquals(0, SolarTermTable.daysUntilNextTerm(liChun));
+        assertEquals(13, SolarTermTable.daysUntilNextTerm(liChun + 1));
+        assertEquals("雨水", SolarTermTable.nameAt(SolarTermTable.nextTerm(liChun + 1)));
+    }
+
+    @Test
+    public void baziPillarsMatchEightChar() {
+        Random random = new Random(2026);
+        int fromDay = EpochDay.of(1901, 1, 1);
+        for (int i = 0; i < 20000; i++) {
+            int epochDay = fromDay + random.nextInt(73000);
+            int ymd = EpochDay.toYmd(epochDay);
+            int hour = random.nextInt(24);
+            int minute = random.nextInt(60);
+            EightChar eightChar = new Solar(ymd / 10000, ymd / 100 % 100, ymd % 100, hour, minute, 0)
+                    .getLunar().getEightChar();
+            long instant = SolarTermTable.instantOf(ymd / 10000, ymd / 100 % 100, ymd % 100, hour, minute, 0);
+            int dayGanZhi = GanZhiEngine.dayGanZhi(epochDay);
+            String at = " @ " + ymd + " " + hour + ":" + minute;
+
+            assertEquals(at, eightChar.getYear(), GanZhi.text(SolarTermTable.yearGanZhiAt(instant)));
+            assertEquals(at, eightChar.getMonth(), GanZhi.text(SolarTermTable.monthGanZhiAt(instant)));
+            assertEquals(at, eightChar.getDay(), GanZhi.text(dayGanZhi));
+            assertEquals(at, eightChar.getTime(), GanZhi.text(GanZhiEngine.timeGanZhi(dayGanZhi, hour)));
+        }
+    }
+
+    @Test
+    public void monthChangesAtJieInstant() {
+        for (int pos = 24; pos < SolarTermTable.size() - 24; pos++) {
+            if (!SolarTermTable.isJie(SolarTermTable.termAt(pos))) {
+                continue;
+            }
+            long instant = SolarTermTable.instantAt(pos);
+            int before = SolarTermTable.monthGanZhiAt(instant - 1);
+            int after = SolarTermTable.monthGanZhiAt(instant);
+            assertEquals((before + 1) % 60, after);
+        }
+    }
+}
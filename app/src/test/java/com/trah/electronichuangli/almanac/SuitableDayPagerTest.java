@@ -0,0 +1,131 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * SuitableDayPager 单元测试
+ */
+public class SuitableDayPagerTest {
+
+    private static final DayScorer SCORER = new DayScorer(EventMask.compile("嫁娶", "纳采", "订盟"));
+
+    private static final int FROM = EpochDay.of(2027, 1, 1);
+    private static final int TO = EpochDay.of(2027, 12, 31);
+
+    private static List<Integer> allSuitable(ClashFilter clash) {
+        List<Integer> days = new ArrayList<>();
+        for (DayCursor cursor = new DayCursor(FROM, TO); cursor.hasCurrent(); cursor.next()) {
+            if (!clash.clashes(cursor.getDayGanZhi()) && SCORER.score(cursor) != DayScorer.UNSUITABLE) {
+                days.add(cursor.getEpochDay());
+            }
+        }
+        return days;
+    }
+
+    private static List<Integer> drain(SuitableDayPager pager, int pageSize) {
+        List<Integer> days = new ArrayList<>();
+        while (pager.hasMore()) {
+            SuitableDayPager.Page page = pager.next(pageSize, () -> false);
+            assertTrue(page.size() <= pageSize);
+            assertTrue(pager.commit(page));
+            for (int i = 0; i < page.size(); i++) {
+                days.add(page.dayAt(i));
+            }
+        }
+        return days;
+    }
+
+    @Test
+    public void pagesConcatenateToWholeYearInDateOrder() {
+        List<Integer> expected = allSuitable(ClashFilter.NONE);
+        assertTrue(expected.size() > 20);
+        for (int pageSize : new int[]{1, 7, 20, 1000}) {
+            assertEquals(expected, drain(new SuitableDayPager(SCORER, ClashFilter.NONE, FROM, TO), pageSize));
+        }
+    }
+
+    @Test
+    public void fullPagesStopRightAfterTheirLastDay() {
+        SuitableDayPager pager = new SuitableDayPager(SCORER, ClashFilter.NONE, FROM, TO);
+        SuitableDayPager.Page page = pager.next(20, () -> false);
+        assertEquals(20, page.size());
+        assertEquals(FROM, page.getStartDay());
+        assertEquals(page.dayAt(19) + 1, page.getNextDay());
+        assertEquals(FROM, pager.getNextDay());
+        pager.commit(page);
+        assertEquals(page.getNextDay(), pager.getNextDay());
+        assertTrue(page.hasMore());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(SCORER.score(new DayCursor(page.dayAt(i), page.dayAt(i))), page.scoreAt(i));
+        }
+    }
+
+    @Test
+    public void nextDayResumesInNewPager() {
+        ClashFilter clash = ClashFilter.of(3);
+        SuitableDayPager first = new SuitableDayPager(SCORER, clash, FROM, TO);
+        List<Integer> days = new ArrayList<>();
+        SuitableDayPager.Page page = first.next(15, () -> false);
+        first.commit(page);
+        for (int i = 0; i < page.size(); i++) {
+            days.add(page.dayAt(i));
+        }
+        days.addAll(drain(new SuitableDayPager(SCORER, clash, first.getNextDay(), TO), 15));
+        assertEquals(allSuitable(clash), days);
+    }
+
+    @Test
+    public void pagesScanOnlyDaysNotSeenBefore() {
+        SuitableDayPager pager = new SuitableDayPager(SCORER, ClashFilter.NONE, FROM, TO);
+        int[] checks = {0};
+        while (pager.hasMore()) {
+            pager.commit(pager.next(10, () -> { checks[0]++; return false; }));
+        }
+        assertEquals(TO - FROM + 1, checks[0]);
+        assertEquals(0, pager.next(10, () -> false).size());
+        assertFalse(pager.next(10, () -> false).hasMore());
+    }
+
+    @Test
+    public void cancelledOrUncommittedPageIsReloaded() {
+        List<Integer> expected = allSuitable(ClashFilter.NONE);
+        SuitableDayPager pager = new SuitableDayPager(SCORER, ClashFilter.NONE, FROM, TO);
+        SuitableDayPager.Page first = pager.next(10, () -> false);
+        pager.commit(first);
+
+        int[] checks = {0};
+        assertNull(pager.next(10, () -> ++checks[0] > 5));
+        assertEquals(first.getNextDay(), pager.getNextDay());
+
+        // 取出但没有提交（结果被丢弃）的一页，下次从同一天重新取
+        SuitableDayPager.Page second = pager.next(10, () -> false);
+        assertEquals(first.getNextDay(), pager.getNextDay());
+        SuitableDayPager.Page again = pager.next(10, () -> false);
+        assertEquals(second.getStartDay(), again.getStartDay());
+        assertEquals(second.getNextDay(), again.getNextDay());
+
+        List<Integer> days = new ArrayList<>();
+        for (int i = 0; i < first.size(); i++) {
+            days.add(first.dayAt(i));
+        }
+        days.addAll(drain(pager, 10));
+        assertEquals(expected, days);
+    }
+
+    @Test
+    public void staleCommitIsIgnored() {
+        SuitableDayPager pager = new SuitableDayPager(SCORER, ClashFilter.NONE, FROM, TO);
+        SuitableDayPager.Page first = pager.next(10, () -> false);
+        assertTrue(pager.commit(first));
+        SuitableDayPager.Page second = pager.next(10, () -> false);
+        assertTrue(pager.commit(second));
+        assertFalse(pager.commit(first));
+        assertFalse(pager.commit(second));
+        assertEquals(second.getNextDay(), pager.getNextDay());
+    }
+}
@@ -0,0 +1,69 @@
+package com.trah.electronichuangli.almanac;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * TopKDays 单元测试
+ */
+public class TopKDaysTest {
+
+    @Test
+    public void keepsBestDaysInRankOrder() {
+        Random random = new Random(7);
+        List<int[]> all = new ArrayList<>();
+        TopKDays best = new TopKDays(20);
+        for (int day = 0; day < 5000; day++) {
+            int score = random.nextInt(100);
+            all.add(new int[]{day, score});
+            best.offer(day, score);
+        }
+        best.sort();
+
+        // 分数高的在前，分数相同时日期早的在前
+        all.sort((a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1]) : Integer.compare(a[0], b[0]));
+        assertEquals(20, best.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(all.get(i)[0], best.dayAt(i));
+            assertEquals(all.get(i)[1], best.scoreAt(i));
+        }
+    }
+
+    @Test
+    public void fewerThanKDays() {
+        TopKDays best = new TopKDays(5);
+        best.offer(10, 1);
+        best.offer(11, 3);
+        best.offer(12, 2);
+        assertEquals(Integer.MIN_VALUE, best.threshold());
+        best.sort();
+        assertEquals(3, best.size());
+        assertEquals(11, best.dayAt(0));
+        assertEquals(12, best.dayAt(1));
+        assertEquals(10, best.dayAt(2));
+    }
+
+    @Test
+    public void thresholdIsWorstKeptScore() {
+        TopKDays best = new TopKDays(2);
+        best.offer(1, 5);
+        best.offer(2, 9);
+        assertEquals(5, best.threshold());
+        assertFalse(best.offer(3, 5));
+        assertTrue(best.offer(0, 5));
+        assertTrue(best.offer(4, 7));
+        assertEquals(7, best.threshold());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotOfferAfterSort() {
+        TopKDays best = new TopKDays(2);
+        best.sort();
+        best.offer(1, 1);
+    }
+}
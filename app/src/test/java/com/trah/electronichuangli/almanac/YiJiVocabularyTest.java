@@ -0,0 +1,140 @@
+package com.trah.electronichuangli.almanac;
+
+import com.nlf.calendar.I18n;
+import com.nlf.calendar.util.LunarUtil;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * YiJiVocabulary、YiJiTable 与 EventMask 单元测试
+ */
+public class YiJiVocabularyTest {
+
+    private static final String[][] EVENTS = {
+        {"嫁娶", "纳采", "订盟"},
+        {"动土"},
+        {"求医", "治病"},
+        {"入宅", "移徙"},
+        {"开市", "交易", "纳财"}
+    };
+
+    private static boolean containsAny(String[] words, String[] keywords) {
+        for (String word : words) {
+            for (String keyword : keywords) {
+                if (word.contains(keyword)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** 按不同的词计数：库里个别日子的宜忌列表有重复的词，位图只记一次 */
+    private static int countContaining(String[] words, String[] keywords) {
+        Set<String> matched = new HashSet<>();
+        for (String word : words) {
+            if (containsAny(new String[]{word}, keywords)) {
+                matched.add(word);
+            }
+        }
+        return matched.size();
+    }
+
+    @Test
+    public void idsFollowLibraryWordOrder() {
+        I18n.init();
+        assertEquals(142, LunarUtil.YI_JI.length);
+        for (int id = 0; id < LunarUtil.YI_JI.length; id++) {
+            assertEquals(LunarUtil.YI_JI[id], id, YiJiVocabulary.idOf(LunarUtil.YI_JI[id]));
+            assertEquals(LunarUtil.YI_JI[id], YiJiVocabulary.wordOf(id));
+        }
+        assertEquals(-1, YiJiVocabulary.idOf("不存在的词"));
+    }
+
+    @Test
+    public void libraryUsesNoWordsOutsideTheVocabulary() {
+        // 加载宜忌表会把库里出现的词全部收录，当前库版本不应追加新词
+        YiJiTable.yiWords(0);
+        assertEquals(142, YiJiVocabulary.size());
+        assertTrue(YiJiVocabulary.size() <= YiJiVocabulary.CAPACITY);
+    }
+
+    @Test
+    public void bitsMatchWordListsForEveryCombo() {
+        I18n.init();
+        for (int monthZhi = 0; monthZhi < 12; monthZhi++) {
+            for (int dayGz = 0; dayGz < 60; dayGz++) {
+                int combo = YiJiTable.combo(monthZhi, dayGz);
+                List<String> yi = LunarUtil.getDayYi(GanZhi.text(monthZhi), GanZhi.text(dayGz));
+                List<String> ji = LunarUtil.getDayJi(GanZhi.text(monthZhi), GanZhi.text(dayGz));
+                assertEquals(yi, Arrays.asList(YiJiTable.yiWords(combo)));
+                assertEquals(ji, Arrays.asList(YiJiTable.jiWords(combo)));
+                for (int id = 0; id < YiJiVocabulary.size(); id++) {
+                    String word = YiJiVocabulary.wordOf(id);
+                    assertEquals(combo + " " + word, yi.contains(word), YiJiTable.hasYi(combo, id));
+                    assertEquals(combo + " " + word, ji.contains(word), YiJiTable.hasJi(combo, id));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void comboIgnoresMonthStem() {
+        // 宜忌只由月支决定，甲子月（子）与丙子月（子）相同
+        int jiaZi = 0;
+        int bingZi = GanZhi.of(2, 0);
+        assertEquals(YiJiTable.combo(jiaZi, 5), YiJiTable.combo(bingZi, 5));
+        assertNotEquals(YiJiTable.combo(jiaZi, 5), YiJiTable.combo(GanZhi.of(1, 1), 5));
+    }
+
+    @Test
+    public void keywordMaskCoversAllWordsContainingIt() {
+        long[] mask = YiJiTable.maskContaining("动土");
+        assertEquals(YiJiVocabulary.WORDS, mask.length);
+        for (int id = 0; id < YiJiVocabulary.size(); id++) {
+            boolean expected = YiJiVocabulary.wordOf(id).contains("动土");
+            assertEquals(YiJiVocabulary.wordOf(id), expected, (mask[id >>> 6] & (1L << id)) != 0);
+        }
+        // "起基动土"编号超过63，落在第二个long里
+        assertTrue(YiJiVocabulary.idOf("起基动土") >= 64);
+        assertNotEquals(0, mask[1]);
+    }
+
+    @Test
+    public void eventMaskMatchesStringComparison() {
+        for (String[] keywords : EVENTS) {
+            EventMask event = EventMask.compile(keywords);
+            for (int combo = 0; combo < YiJiTable.COMBOS; combo++) {
+                String[] yi = YiJiTable.yiWords(combo);
+                String[] ji = YiJiTable.jiWords(combo);
+                boolean expected = false;
+                for (String keyword : keywords) {
+                    String[] single = {keyword};
+                    if (containsAny(yi, single) && !containsAny(ji, single)) {
+                        expected = true;
+                    }
+                }
+                String at = String.join("", keywords) + " " + combo;
+                assertEquals(at, expected, event.matches(combo));
+                assertEquals(at, countContaining(yi, keywords), event.yiCount(combo));
+                assertEquals(at, countContaining(ji, keywords), event.jiCount(combo));
+            }
+        }
+    }
+
+    @Test
+    public void emptyEventMatchesNothing() {
+        assertSame(EventMask.NONE, EventMask.compile());
+        for (int combo = 0; combo < YiJiTable.COMBOS; combo++) {
+            assertFalse(EventMask.NONE.matches(combo));
+            assertEquals(0, EventMask.NONE.yiCount(combo));
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.trah.electronichuangli.search;
+
+import com.trah.electronichuangli.utils.AppMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * SearchSession 与 ResultBatcher 单元测试
+ * 用队列代替主线程的下一帧，测试线程手动执行队列中的刷新
+ */
+public class SearchSessionTest {
+
+    private ExecutorService executor;
+    private SearchSession session;
+    private Queue<Runnable> frames;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        session = new SearchSession(executor);
+        frames = new ConcurrentLinkedQueue<>();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /** 记录收到的回调 */
+    private static final class RecordingListener implements ResultBatcher.Listener<String> {
+        final List<List<String>> batches = new ArrayList<>();
+        int completions;
+
+        @Override
+        public void onBatch(List<String> batch) {
+            batches.add(batch);
+        }
+
+        @Override
+        public void onComplete() {
+            completions++;
+        }
+
+        List<String> items() {
+            List<String> items = new ArrayList<>();
+            for (List<String> batch : batches) {
+                items.addAll(batch);
+            }
+            return items;
+        }
+    }
+
+    private ResultBatcher<String> batcher(SearchSession.Ticket ticket, RecordingListener listener) {
+        return new ResultBatcher<>(ticket, listener, frames::add);
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        CountDownLatch idle = new CountDownLatch(1);
+        executor.execute(idle::countDown);
+        assertTrue(idle.await(5, TimeUnit.SECONDS));
+    }
+
+    private void runFrames() {
+        Runnable frame;
+        while ((frame = frames.poll()) != null) {
+            frame.run();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void supersededSearchDeliversNoBatchesOrCompletion() throws InterruptedException {
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch resubmitted = new CountDownLatch(1);
+        boolean[] sawCancel = {false};
+        long cancelSamples = AppMetrics.getCount(AppMetrics.SEARCH_CANCEL_LATENCY);
+
+        SearchSession.Ticket firstTicket = session.submit(ticket -> {
+            ResultBatcher<String> batcher = batcher(ticket, first);
+            batcher.add("a1");
+            firstStarted.countDown();
+            await(resubmitted);
+            sawCancel[0] = ticket.isCancelled();
+            batcher.add("a2");
+            batcher.finish();
+        });
+        await(firstStarted);
+        SearchSession.Ticket secondTicket = session.submit(ticket -> {
+            ResultBatcher<String> batcher = batcher(ticket, second);
+            batcher.add("b1");
+            batcher.add("b2");
+            batcher.finish();
+        });
+        resubmitted.countDown();
+        awaitIdle();
+        runFrames();
+
+        assertTrue(sawCancel[0]);
+        assertTrue(secondTicket.getGeneration() > firstTicket.getGeneration());
+        assertFalse(firstTicket.isCurrent());
+        assertTrue(secondTicket.isCurrent());
+        // "a1"在取消前已进入缓冲区，投递时按代号核对后同样丢弃
+        assertTrue(first.batches.isEmpty());
+        assertEquals(0, first.completions);
+        assertEquals(Arrays.asList("b1", "b2"), second.items());
+        assertEquals(1, second.completions);
+        assertEquals(cancelSamples + 1, AppMetrics.getCount(AppMetrics.SEARCH_CANCEL_LATENCY));
+    }
+
+    @Test
+    public void queuedSearchIsSkippedWhenSuperseded() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        boolean[] queuedRan = {false};
+        boolean[] latestRan = {false};
+        long cancelSamples = AppMetrics.getCount(AppMetrics.SEARCH_CANCEL_LATENCY);
+
+        session.submit(ticket -> await(release));
+        session.submit(ticket -> queuedRan[0] = true);
+        session.submit(ticket -> latestRan[0] = true);
+        release.countDown();
+        awaitIdle();
+
+        assertFalse(queuedRan[0]);
+        assertTrue(latestRan[0]);
+        // 正在运行的和还在队列里的两次搜索都记录了取消延迟
+        assertEquals(cancelSamples + 2, AppMetrics.getCount(AppMetrics.SEARCH_CANCEL_LATENCY));
+    }
+
+    @Test
+    public void cancelBeforeFrameDropsPendingResults() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        session.submit(ticket -> {
+            ResultBatcher<String> batcher = batcher(ticket, listener);
+            batcher.add("x");
+            batcher.finish();
+        });
+        awaitIdle();
+        session.cancel();
+        runFrames();
+
+        assertTrue(listener.batches.isEmpty());
+        assertEquals(0, listener.completions);
+    }
+
+    @Test
+    public void resultsWithinOneFrameAreDeliveredTogether() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        session.submit(ticket -> {
+            ResultBatcher<String> batcher = batcher(ticket, listener);
+            batcher.add("1");
+            batcher.add("2");
+            batcher.add("3");
+            batcher.finish();
+        });
+        awaitIdle();
+
+        assertEquals(1, frames.size());
+        runFrames();
+        assertEquals(1, listener.batches.size());
+        assertEquals(Arrays.asList("1", "2", "3"), listener.items());
+        assertEquals(1, listener.completions);
+    }
+
+    @Test
+    public void firstResultsShowBeforeSearchFinishes() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        CountDownLatch firstAdded = new CountDownLatch(1);
+        CountDownLatch shown = new CountDownLatch(1);
+        session.submit(ticket -> {
+            ResultBatcher<String> batcher = batcher(ticket, listener);
+            batcher.add("early");
+            firstAdded.countDown();
+            await(shown);
+            batcher.add("late");
+            batcher.finish();
+        });
+
+        // 搜索还在进行，下一帧就能看到第一个结果
+        await(firstAdded);
+        runFrames();
+        assertEquals(Arrays.asList("early"), listener.items());
+        assertEquals(0, listener.completions);
+
+        shown.countDown();
+        awaitIdle();
+        runFrames();
+        assertEquals(Arrays.asList("early", "late"), listener.items());
+        assertEquals(2, listener.batches.size());
+        assertEquals(1, listener.completions);
+    }
+
+    @Test
+    public void finishWithoutResultsStillCompletes() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        session.submit(ticket -> {
+            ResultBatcher<String> batcher = batcher(ticket, listener);
+            batcher.finish();
+            batcher.finish();
+            batcher.add("ignored");
+        });
+        awaitIdle();
+        runFrames();
+
+        assertTrue(listener.batches.isEmpty());
+        assertEquals(1, listener.completions);
+    }
+}